@@ -0,0 +1,25 @@
+package com.bivashy.configurate.objectmapping.meta;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that result of a {@link Transient} default method should be computed once per instance.
+ *
+ * <p>The result is computed lazily on the first call. Stored values read during the computation are recorded,
+ * and changing one of them through a setter invalidates only the results that depend on it.</p>
+ *
+ * <p>Changes inside nested config interfaces are not tracked, so results that read a nested config interface
+ * are computed on every call instead of being cached.</p>
+ *
+ * <p>Cached methods should be {@link Transient} default methods without parameters, otherwise discovery of the interface fails.</p>
+ *
+ * @since 0.0.1
+ * @see Transient
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+}
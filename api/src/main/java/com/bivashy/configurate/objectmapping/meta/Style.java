@@ -35,4 +35,13 @@ public @interface Style {
      */
     String hashCodeName() default "hash";
 
+    /**
+     * Generated `hashCode()` of models without setters is computed once per instance if enabled.
+     * Nested values should be config interfaces without setters or immutable values, such as strings, boxed primitives and enums,
+     * otherwise it is not cached. Arrays, collections and maps can be changed in place, so models with them are never cached.
+     *
+     * @return Whether generated `hashCode()` should be cached.
+     */
+    boolean cacheHashCode() default false;
+
 }
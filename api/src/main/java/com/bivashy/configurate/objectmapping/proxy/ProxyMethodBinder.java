@@ -0,0 +1,25 @@
+package com.bivashy.configurate.objectmapping.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * Bind-time form of {@link ProxyMethodInvoker}.
+ *
+ * <p>A binder is asked once per method of a discovered interface whether it claims that method.</p>
+ *
+ * @see ProxyMethodInvoker#of(ProxyMethodBinder)
+ */
+@FunctionalInterface
+public interface ProxyMethodBinder {
+
+    /**
+     * Resolves the handler for the given method.
+     *
+     * @param layout The slot layout of the interface that is being discovered.
+     * @param method The method of the interface to resolve.
+     * @param next The handler that will be used if this binder doesn't claim the method.
+     * @return Handler of the claimed method, or {@code next} if the method is not claimed.
+     */
+    ProxyMethodHandler bind(ProxySlotLayout layout, Method method, ProxyMethodHandler next);
+
+}
@@ -0,0 +1,40 @@
+package com.bivashy.configurate.objectmapping.proxy;
+
+/**
+ * Represents the final, pre-resolved behaviour of a single proxy method.
+ *
+ * <p>Handlers are produced once per method when an interface is discovered
+ * (see {@link ProxyMethodInvoker#bind(ProxySlotLayout, java.lang.reflect.Method, ProxyMethodHandler)}),
+ * so a call on the proxy is a direct jump into the handler without re-evaluating any invoker.</p>
+ */
+@FunctionalInterface
+public interface ProxyMethodHandler {
+
+    /**
+     * Handles a call of the bound method.
+     *
+     * @param proxy The proxy object the method is invoked on.
+     * @param args The arguments passed to the method, may be {@code null} if there is none.
+     * @param slots Stored values of the proxy.
+     * @return The result of the method invocation.
+     * @throws ReflectiveOperationException If there is an error during reflective method invocation.
+     */
+    Object handle(Object proxy, Object[] args, ProxySlots slots) throws ReflectiveOperationException;
+
+    /**
+     * Handles a call of the bound method that has a single parameter.
+     *
+     * <p>Backends that can pass the argument without wrapping it in an array call this method instead of
+     * {@link #handle(Object, Object[], ProxySlots)}, handlers may override it to avoid the allocation.</p>
+     *
+     * @param proxy The proxy object the method is invoked on.
+     * @param arg The argument passed to the method.
+     * @param slots Stored values of the proxy.
+     * @return The result of the method invocation.
+     * @throws ReflectiveOperationException If there is an error during reflective method invocation.
+     */
+    default Object handleUnary(Object proxy, Object arg, ProxySlots slots) throws ReflectiveOperationException {
+        return handle(proxy, new Object[]{arg}, slots);
+    }
+
+}
@@ -2,7 +2,6 @@ package com.bivashy.configurate.objectmapping.proxy;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.Map;
 
 /**
  * Represents an invoker for proxy methods.
@@ -12,6 +11,27 @@ import java.util.Map;
  */
 public interface ProxyMethodInvoker {
 
+    /**
+     * Creates a new {@code ProxyMethodInvoker} that resolves claimed methods once, at discovery time.
+     *
+     * @param binder The binder that decides which methods are claimed.
+     * @return A new invoker backed by the given binder.
+     */
+    static ProxyMethodInvoker of(ProxyMethodBinder binder) {
+        return new ProxyMethodInvoker() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args, ProxySlots slots) throws ReflectiveOperationException {
+                return binder.bind(slots.layout(), method, (ignored, ignoredArgs, ignoredSlots) -> null)
+                        .handle(proxy, args, slots);
+            }
+
+            @Override
+            public ProxyMethodHandler bind(ProxySlotLayout layout, Method method, ProxyMethodHandler next) {
+                return binder.bind(layout, method, next);
+            }
+        };
+    }
+
     /**
      * Invokes the specified method on a proxy object.
      *
@@ -24,11 +44,33 @@ public interface ProxyMethodInvoker {
      * @param proxy The proxy object the method is invoked on.
      * @param method The method to invoke.
      * @param args The arguments to pass to the method.
-     * @param intermediate An map that holds 'methodName:value'.
+     * @param slots Stored values of the proxy.
      * @return The result of the method invocation or {@code null} if the method should be ignored.
      * @throws ReflectiveOperationException If there is an error during reflective method invocation.
      */
-    Object invoke(Object proxy, Method method, Object[] args, Map<String, Object> intermediate) throws ReflectiveOperationException;
+    Object invoke(Object proxy, Method method, Object[] args, ProxySlots slots) throws ReflectiveOperationException;
+
+    /**
+     * Resolves the handler of the given method once, when the interface is discovered.
+     *
+     * <p>The default implementation claims every method and calls {@link #invoke(Object, Method, Object[], ProxySlots)}
+     * on each call, falling back to {@code next} when it returns {@code null}.
+     * Invokers that know up front which methods they handle should override this method
+     * (or be created through {@link #of(ProxyMethodBinder)}) and return {@code next} for the others.</p>
+     *
+     * @param layout The slot layout of the interface that is being discovered.
+     * @param method The method of the interface to resolve.
+     * @param next The handler that will be used if this invoker doesn't claim the method.
+     * @return Handler of the method.
+     */
+    default ProxyMethodHandler bind(ProxySlotLayout layout, Method method, ProxyMethodHandler next) {
+        return (proxy, args, slots) -> {
+            Object result = invoke(proxy, method, args, slots);
+            if (result != null)
+                return result;
+            return next.handle(proxy, args, slots);
+        };
+    }
 
     /**
      * Produces a new {@code ProxyMethodInvoker} that only invokes methods annotated with the specified annotation.
@@ -39,10 +81,10 @@ public interface ProxyMethodInvoker {
      * @return A new invoker that filters based on the presence of the specified annotation.
      */
     default ProxyMethodInvoker annotated(Class<? extends Annotation> annotation) {
-        return (proxy, method, args, intermediate) -> {
+        return of((layout, method, next) -> {
             if (!method.isAnnotationPresent(annotation))
-                return null;
-            return invoke(proxy, method, args, intermediate);
-        };
+                return next;
+            return bind(layout, method, next);
+        });
     }
 }
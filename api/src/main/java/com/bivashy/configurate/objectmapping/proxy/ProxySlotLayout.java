@@ -0,0 +1,45 @@
+package com.bivashy.configurate.objectmapping.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * Represents the slot layout of a discovered interface.
+ *
+ * <p>Every method discovered by the field discoverer is given a fixed slot ordinal,
+ * its stored value is kept in {@link ProxySlots} under that ordinal.</p>
+ */
+public interface ProxySlotLayout {
+
+    /**
+     * @return The interface this layout belongs to.
+     */
+    Class<?> type();
+
+    /**
+     * @return Amount of slots.
+     */
+    int size();
+
+    /**
+     * Finds slot of the given method, methods with the same name and parameter types share the slot.
+     *
+     * @param method The method of the interface.
+     * @return Slot ordinal, or {@code -1} if the method doesn't have stored value.
+     */
+    int slot(Method method);
+
+    /**
+     * Finds slot of the first discovered method with the given name.
+     *
+     * @param name The method name.
+     * @return Slot ordinal, or {@code -1} if there is no discovered method with such name.
+     */
+    int slot(String name);
+
+    /**
+     * @param slot The slot ordinal.
+     * @return The discovered method that owns the slot.
+     */
+    Method method(int slot);
+
+}
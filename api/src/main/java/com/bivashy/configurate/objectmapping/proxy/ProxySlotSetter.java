@@ -0,0 +1,32 @@
+package com.bivashy.configurate.objectmapping.proxy;
+
+/**
+ * Handler of a setter that only stores its argument in a slot and returns the proxy.
+ *
+ * <p>Backends that recognize this handler may write the slot directly, without boxing the argument.</p>
+ */
+@FunctionalInterface
+public interface ProxySlotSetter extends ProxyMethodHandler {
+
+    /**
+     * Creates setter of the given slot.
+     *
+     * @param slot The slot ordinal to store the argument in.
+     * @return A new setter handler.
+     */
+    static ProxySlotSetter of(int slot) {
+        return () -> slot;
+    }
+
+    /**
+     * @return The slot ordinal the argument is stored in.
+     */
+    int slot();
+
+    @Override
+    default Object handle(Object proxy, Object[] args, ProxySlots slots) {
+        slots.set(slot(), args[0]);
+        return proxy;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.bivashy.configurate.objectmapping.proxy;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Represents stored values of a single proxy instance, indexed by slot ordinals of its {@link ProxySlotLayout}.
+ */
+public interface ProxySlots {
+
+    /**
+     * @return The layout of these slots.
+     */
+    ProxySlotLayout layout();
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Stored value, may be {@code null}.
+     */
+    Object get(int slot);
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Whether the slot holds a value, partially loaded instances, such as projections, may throw on reads of other slots.
+     */
+    default boolean isLoaded(int slot) {
+        return true;
+    }
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Whether the slot has a stored value, same as {@code get(slot) != null}.
+     */
+    default boolean isSet(int slot) {
+        return get(slot) != null;
+    }
+
+    /**
+     * @param slot The slot ordinal.
+     * @param value New value to store.
+     */
+    void set(int slot, Object value);
+
+    /**
+     * Compares stored value of the slot with the value of the same slot in other slots.
+     *
+     * @param slot The slot ordinal.
+     * @param other Slots of the same layout.
+     * @return Whether the stored values are equal.
+     */
+    default boolean valueEquals(int slot, ProxySlots other) {
+        return Objects.equals(get(slot), other.get(slot));
+    }
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Hash code of the stored value, same as {@code Objects.hashCode(get(slot))}.
+     */
+    default int valueHashCode(int slot) {
+        return Objects.hashCode(get(slot));
+    }
+
+    /**
+     * Returns per-instance state attached by the given key, creating it on the first call.
+     *
+     * <p>Invokers use attachments to keep state that is not a stored value, such as cached results.</p>
+     *
+     * @param key Identity of the attachment.
+     * @param factory Creates the attachment if it is absent.
+     * @param <T> Type of the attachment.
+     * @return The attachment.
+     */
+    <T> T attachment(Object key, Supplier<T> factory);
+
+}
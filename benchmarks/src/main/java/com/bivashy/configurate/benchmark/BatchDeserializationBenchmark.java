@@ -0,0 +1,96 @@
+package com.bivashy.configurate.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializer;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.ConfigInterface;
+import com.bivashy.configurate.objectmapping.common.BatchSerializer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+
+import io.leangen.geantyref.TypeToken;
+
+/**
+ * Deserialization of a large list of config interfaces.
+ *
+ * <p>{@code perElement} is the default list serializer of Configurate, which deserializes each element through
+ * {@link InterfaceObjectMapperFactory#deserialize}. {@code sequential} and {@code parallel} resolve the element mapper once.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchDeserializationBenchmark {
+
+    private static final Type ITEMS = new TypeToken<List<Item>>() {}.getType();
+    @Param({"10000", "100000"})
+    private int size;
+    private ConfigurationNode node;
+    private TypeSerializer<?> perElement;
+    private BatchSerializer sequential;
+    private BatchSerializer parallel;
+
+    @Setup
+    public void setup() throws SerializationException {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        node = BasicConfigurationNode.root(ConfigurationOptions.defaults()
+                .serializers(builder -> builder.register(InterfaceObjectMapperFactory::applicable, factory)));
+        for (int i = 0; i < size; i++) {
+            ConfigurationNode element = node.appendListNode();
+            element.node("id").set("item" + i);
+            element.node("weight").set(i);
+            element.node("tags").appendListNode().set("tag" + i % 10);
+        }
+        perElement = TypeSerializerCollection.defaults().get(ITEMS);
+        sequential = factory.batchSerializer(Integer.MAX_VALUE, ForkJoinPool.commonPool());
+        parallel = factory.batchSerializer(BatchSerializer.DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Object perElement() throws SerializationException {
+        return perElement.deserialize(ITEMS, node);
+    }
+
+    @Benchmark
+    public Object sequential() throws SerializationException {
+        return sequential.deserialize(ITEMS, node);
+    }
+
+    @Benchmark
+    public Object parallel() throws SerializationException {
+        return parallel.deserialize(ITEMS, node);
+    }
+
+    @ConfigInterface
+    public interface Item {
+
+        String id();
+
+        int weight();
+
+        List<String> tags();
+
+    }
+
+}
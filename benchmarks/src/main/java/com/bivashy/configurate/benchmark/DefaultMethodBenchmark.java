@@ -0,0 +1,91 @@
+package com.bivashy.configurate.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.ConfigInterface;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyDefaultMethodInvoker;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+/**
+ * Cost of a single call of a default method on a config interface proxy.
+ *
+ * <p>{@code uncachedHandle} reproduces the lookup that was done on every call before handles were cached.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultMethodBenchmark {
+
+    private Settings settings;
+    private Method joinFields;
+
+    @Setup
+    public void setup() throws SerializationException, NoSuchMethodException {
+        settings = new InterfaceObjectMapperFactory().get(Settings.class).load(BasicConfigurationNode.root(node -> {
+            node.node("first").raw("Hello");
+        }));
+        joinFields = Settings.class.getMethod("joinFields");
+    }
+
+    @Benchmark
+    public Object uncachedHandle() throws Throwable {
+        Lookup lookup = (Lookup) MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class)
+                .invoke(null, Settings.class, MethodHandles.lookup());
+        joinFields.setAccessible(true);
+        MethodHandle methodHandle = lookup.unreflectSpecial(joinFields, Settings.class).bindTo(settings);
+        return methodHandle.invokeWithArguments((Object[]) null);
+    }
+
+    @Benchmark
+    public Object cachedHandle() throws ReflectiveOperationException {
+        return ProxyDefaultMethodInvoker.invokeDefaultMethod(settings, joinFields, null);
+    }
+
+    @Benchmark
+    public String proxyTransientMethod() {
+        return settings.joinFields();
+    }
+
+    @Benchmark
+    public int proxyDefaultMethod() {
+        return settings.someNumber();
+    }
+
+    @ConfigInterface
+    public interface Settings {
+
+        String first();
+
+        default int someNumber() {
+            return 4;
+        }
+
+        @Transient
+        default String joinFields() {
+            return first() + " " + someNumber();
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.bivashy.configurate.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.ConfigInterface;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+
+import io.leangen.geantyref.TypeToken;
+
+/**
+ * Serialization of a large list of config interfaces into a fresh node.
+ *
+ * <p>Values of loaded instances are read from their slots, {@code save} should be dominated by node writes.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmark {
+
+    private static final Type ITEMS = new TypeToken<List<Item>>() {}.getType();
+    @Param({"50000"})
+    private int size;
+    private ConfigurationOptions options;
+    private List<Item> items;
+
+    @Setup
+    public void setup() throws SerializationException {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        options = ConfigurationOptions.defaults()
+                .serializers(builder -> builder.register(InterfaceObjectMapperFactory::applicable, factory));
+        ConfigurationNode node = BasicConfigurationNode.root(options);
+        for (int i = 0; i < size; i++) {
+            ConfigurationNode element = node.appendListNode();
+            element.node("id").set("item" + i);
+            element.node("weight").set(i);
+        }
+        items = node.get(new TypeToken<List<Item>>() {});
+    }
+
+    @Benchmark
+    public Object save() throws SerializationException {
+        return BasicConfigurationNode.root(options).set(ITEMS, items);
+    }
+
+    @ConfigInterface
+    public interface Item {
+
+        String id();
+
+        int weight();
+
+        default String description() {
+            return "none";
+        }
+
+    }
+
+}
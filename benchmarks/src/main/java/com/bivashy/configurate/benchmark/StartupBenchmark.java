@@ -0,0 +1,135 @@
+package com.bivashy.configurate.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.DiscoverySnapshot;
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+
+/**
+ * Cold start cost of object mappers of a few hundred interfaces.
+ *
+ * <p>Interfaces are compiled once and loaded by a new class loader for every invocation,
+ * so in-memory discovery caches start empty like on a new JVM.
+ * {@code snapshotDiscovery} includes reading the snapshot file.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 40)
+@Fork(3)
+public class StartupBenchmark {
+
+    private static final int INTERFACES = 300;
+    private static final int TRAITS = 10;
+    private Path directory;
+    private Path snapshot;
+    private URLClassLoader loader;
+    private List<Class<?>> interfaces;
+
+    @Setup(Level.Trial)
+    public void compile() throws IOException, ReflectiveOperationException {
+        directory = Files.createTempDirectory("startup-benchmark");
+        Path sources = Files.createDirectories(directory.resolve("generated"));
+        List<File> files = new ArrayList<>();
+        files.add(write(sources, "HasCooldown", "public interface HasCooldown {\n    int cooldown();\n}\n"));
+        for (int i = 0; i < TRAITS; i++) {
+            files.add(write(sources, "Trait" + i, "public interface Trait" + i + " extends HasCooldown {\n" +
+                    "    String permission" + i + "();\n" +
+                    "    java.util.List<String> aliases" + i + "();\n" +
+                    "}\n"));
+        }
+        for (int i = 0; i < INTERFACES; i++) {
+            files.add(write(sources, "Config" + i, "public interface Config" + i + " extends Trait" + i % TRAITS + " {\n" +
+                    "    String name();\n" +
+                    "    int size();\n" +
+                    "    double rate();\n" +
+                    "    java.util.List<String> values();\n" +
+                    "    java.util.Map<String, Integer> limits();\n" +
+                    "    default boolean enabled() {\n        return true;\n    }\n" +
+                    "    void size(int size);\n" +
+                    "}\n"));
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            if (!compiler.getTask(null, fileManager, null, Arrays.asList("-d", directory.toString()), null,
+                    fileManager.getJavaFileObjectsFromFiles(files)).call())
+                throw new IllegalStateException("Cannot compile interfaces");
+        }
+
+        snapshot = directory.resolve("snapshot.txt");
+        DiscoverySnapshot discoverySnapshot = DiscoverySnapshot.create();
+        loadInterfaces();
+        getMappers(InterfaceMethodDiscoverer.defaultBuilder().snapshot(discoverySnapshot).build());
+        discoverySnapshot.write(snapshot);
+        loader.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void loadInterfaces() throws MalformedURLException, ClassNotFoundException {
+        loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, StartupBenchmark.class.getClassLoader());
+        interfaces = new ArrayList<>(INTERFACES);
+        for (int i = 0; i < INTERFACES; i++)
+            interfaces.add(Class.forName("generated.Config" + i, false, loader));
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeLoader() throws IOException {
+        loader.close();
+    }
+
+    @Benchmark
+    public int reflectiveDiscovery() throws SerializationException {
+        return getMappers(InterfaceMethodDiscoverer.defaultBuilder().build());
+    }
+
+    @Benchmark
+    public int snapshotDiscovery() throws IOException {
+        return getMappers(InterfaceMethodDiscoverer.defaultBuilder().snapshot(DiscoverySnapshot.read(snapshot)).build());
+    }
+
+    private int getMappers(InterfaceMethodDiscoverer discoverer) throws SerializationException {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory(discoverer);
+        int fields = 0;
+        for (Class<?> type : interfaces)
+            fields += factory.get(type).fields().size();
+        return fields;
+    }
+
+    private static File write(Path directory, String name, String source) throws IOException {
+        Path file = directory.resolve(name + ".java");
+        Files.write(file, ("package generated;\n\n" + source).getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+/**
+ * Slots of a {@link java.lang.reflect.Proxy} instance, backed by the intermediate array it was completed with.
+ */
+final class ArraySlots extends InstanceSlots {
+
+    private final ProxySlotLayout layout;
+    private final Object[] values;
+
+    ArraySlots(ProxySlotLayout layout, Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public Object get(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        values[slot] = value;
+        markDirty(slot);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Attachments of a single instance, see {@link com.bivashy.configurate.objectmapping.proxy.ProxySlots#attachment(Object, Supplier)}.
+ */
+final class Attachments {
+
+    // Created with the first attachment, see InstanceSlots
+    private final Map<Object, Object> values = new ConcurrentHashMap<>(4);
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, Supplier<T> factory) {
+        Object value = values.get(key);
+        if (value == null)
+            value = values.computeIfAbsent(key, ignored -> factory.get());
+        return (T) value;
+    }
+
+}
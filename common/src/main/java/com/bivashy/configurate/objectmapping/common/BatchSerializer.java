@@ -0,0 +1,288 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import static io.leangen.geantyref.GenericTypeReflector.erase;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializer;
+import org.spongepowered.configurate.util.CheckedFunction;
+
+/**
+ * Serializer of {@code List<E>} and {@code Map<K, E>} of config interfaces, which resolves the object mapper of {@code E} once per
+ * list or map instead of once per element. Lists and maps of at least {@link #parallelThreshold()} elements are deserialized
+ * on a {@link ForkJoinPool}, elements keep the order of their nodes.
+ *
+ * <pre>{@code
+ * InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+ * builder.register(InterfaceObjectMapperFactory::applicable, factory)
+ *         .register(BatchSerializer::applicable, factory.batchSerializer());
+ * }</pre>
+ *
+ * <p>Elements and keys are serialized by the serializers of the node options, like the list and map serializers of Configurate do.
+ * Map entries with a {@code null} key or value are skipped.</p>
+ */
+public final class BatchSerializer implements TypeSerializer<Object> {
+
+    /**
+     * Default count of elements from which lists and maps are deserialized in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private final InterfaceObjectMapperFactory factory;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    BatchSerializer(InterfaceObjectMapperFactory factory, int parallelThreshold, ForkJoinPool pool) {
+        if (parallelThreshold < 1)
+            throw new IllegalArgumentException("Parallel threshold should be positive: " + parallelThreshold);
+        this.factory = factory;
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns whether the type is a {@code List} or a {@code Map} of config interfaces.
+     *
+     * @param type Type to test.
+     * @return Whether the type can be deserialized by this serializer.
+     */
+    public static boolean applicable(Type type) {
+        return elementType(type) != null;
+    }
+
+    /**
+     * @return Count of elements from which lists and maps are deserialized in parallel.
+     */
+    public int parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Override
+    public Object deserialize(Type type, ConfigurationNode node) throws SerializationException {
+        Type elementType = elementType(type);
+        if (elementType == null)
+            throw new SerializationException(type, "Expected a list or a map of config interfaces");
+        boolean list = erase(type) == List.class;
+        CheckedFunction<ConfigurationNode, Object, SerializationException> loader = factory.loader(elementType);
+        if (list && !node.isList()) {
+            List<Object> single = new ArrayList<>();
+            // Scalar is a list of a single element, as for the list serializer of Configurate
+            if (node.raw() != null)
+                single.add(loadElement(node, loader));
+            return single;
+        }
+        if (list)
+            return new ArrayList<>(Arrays.asList(load(node.childrenList(), loader)));
+        if (!node.isMap())
+            return new LinkedHashMap<>();
+
+        Type keyType = ((ParameterizedType) type).getActualTypeArguments()[0];
+        TypeSerializer<Object> keySerializer = serializer(type, keyType, node.options(), "key");
+        List<Object> keys = new ArrayList<>();
+        List<ConfigurationNode> nodes = new ArrayList<>();
+        BasicConfigurationNode keyNode = BasicConfigurationNode.root(node.options());
+        for (Map.Entry<Object, ? extends ConfigurationNode> entry : node.childrenMap().entrySet()) {
+            Object key = keySerializer.deserialize(keyType, keyNode.set(entry.getKey()));
+            if (key == null)
+                continue;
+            keys.add(key);
+            nodes.add(entry.getValue());
+        }
+        Object[] values = load(nodes, loader);
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null)
+                map.put(keys.get(i), values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public void serialize(Type type, @Nullable Object obj, ConfigurationNode node) throws SerializationException {
+        Type elementType = elementType(type);
+        if (elementType == null)
+            throw new SerializationException(type, "Expected a list or a map of config interfaces");
+        TypeSerializer<Object> elementSerializer = serializer(type, elementType, node.options(), "value");
+        if (erase(type) == List.class) {
+            node.raw(Collections.emptyList());
+            if (obj == null)
+                return;
+            for (Object element : (List<?>) obj) {
+                ConfigurationNode child = node.appendListNode();
+                serializeElement(elementSerializer, elementType, element, child);
+            }
+            return;
+        }
+        if (obj == null || ((Map<?, ?>) obj).isEmpty()) {
+            node.set(Collections.emptyMap());
+            return;
+        }
+        Type keyType = ((ParameterizedType) type).getActualTypeArguments()[0];
+        TypeSerializer<Object> keySerializer = serializer(type, keyType, node.options(), "key");
+        Set<Object> unvisited;
+        if (node.empty()) {
+            node.raw(Collections.emptyMap());
+            unvisited = Collections.emptySet();
+        } else {
+            unvisited = new HashSet<>(node.childrenMap().keySet());
+        }
+        BasicConfigurationNode keyNode = BasicConfigurationNode.root(node.options());
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null)
+                continue;
+            keySerializer.serialize(keyType, entry.getKey(), keyNode);
+            Object key = keyNode.raw();
+            if (key == null)
+                continue;
+            unvisited.remove(key);
+            serializeElement(elementSerializer, elementType, entry.getValue(), node.node(key));
+        }
+        for (Object key : unvisited)
+            node.removeChild(key);
+    }
+
+    @Override
+    public @Nullable Object emptyValue(Type specificType, ConfigurationOptions options) {
+        return erase(specificType) == List.class ? new ArrayList<>() : new LinkedHashMap<>();
+    }
+
+    private Object[] load(List<? extends ConfigurationNode> nodes, CheckedFunction<ConfigurationNode, Object, SerializationException> loader)
+            throws SerializationException {
+        Object[] values = new Object[nodes.size()];
+        if (nodes.size() < parallelThreshold) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = loadElement(nodes.get(i), loader);
+            return values;
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, nodes.size() / (pool.getParallelism() * 4));
+        try {
+            pool.invoke(new LoadTask(nodes, values, loader, 0, values.length, chunkSize));
+        } catch (RuntimeException e) {
+            // Exception may be rethrown as a copy with the original as its cause
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ElementException)
+                    throw ((ElementException) cause).getCause();
+            }
+            throw e;
+        }
+        return values;
+    }
+
+    private static Object loadElement(ConfigurationNode node, CheckedFunction<ConfigurationNode, Object, SerializationException> loader)
+            throws SerializationException {
+        try {
+            return loader.apply(node);
+        } catch (SerializationException e) {
+            e.initPath(node::path);
+            throw e;
+        }
+    }
+
+    private static void serializeElement(TypeSerializer<Object> serializer, Type type, Object element, ConfigurationNode node)
+            throws SerializationException {
+        try {
+            serializer.serialize(type, element, node);
+        } catch (SerializationException e) {
+            e.initPath(node::path);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TypeSerializer<Object> serializer(Type type, Type argument, ConfigurationOptions options, String role)
+            throws SerializationException {
+        TypeSerializer<?> serializer = options.serializers().get(argument);
+        if (serializer == null)
+            throw new SerializationException(type, "No type serializer available for " + role + " type " + argument);
+        return (TypeSerializer<Object>) serializer;
+    }
+
+    private static @Nullable Type elementType(Type type) {
+        if (!(type instanceof ParameterizedType))
+            return null;
+        Class<?> rawType = erase(type);
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        Type elementType;
+        if (rawType == List.class)
+            elementType = arguments[0];
+        else if (rawType == Map.class)
+            elementType = arguments[1];
+        else
+            return null;
+        if (!(elementType instanceof Class || elementType instanceof ParameterizedType))
+            return null;
+        // Concrete type of abstract elements is configured per element
+        return erase(elementType).isInterface() && InterfaceObjectMapperFactory.applicable(elementType) ? elementType : null;
+    }
+
+    private static final class LoadTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<? extends ConfigurationNode> nodes;
+        private final Object[] values;
+        private final CheckedFunction<ConfigurationNode, Object, SerializationException> loader;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        LoadTask(List<? extends ConfigurationNode> nodes, Object[] values,
+                 CheckedFunction<ConfigurationNode, Object, SerializationException> loader, int from, int to, int chunkSize) {
+            this.nodes = nodes;
+            this.values = values;
+            this.loader = loader;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LoadTask(nodes, values, loader, from, middle, chunkSize),
+                        new LoadTask(nodes, values, loader, middle, to, chunkSize));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                try {
+                    values[i] = loadElement(nodes.get(i), loader);
+                } catch (SerializationException e) {
+                    throw new ElementException(e);
+                }
+            }
+        }
+
+    }
+
+    private static final class ElementException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ElementException(SerializationException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SerializationException getCause() {
+            return (SerializationException) super.getCause();
+        }
+
+    }
+
+}
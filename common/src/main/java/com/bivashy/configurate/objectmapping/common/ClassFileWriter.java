@@ -0,0 +1,305 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of Java 8 class files.
+ *
+ * <p>Supports only what {@link ImplementationGenerator} needs: fields and methods with straight-line code.
+ * Code without jumps doesn't need {@code StackMapTable} frames, so none are written.</p>
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+    static final int ACC_SYNTHETIC = 0x1000;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int FLOAD = 0x17;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IRETURN = 0xac;
+    static final int LRETURN = 0xad;
+    static final int FRETURN = 0xae;
+    static final int DRETURN = 0xaf;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int ANEWARRAY = 0xbd;
+    static final int CHECKCAST = 0xc0;
+
+    private static final int CLASS_VERSION = 52;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constants = new HashMap<>();
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+    private final int access;
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private int constantCount = 1;
+
+    ClassFileWriter(int access, String name, String superName, String... interfaceNames) {
+        this.access = access;
+        this.thisClass = classConstant(name);
+        this.superClass = classConstant(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++)
+            interfaces[i] = classConstant(interfaceNames[i]);
+    }
+
+    static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    static String descriptor(Class<?> type) {
+        if (type == void.class)
+            return "V";
+        if (type == boolean.class)
+            return "Z";
+        if (type == byte.class)
+            return "B";
+        if (type == char.class)
+            return "C";
+        if (type == short.class)
+            return "S";
+        if (type == int.class)
+            return "I";
+        if (type == long.class)
+            return "J";
+        if (type == float.class)
+            return "F";
+        if (type == double.class)
+            return "D";
+        if (type.isArray())
+            return internalName(type);
+        return "L" + internalName(type) + ";";
+    }
+
+    static String methodDescriptor(Class<?> returnType, Class<?>... parameterTypes) {
+        StringBuilder builder = new StringBuilder("(");
+        for (Class<?> parameterType : parameterTypes)
+            builder.append(descriptor(parameterType));
+        return builder.append(')').append(descriptor(returnType)).toString();
+    }
+
+    void field(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        write(() -> {
+            out.writeShort(access);
+            out.writeShort(utf8Constant(name));
+            out.writeShort(utf8Constant(descriptor));
+            out.writeShort(0);
+        });
+        fields.add(bytes.toByteArray());
+    }
+
+    Code method(int access, String name, String descriptor) {
+        return new Code(access, name, descriptor);
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        write(() -> {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            out.writeShort(constantCount);
+            constantPoolBytes.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int interfaceIndex : interfaces)
+                out.writeShort(interfaceIndex);
+            out.writeShort(fields.size());
+            for (byte[] field : fields)
+                out.write(field);
+            out.writeShort(methods.size());
+            for (byte[] method : methods)
+                out.write(method);
+            out.writeShort(0);
+        });
+        return bytes.toByteArray();
+    }
+
+    private int utf8Constant(String value) {
+        return constant("Utf8:" + value, () -> {
+            constantPool.writeByte(1);
+            constantPool.writeUTF(value);
+        });
+    }
+
+    private int intConstant(int value) {
+        return constant("Integer:" + value, () -> {
+            constantPool.writeByte(3);
+            constantPool.writeInt(value);
+        });
+    }
+
+    private int classConstant(String internalName) {
+        int name = utf8Constant(internalName);
+        return constant("Class:" + internalName, () -> {
+            constantPool.writeByte(7);
+            constantPool.writeShort(name);
+        });
+    }
+
+    private int nameAndTypeConstant(String name, String descriptor) {
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        return constant("NameAndType:" + name + ":" + descriptor, () -> {
+            constantPool.writeByte(12);
+            constantPool.writeShort(nameIndex);
+            constantPool.writeShort(descriptorIndex);
+        });
+    }
+
+    private int memberConstant(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameAndType = nameAndTypeConstant(name, descriptor);
+        return constant(tag + ":" + owner + "." + name + ":" + descriptor, () -> {
+            constantPool.writeByte(tag);
+            constantPool.writeShort(ownerIndex);
+            constantPool.writeShort(nameAndType);
+        });
+    }
+
+    private int constant(String key, IOAction writer) {
+        Integer index = constants.get(key);
+        if (index != null)
+            return index;
+        write(writer);
+        index = constantCount++;
+        constants.put(key, index);
+        return index;
+    }
+
+    private static void write(IOAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface IOAction {
+
+        void run() throws IOException;
+
+    }
+
+    /**
+     * Straight-line code of a single method, written to the class once {@link #end(int, int)} is called.
+     */
+    final class Code {
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final int access;
+        private final String name;
+        private final String descriptor;
+
+        private Code(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        Code op(int opcode) {
+            code.write(opcode);
+            return this;
+        }
+
+        Code load(int opcode, int index) {
+            if (index > 0xFF)
+                throw new IllegalArgumentException("Local variable index is out of range: " + index);
+            code.write(opcode);
+            code.write(index);
+            return this;
+        }
+
+        Code pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                code.write(0x03 + value); // iconst_<n>
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.write(0x10); // bipush
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.write(0x11); // sipush
+                writeShort(value);
+            } else {
+                code.write(0x13); // ldc_w
+                writeShort(intConstant(value));
+            }
+            return this;
+        }
+
+        Code type(int opcode, String internalName) {
+            code.write(opcode);
+            writeShort(classConstant(internalName));
+            return this;
+        }
+
+        Code field(int opcode, String owner, String name, String descriptor) {
+            code.write(opcode);
+            writeShort(memberConstant(9, owner, name, descriptor));
+            return this;
+        }
+
+        Code invoke(int opcode, String owner, String name, String descriptor) {
+            code.write(opcode);
+            writeShort(memberConstant(10, owner, name, descriptor));
+            return this;
+        }
+
+        void end(int maxStack, int maxLocals) {
+            byte[] instructions = code.toByteArray();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            write(() -> {
+                out.writeShort(access);
+                out.writeShort(utf8Constant(name));
+                out.writeShort(utf8Constant(descriptor));
+                out.writeShort(1);
+                out.writeShort(utf8Constant("Code"));
+                out.writeInt(12 + instructions.length);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(instructions.length);
+                out.write(instructions);
+                out.writeShort(0);
+                out.writeShort(0);
+            });
+            methods.add(bytes.toByteArray());
+        }
+
+        private void writeShort(int value) {
+            code.write((value >>> 8) & 0xFF);
+            code.write(value & 0xFF);
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.ConfigurationOptions;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Slots of an empty value, which read values shared with other empty values of the same {@link DefaultInstance}.
+ *
+ * <p>Slots are copied to a private array on the first write, or on the first read of a value that may be modified in place.</p>
+ */
+final class CopyOnWriteSlots extends InstanceSlots {
+
+    private final ProxySlotLayout layout;
+    private final DefaultInstance defaults;
+    private final ConfigurationOptions options;
+    private volatile Object @Nullable [] values;
+
+    CopyOnWriteSlots(ProxySlotLayout layout, DefaultInstance defaults, ConfigurationOptions options) {
+        this.layout = layout;
+        this.defaults = defaults;
+        this.options = options;
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public Object get(int slot) {
+        Object[] values = this.values;
+        if (values != null)
+            return values[slot];
+        if (!defaults.fresh(slot))
+            return defaults.sharedValue(slot);
+        return copy()[slot];
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        Object[] values = this.values;
+        if (values == null)
+            values = copy();
+        values[slot] = value;
+        markDirty(slot);
+    }
+
+    // Compared and hashed without copying, values created again are equal to the shared ones
+    @Override
+    public boolean valueEquals(int slot, ProxySlots other) {
+        Object otherValue = other instanceof CopyOnWriteSlots ? ((CopyOnWriteSlots) other).peek(slot) : other.get(slot);
+        return Objects.equals(peek(slot), otherValue);
+    }
+
+    @Override
+    public int valueHashCode(int slot) {
+        return Objects.hashCode(peek(slot));
+    }
+
+    // Values that are not copied yet are shared with other instances and have no changes
+    @Override
+    @Nullable Object loadedValue(int slot) {
+        Object[] values = this.values;
+        return values != null ? values[slot] : null;
+    }
+
+    private @Nullable Object peek(int slot) {
+        Object[] values = this.values;
+        return values != null ? values[slot] : defaults.sharedValue(slot);
+    }
+
+    private synchronized Object[] copy() {
+        Object[] values = this.values;
+        if (values == null) {
+            values = defaults.copyValues(options);
+            this.values = values;
+        }
+        return values;
+    }
+
+}
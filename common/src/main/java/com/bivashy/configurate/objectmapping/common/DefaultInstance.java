@@ -0,0 +1,133 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.objectmapping.FieldData;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Empty value of a config interface for a single set of options, loaded from an empty node once.
+ *
+ * <p>Every {@link #newInstance(ConfigurationOptions)} is a {@link java.lang.reflect.Proxy} over {@link CopyOnWriteSlots}, which share the values loaded
+ * once until the instance is written to. Values that may be modified in place, such as collections and nested config interfaces,
+ * are created again for each instance on its first read.</p>
+ *
+ * <p>Empty values are cached weakly keyed by the options they were requested with, so the options are not kept here and are passed
+ * to {@link #newInstance(ConfigurationOptions)} by the caller instead.</p>
+ */
+final class DefaultInstance {
+
+    private final ObjectMapper<?> mapper;
+    private final @Nullable ProxyInstanceFactory instanceFactory;
+    // Values of the instance loaded once, null if the instance cannot be loaded or shared
+    private final @Nullable Object @Nullable [] values;
+    private final boolean @Nullable [] fresh;
+    private final boolean failed;
+
+    private DefaultInstance(ObjectMapper<?> mapper, ConfigurationOptions options, @Nullable ProxyInstanceFactory instanceFactory) {
+        this.mapper = mapper;
+        Object instance;
+        try {
+            instance = mapper.load(BasicConfigurationNode.root(options));
+        } catch (SerializationException e) {
+            instance = null;
+        }
+        ProxySlots slots = ProxyInstances.slots(instance);
+        this.failed = instance == null;
+        if (slots == null || instanceFactory == null || slots.layout() != instanceFactory.layout() ||
+                mapper.fields().size() != slots.layout().size()) {
+            this.instanceFactory = null;
+            this.values = null;
+            this.fresh = null;
+            return;
+        }
+        this.instanceFactory = instanceFactory;
+        this.values = new Object[slots.layout().size()];
+        this.fresh = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = slots.get(i);
+            fresh[i] = !immutable(values[i]);
+        }
+    }
+
+    /**
+     * Loads empty value of the type from an empty node of the options, without copying defaults into the node.
+     *
+     * @param mapper Object mapper of the type.
+     * @param options Options of the empty value.
+     * @param instanceFactory Factory of instances of the type, or {@code null} if it isn't created by {@link InterfaceMethodDiscoverer}.
+     * @return Empty value of the type.
+     */
+    static DefaultInstance load(ObjectMapper<?> mapper, ConfigurationOptions options, @Nullable ProxyInstanceFactory instanceFactory) {
+        return new DefaultInstance(mapper, options.shouldCopyDefaults(false), instanceFactory);
+    }
+
+    /**
+     * @param options Options the empty value was {@link #load loaded} with.
+     * @return New empty value, or {@code null} if the type cannot be loaded from an empty node.
+     */
+    @Nullable Object newInstance(ConfigurationOptions options) {
+        if (failed)
+            return null;
+        options = options.shouldCopyDefaults(false);
+        if (instanceFactory == null) {
+            try {
+                return mapper.load(BasicConfigurationNode.root(options));
+            } catch (SerializationException e) {
+                return null;
+            }
+        }
+        return instanceFactory.createInstance(new CopyOnWriteSlots(instanceFactory.layout(), this, options));
+    }
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Value loaded once, shared by every instance until it is written to.
+     */
+    @Nullable Object sharedValue(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Whether the value of the slot is created again for each instance.
+     */
+    boolean fresh(int slot) {
+        return fresh[slot];
+    }
+
+    /**
+     * @param options Options of the empty value, without copying defaults.
+     * @return Values of a new instance, with values that may be modified in place created again.
+     */
+    Object[] copyValues(ConfigurationOptions options) {
+        Object[] copy = values.clone();
+        ConfigurationNode node = BasicConfigurationNode.root(options);
+        List<? extends FieldData<?, ?>> fields = mapper.fields();
+        for (int i = 0; i < copy.length; i++) {
+            if (!fresh[i])
+                continue;
+            try {
+                copy[i] = LazySlots.deserialize(fields.get(i), node);
+            } catch (SerializationException e) {
+                // Loaded the same way as the shared values, which succeeded
+                throw new IllegalStateException(e);
+            }
+        }
+        return copy;
+    }
+
+    private static boolean immutable(@Nullable Object value) {
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Character ||
+                value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Float ||
+                value instanceof Short || value instanceof Byte || value instanceof Enum;
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+/**
+ * Reads discovery descriptors generated by {@code ConfigInterfaceProcessor} of the {@code proximate-configurate-processor} module.
+ *
+ * <p>Descriptor of an interface is its {@code $ProximateDescriptor} class, its {@code SLOTS} field lists discovered methods
+ * in the order of their slots as {@code declaringClass#name(parameterTypes)}.
+ * Its {@code FINGERPRINT} field is compared to the {@link #fingerprint(Class, Map, Set) fingerprint} of the loaded interface,
+ * so descriptors are validated without describing every method of the hierarchy.</p>
+ */
+final class Descriptors {
+
+    private static final String DESCRIPTOR_SUFFIX = "$ProximateDescriptor";
+
+    private Descriptors() {
+    }
+
+    /**
+     * Returns discovered methods of the interface in the order of their slots.
+     *
+     * @param clazz Interface to find descriptor of.
+     * @return Discovered methods, or {@code null} if the interface has no descriptor or it doesn't match the interface.
+     */
+    static @Nullable List<Method> slots(Class<?> clazz) {
+        String[] slots;
+        int fingerprint;
+        try {
+            Class<?> descriptor = Class.forName(clazz.getName() + DESCRIPTOR_SUFFIX, false, clazz.getClassLoader());
+            slots = (String[]) descriptor.getField("SLOTS").get(null);
+            fingerprint = descriptor.getField("FINGERPRINT").getInt(null);
+        } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException | IllegalArgumentException |
+                 ClassCastException e) {
+            return null;
+        }
+        Map<String, Method[]> declaredMethods = new HashMap<>();
+        // Interface was changed since the descriptor was generated, described methods may still be exactly the discovered ones
+        if (fingerprint(clazz, declaredMethods, new HashSet<>()) != fingerprint)
+            return methods(clazz, Arrays.asList(slots));
+        List<Method> methods = new ArrayList<>(slots.length);
+        for (String slot : slots) {
+            Method method = find(declaredMethods, slot);
+            if (method == null)
+                return null;
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    /**
+     * Finds methods of the interface described as {@code declaringClass#name(parameterTypes)}.
+     *
+     * @param clazz Interface to find methods of.
+     * @param slots Described methods.
+     * @return Found methods, or {@code null} if they are not exactly the methods the default filters discover,
+     * as they were described for another version of the interface.
+     */
+    static @Nullable List<Method> methods(Class<?> clazz, List<String> slots) {
+        Map<String, Method> discoverable = discoverable(clazz);
+        if (slots.size() != discoverable.size())
+            return null;
+        List<Method> methods = new ArrayList<>(slots.size());
+        for (String slot : slots) {
+            Method method = discoverable.remove(slot);
+            if (method == null)
+                return null;
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    /**
+     * Describes the method as {@code declaringClass#name(parameterTypes)}.
+     *
+     * @param method Method to describe.
+     * @return Description of the method.
+     */
+    static String describe(Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName() + parameters(method);
+    }
+
+    /**
+     * Same as {@code FINGERPRINT} of descriptors: sum of hash codes of names of methods declared by the hierarchy,
+     * combined with their parameter counts. Synthetic methods are not a part of the source, so they are skipped.
+     *
+     * @param clazz Interface to compute fingerprint of.
+     * @param declaredMethods Collects declared methods of the hierarchy by names of their classes.
+     * @param visited Visited interfaces.
+     * @return Fingerprint of the hierarchy.
+     */
+    private static int fingerprint(Class<?> clazz, Map<String, Method[]> declaredMethods, Set<Class<?>> visited) {
+        if (!visited.add(clazz))
+            return 0;
+        Method[] methods = clazz.getDeclaredMethods();
+        declaredMethods.put(clazz.getName(), methods);
+        int fingerprint = 0;
+        for (Method method : methods) {
+            if (!method.isSynthetic())
+                fingerprint += method.getName().hashCode() * 31 + method.getParameterCount();
+        }
+        for (Class<?> superInterface : clazz.getInterfaces())
+            fingerprint += fingerprint(superInterface, declaredMethods, visited);
+        return fingerprint;
+    }
+
+    // Only methods of the described name are described to compare their parameters
+    private static @Nullable Method find(Map<String, Method[]> declaredMethods, String slot) {
+        int separator = slot.indexOf('#');
+        int parameters = slot.indexOf('(', separator);
+        if (separator == -1 || parameters == -1)
+            return null;
+        Method[] methods = declaredMethods.get(slot.substring(0, separator));
+        if (methods == null)
+            return null;
+        String name = slot.substring(separator + 1, parameters);
+        for (Method method : methods) {
+            if (method.getName().equals(name) && parameters(method).equals(slot.substring(parameters)))
+                return method;
+        }
+        return null;
+    }
+
+    /**
+     * Returns methods of the interface hierarchy the default filters discover, by their descriptions.
+     * Methods are compared by erased types, any difference only makes the interface discovered through reflection.
+     */
+    private static Map<String, Method> discoverable(Class<?> clazz) {
+        Map<String, Method> discoverable = new HashMap<>();
+        collectDiscoverable(clazz, discoverable, new HashSet<>(), new HashSet<>());
+        return discoverable;
+    }
+
+    private static void collectDiscoverable(Class<?> clazz, Map<String, Method> discoverable, Set<String> signatures,
+            Set<Class<?>> visited) {
+        if (!visited.add(clazz))
+            return;
+        for (Method method : clazz.getDeclaredMethods()) {
+            // Overridden methods of superinterfaces are skipped
+            if (!signatures.add(method.getName() + parameters(method)))
+                continue;
+            if (method.isSynthetic() || Modifier.isStatic(method.getModifiers()))
+                continue;
+            if (method.isDefault() && method.isAnnotationPresent(Transient.class))
+                continue;
+            if (method.getParameterCount() == 1 &&
+                    (method.getReturnType() == void.class || method.getReturnType() == method.getDeclaringClass()))
+                continue;
+            discoverable.put(describe(method), method);
+        }
+        for (Class<?> superInterface : clazz.getInterfaces())
+            collectDiscoverable(superInterface, discoverable, signatures, visited);
+    }
+
+    private static String parameters(Method method) {
+        StringBuilder builder = new StringBuilder("(");
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i != 0)
+                builder.append(',');
+            builder.append(parameterTypes[i].getTypeName());
+        }
+        return builder.append(')').toString();
+    }
+
+}
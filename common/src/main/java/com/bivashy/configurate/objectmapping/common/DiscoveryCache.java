@@ -0,0 +1,251 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.spongepowered.configurate.objectmapping.FieldDiscoverer.FieldCollector;
+
+import io.leangen.geantyref.GenericTypeReflector;
+
+/**
+ * Results of {@link InterfaceMethodDiscoverer#discover}, shared by every discoverer with equal configuration.
+ *
+ * <p>Results are kept in a {@link ClassValue} of the discovered interface,
+ * so they are released together with the class loader of the interface.
+ * Results that reference classes this class loader can't see (for example, a type argument or an invoker
+ * from a child class loader) are not shared, because they would keep that class loader alive.
+ * They are kept by the discoverer instead, so each interface is still discovered once per discoverer.</p>
+ */
+final class DiscoveryCache {
+
+    private static final ClassValue<Map<Key, Discovery>> CACHE = new ClassValue<Map<Key, Discovery>>() {
+        @Override
+        protected Map<Key, Discovery> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private DiscoveryCache() {
+    }
+
+    /**
+     * Returns shared discovery of the interface, or discovers it.
+     *
+     * @param clazz Discovered interface.
+     * @param target Type of the interface.
+     * @param configuration Configuration of the discoverer.
+     * @param uncached Discoveries of the discoverer that cannot be shared, kept as long as the discoverer.
+     * @param discoverer Discovers the interface.
+     * @return Discovery of the interface.
+     */
+    static Discovery get(Class<?> clazz, AnnotatedType target, Configuration configuration, Map<Key, Discovery> uncached,
+                         Function<AnnotatedType, Discovery> discoverer) {
+        Map<Key, Discovery> discoveries = cacheable(clazz, target.getType()) && cacheable(clazz, configuration) ?
+                CACHE.get(clazz) : uncached;
+        Key key = new Key(target, configuration);
+        Discovery discovery = discoveries.get(key);
+        if (discovery != null)
+            return discovery;
+        // Discovery doesn't recurse into other interfaces, but may be slow, so it runs outside of the map lock
+        discovery = discoverer.apply(target);
+        Discovery existing = discoveries.putIfAbsent(key, discovery);
+        return existing == null ? discovery : existing;
+    }
+
+    /**
+     * Returns whether the type may be cached in a {@link ClassValue} of the class, without keeping other class loaders alive.
+     *
+     * @param clazz Class that would hold the cached value.
+     * @param type Type referenced by the cached value.
+     * @return Whether every class of the type is visible from the class loader of the class.
+     */
+    static boolean cacheable(Class<?> clazz, Type type) {
+        List<Class<?>> references = new ArrayList<>();
+        collectClasses(type, references);
+        return visible(clazz, references);
+    }
+
+    /**
+     * Returns whether the configuration may be cached in a {@link ClassValue} of the class, see {@link #cacheable(Class, Type)}.
+     *
+     * @param clazz Class that would hold the cached value.
+     * @param configuration Configuration referenced by the cached value.
+     * @return Whether classes of every filter and invoker are visible from the class loader of the class.
+     */
+    static boolean cacheable(Class<?> clazz, Configuration configuration) {
+        List<Class<?>> references = new ArrayList<>();
+        for (Object component : configuration.components())
+            references.add(component.getClass());
+        return visible(clazz, references);
+    }
+
+    private static boolean visible(Class<?> clazz, List<Class<?>> references) {
+        for (Class<?> reference : references) {
+            if (!visible(clazz.getClassLoader(), reference.getClassLoader()))
+                return false;
+        }
+        return true;
+    }
+
+    private static void collectClasses(Type type, List<Class<?>> classes) {
+        if (type instanceof ParameterizedType) {
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments())
+                collectClasses(argument, classes);
+            collectClasses(((ParameterizedType) type).getRawType(), classes);
+        } else if (type instanceof GenericArrayType) {
+            collectClasses(((GenericArrayType) type).getGenericComponentType(), classes);
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds())
+                collectClasses(bound, classes);
+            for (Type bound : ((WildcardType) type).getLowerBounds())
+                collectClasses(bound, classes);
+        } else if (type instanceof Class) {
+            classes.add(GenericTypeReflector.erase(type));
+        }
+    }
+
+    private static boolean visible(ClassLoader from, ClassLoader target) {
+        if (target == null)
+            return true;
+        for (ClassLoader current = from; current != null; current = current.getParent()) {
+            if (current == target)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Configuration of a discoverer, discoverers with equal configuration share discovery results.
+     */
+    static final class Configuration {
+
+        private final List<?> filters;
+        private final List<?> invokers;
+        private final boolean generateImplementations;
+        private final int hashCode;
+
+        Configuration(Collection<?> filters, Collection<?> invokers, boolean generateImplementations) {
+            this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+            this.invokers = Collections.unmodifiableList(new ArrayList<>(invokers));
+            this.generateImplementations = generateImplementations;
+            this.hashCode = Objects.hash(this.filters, this.invokers, generateImplementations);
+        }
+
+        private List<Object> components() {
+            List<Object> components = new ArrayList<>(filters);
+            components.addAll(invokers);
+            return components;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object)
+                return true;
+            if (!(object instanceof Configuration))
+                return false;
+            Configuration configuration = (Configuration) object;
+            return generateImplementations == configuration.generateImplementations && filters.equals(configuration.filters) &&
+                    invokers.equals(configuration.invokers);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+    /**
+     * Discovered fields of an interface and its instance factory.
+     */
+    static final class Discovery {
+
+        private final List<Field> fields;
+        private final ProxyInstanceFactory instanceFactory;
+
+        Discovery(List<Field> fields, ProxyInstanceFactory instanceFactory) {
+            this.fields = fields;
+            this.instanceFactory = instanceFactory;
+        }
+
+        @SuppressWarnings("unchecked")
+        <V> void collect(FieldCollector<Object[], V> collector) {
+            for (Field field : fields) {
+                ProxyMethodSerializer<V> serializer = (ProxyMethodSerializer<V>) field.serializer;
+                collector.accept(field.method.getName(), field.type, field.method, serializer, serializer);
+            }
+        }
+
+        ProxyInstanceFactory instanceFactory() {
+            return instanceFactory;
+        }
+
+        List<Method> methods() {
+            List<Method> methods = new ArrayList<>(fields.size());
+            for (Field field : fields)
+                methods.add(field.method);
+            return methods;
+        }
+
+    }
+
+    /**
+     * Discovered method with its resolved return type.
+     */
+    static final class Field {
+
+        private final Method method;
+        private final AnnotatedType type;
+        private final ProxyMethodSerializer<?> serializer;
+
+        Field(Method method, AnnotatedType type, ProxyMethodSerializer<?> serializer) {
+            this.method = method;
+            this.type = type;
+            this.serializer = serializer;
+        }
+
+    }
+
+    static final class Key {
+
+        private final Type type;
+        private final List<?> annotations;
+        private final Configuration configuration;
+
+        Key(AnnotatedType target, Configuration configuration) {
+            this.type = target.getType();
+            this.annotations = Arrays.asList(target.getAnnotations());
+            this.configuration = configuration;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object)
+                return true;
+            if (!(object instanceof Key))
+                return false;
+            Key key = (Key) object;
+            return type.equals(key.type) && annotations.equals(key.annotations) && configuration.equals(key.configuration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, annotations, configuration);
+        }
+
+    }
+
+}
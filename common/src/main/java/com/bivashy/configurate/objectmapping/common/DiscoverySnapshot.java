@@ -0,0 +1,132 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Discovered methods of interfaces, persisted between runs to skip reflective discovery on startup.
+ *
+ * <p>Entries are keyed by the interface name. Like a generated descriptor, an entry is used only if it lists exactly the methods
+ * the interface has now, so an entry of a changed interface is ignored and the interface is discovered again.
+ * The methods are compared in memory, class files are not read.</p>
+ *
+ * <pre>{@code
+ * DiscoverySnapshot snapshot = DiscoverySnapshot.read(path);
+ * InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder().snapshot(snapshot).build();
+ * // ... load configuration
+ * snapshot.write(path);
+ * }</pre>
+ */
+public final class DiscoverySnapshot {
+
+    private static final String HEADER = "# ProximateConfigurate discovery snapshot v2";
+    private final Map<String, List<String>> entries = new ConcurrentHashMap<>();
+
+    private DiscoverySnapshot() {
+    }
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @return Empty snapshot.
+     */
+    public static DiscoverySnapshot create() {
+        return new DiscoverySnapshot();
+    }
+
+    /**
+     * Reads snapshot from the file. Missing file or file of another format is read as an empty snapshot.
+     *
+     * @param path Snapshot file.
+     * @return Read snapshot.
+     * @throws IOException If the file cannot be read.
+     */
+    public static DiscoverySnapshot read(Path path) throws IOException {
+        DiscoverySnapshot snapshot = new DiscoverySnapshot();
+        if (!Files.exists(path))
+            return snapshot;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine()))
+                return snapshot;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                snapshot.entries.put(parts[0], Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(parts, 1, parts.length))));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes every entry of the snapshot to the file.
+     *
+     * @param path Snapshot file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, List<String>> entry : new TreeMap<>(entries).entrySet()) {
+                writer.write(entry.getKey());
+                for (String slot : entry.getValue()) {
+                    writer.write('\t');
+                    writer.write(slot);
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Returns count of interfaces in the snapshot.
+     *
+     * @return Count of interfaces.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns discovered methods of the interface in the order of their slots.
+     *
+     * @param clazz Interface to find methods of.
+     * @return Discovered methods, or {@code null} if there is no entry of the interface or it is stale.
+     */
+    @Nullable List<Method> slots(Class<?> clazz) {
+        List<String> entry = entries.get(clazz.getName());
+        if (entry == null)
+            return null;
+        List<Method> methods = Descriptors.methods(clazz, entry);
+        if (methods == null)
+            entries.remove(clazz.getName(), entry);
+        return methods;
+    }
+
+    void record(Class<?> clazz, DiscoveryCache.Discovery discovery) {
+        if (entries.containsKey(clazz.getName()))
+            return;
+        List<Method> slots = discovery.methods();
+        List<String> described = new ArrayList<>(slots.size());
+        for (Method slot : slots)
+            described.add(Descriptors.describe(slot));
+        entries.putIfAbsent(clazz.getName(), Collections.unmodifiableList(described));
+    }
+
+}
@@ -0,0 +1,271 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.util.Types;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Base class of config interface implementations generated by {@link ImplementationGenerator},
+ * or compiled by {@code ConfigInterfaceProcessor}.
+ *
+ * <p>Stored values live in typed fields of the generated class, one {@code slot<N>} field per slot ordinal.
+ * Methods that aren't plain field reads are dispatched to their bound {@link ProxyMethodHandler}.</p>
+ *
+ * <p>Primitive fields can't hold {@code null}, so primitive slots stored as {@code null} are tracked separately
+ * and read back as {@code null}, the same as slots of proxies. Default methods of such slots fall back to their body.</p>
+ *
+ * <p>This class is public only to be accessible from generated classes, it is not a part of API.</p>
+ */
+public abstract class GeneratedInstance {
+
+    static final String SLOT_FIELD_PREFIX = "slot";
+    private static final ClassValue<FieldAccessor[]> FIELDS = new ClassValue<FieldAccessor[]>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> type) {
+            Field[] fields = type.getDeclaredFields();
+            FieldAccessor[] accessors = new FieldAccessor[fields.length];
+            for (Field field : fields) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+                int slot = Integer.parseInt(field.getName().substring(SLOT_FIELD_PREFIX.length()));
+                accessors[slot] = new FieldAccessor(field);
+            }
+            return accessors;
+        }
+    };
+    private final ProxyMethodHandler[] handlers;
+    private final FieldSlots slots;
+
+    protected GeneratedInstance(ProxyMethodHandler[] handlers, ProxySlotLayout layout) {
+        this.handlers = handlers;
+        this.slots = new FieldSlots(layout);
+    }
+
+    protected final Object dispatch(int index, Object[] args) {
+        try {
+            return handlers[index].handle(this, args, slots);
+        } catch (ReflectiveOperationException e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    protected final Object dispatchUnary(int index, Object arg) {
+        try {
+            return handlers[index].handleUnary(this, arg, slots);
+        } catch (ReflectiveOperationException e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * Marks the slot as written to by a setter compiled to a plain field write.
+     *
+     * @param slot The slot ordinal.
+     */
+    protected final void markDirty(int slot) {
+        slots.written(slot);
+    }
+
+    final ProxySlots slots() {
+        return slots;
+    }
+
+    /**
+     * Stores loaded value of the slot, without marking it as written to.
+     *
+     * @param slot The slot ordinal.
+     * @param value Loaded value.
+     */
+    final void initialize(int slot, Object value) {
+        slots.store(slot, value);
+    }
+
+    private static final class FieldAccessor {
+
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+        private final Class<?> type;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        // Reads primitive field without boxing, widened to int for int, short, byte and char
+        private final MethodHandle primitiveGetter;
+        private final Object defaultValue;
+
+        FieldAccessor(Field field) {
+            field.setAccessible(true);
+            Class<?> fieldType = field.getType();
+            this.type = fieldType == short.class || fieldType == byte.class || fieldType == char.class ? int.class : fieldType;
+            try {
+                MethodHandle fieldGetter = MethodHandles.lookup().unreflectGetter(field);
+                this.getter = fieldGetter.asType(GETTER_TYPE);
+                this.setter = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+                this.primitiveGetter = type.isPrimitive() ? fieldGetter.asType(MethodType.methodType(type, Object.class)) : null;
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            this.defaultValue = fieldType.isPrimitive() ? Types.defaultValue(fieldType) : null;
+        }
+
+        boolean primitive() {
+            return defaultValue != null;
+        }
+
+        Object get(Object instance) {
+            try {
+                return (Object) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void set(Object instance, Object value) {
+            try {
+                setter.invokeExact(instance, value == null ? defaultValue : value);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Same result as Objects.equals of the boxed values
+        boolean valueEquals(Object first, Object second) {
+            try {
+                if (type == int.class)
+                    return (int) primitiveGetter.invokeExact(first) == (int) primitiveGetter.invokeExact(second);
+                if (type == long.class)
+                    return (long) primitiveGetter.invokeExact(first) == (long) primitiveGetter.invokeExact(second);
+                if (type == boolean.class)
+                    return (boolean) primitiveGetter.invokeExact(first) == (boolean) primitiveGetter.invokeExact(second);
+                if (type == double.class)
+                    return Double.doubleToLongBits((double) primitiveGetter.invokeExact(first)) ==
+                            Double.doubleToLongBits((double) primitiveGetter.invokeExact(second));
+                if (type == float.class)
+                    return Float.floatToIntBits((float) primitiveGetter.invokeExact(first)) ==
+                            Float.floatToIntBits((float) primitiveGetter.invokeExact(second));
+                return Objects.equals((Object) getter.invokeExact(first), (Object) getter.invokeExact(second));
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Same result as Objects.hashCode of the boxed value
+        int valueHashCode(Object instance) {
+            try {
+                if (type == int.class)
+                    return (int) primitiveGetter.invokeExact(instance);
+                if (type == long.class)
+                    return Long.hashCode((long) primitiveGetter.invokeExact(instance));
+                if (type == boolean.class)
+                    return Boolean.hashCode((boolean) primitiveGetter.invokeExact(instance));
+                if (type == double.class)
+                    return Double.hashCode((double) primitiveGetter.invokeExact(instance));
+                if (type == float.class)
+                    return Float.hashCode((float) primitiveGetter.invokeExact(instance));
+                return Objects.hashCode((Object) getter.invokeExact(instance));
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+    /**
+     * Slots view over the fields of generated instance, passed to handlers.
+     */
+    private final class FieldSlots extends InstanceSlots {
+
+        private final ProxySlotLayout layout;
+        private final FieldAccessor[] fields = FIELDS.get(GeneratedInstance.this.getClass());
+        // Primitive slots stored as null, created on the first one
+        private long @Nullable [] unset;
+
+        FieldSlots(ProxySlotLayout layout) {
+            this.layout = layout;
+        }
+
+        @Override
+        public ProxySlotLayout layout() {
+            return layout;
+        }
+
+        @Override
+        public Object get(int slot) {
+            if (unset(slot))
+                return null;
+            return fields[slot].get(GeneratedInstance.this);
+        }
+
+        @Override
+        public boolean isSet(int slot) {
+            if (fields[slot].primitive())
+                return !unset(slot);
+            return fields[slot].get(GeneratedInstance.this) != null;
+        }
+
+        @Override
+        public void set(int slot, Object value) {
+            store(slot, value);
+            markDirty(slot);
+        }
+
+        @Override
+        public boolean valueEquals(int slot, ProxySlots other) {
+            if (!(other instanceof FieldSlots) || other.layout() != layout || unset(slot) || ((FieldSlots) other).unset(slot))
+                return super.valueEquals(slot, other);
+            return fields[slot].valueEquals(GeneratedInstance.this, ((FieldSlots) other).instance());
+        }
+
+        @Override
+        public int valueHashCode(int slot) {
+            if (unset(slot))
+                return 0;
+            return fields[slot].valueHashCode(GeneratedInstance.this);
+        }
+
+        void store(int slot, Object value) {
+            fields[slot].set(GeneratedInstance.this, value);
+            if (!fields[slot].primitive())
+                return;
+            if (value != null) {
+                clearUnset(slot);
+                return;
+            }
+            if (unset == null)
+                unset = new long[(fields.length + 63) >>> 6];
+            unset[slot >>> 6] |= 1L << slot;
+        }
+
+        // Field was written by a generated setter, which never writes null
+        void written(int slot) {
+            clearUnset(slot);
+            markDirty(slot);
+        }
+
+        private boolean unset(int slot) {
+            return unset != null && (unset[slot >>> 6] & 1L << slot) != 0;
+        }
+
+        private void clearUnset(int slot) {
+            if (unset != null)
+                unset[slot >>> 6] &= ~(1L << slot);
+        }
+
+        private GeneratedInstance instance() {
+            return GeneratedInstance.this;
+        }
+
+    }
+
+}
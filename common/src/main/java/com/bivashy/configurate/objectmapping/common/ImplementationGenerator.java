@@ -0,0 +1,400 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import static com.bivashy.configurate.objectmapping.common.ClassFileWriter.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotSetter;
+
+/**
+ * Generates a concrete class per config interface as an alternative to {@link java.lang.reflect.Proxy}.
+ *
+ * <p>Generated class extends {@link GeneratedInstance} and has one typed field per slot.
+ * Methods that only read a stored value are compiled to a plain field read and {@link ProxySlotSetter} setters
+ * to a plain field write followed by marking the slot as written to, so primitive values are never boxed.
+ * Every other method is dispatched to its bound {@link ProxyMethodHandler}.</p>
+ *
+ * <p>On Java 15+ generated class is defined as a hidden class of the interface,
+ * on older versions it is defined in the interface's class loader.</p>
+ *
+ * <p>Implementation compiled by {@code ConfigInterfaceProcessor} is used instead of generating one,
+ * if it compiles the same methods to field reads and writes as this generator would with the bound handlers.</p>
+ */
+final class ImplementationGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(ImplementationGenerator.class.getName());
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final String COMPILED_SUFFIX = "$ProximateImplementation";
+    private static final String BASE_NAME = internalName(GeneratedInstance.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, ProxyMethodHandler[].class,
+            ProxySlotLayout.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = CONSTRUCTOR_TYPE.toMethodDescriptorString();
+    private static final String DISPATCH_DESCRIPTOR = methodDescriptor(Object.class, int.class, Object[].class);
+    private static final String DISPATCH_UNARY_DESCRIPTOR = methodDescriptor(Object.class, int.class, Object.class);
+    private static final String MARK_DIRTY_DESCRIPTOR = methodDescriptor(void.class, int.class);
+
+    private ImplementationGenerator() {
+    }
+
+    /**
+     * Generates implementation of the interface.
+     *
+     * @param layout Slot layout of the interface to implement.
+     * @param handlers Bound handlers of every interface (and {@link Object}) method.
+     * @param fieldReads Methods that should be compiled to a plain read of their slot field.
+     * @return Generated implementation, or {@code null} if the interface cannot be implemented by a generated class.
+     */
+    static @Nullable Implementation generate(ProxySlotLayout layout, Map<Method, ProxyMethodHandler> handlers,
+                                             Set<Method> fieldReads) {
+        Class<?> clazz = layout.type();
+        try {
+            List<Method> methods = implementedMethods(clazz);
+            for (Method method : methods) {
+                if (!accessible(method.getReturnType(), clazz) || !Arrays.stream(method.getParameterTypes())
+                        .allMatch(parameterType -> accessible(parameterType, clazz)))
+                    return null;
+            }
+            if (!accessible(clazz, clazz))
+                return null;
+            for (int slot = 0; slot < layout.size(); slot++) {
+                if (!accessible(layout.method(slot).getReturnType(), clazz))
+                    return null;
+            }
+
+            Implementation compiled = compiled(layout, methods, handlers, fieldReads);
+            if (compiled != null)
+                return compiled;
+
+            ProxyMethodHandler[] methodHandlers = new ProxyMethodHandler[methods.size()];
+            for (int i = 0; i < methods.size(); i++)
+                methodHandlers[i] = handlers.get(methods.get(i));
+
+            String binaryName = clazz.getName() + "$ProximateImpl" + COUNTER.incrementAndGet();
+            byte[] bytes = writeClass(binaryName.replace('.', '/'), layout, methods, methodHandlers, fieldReads);
+            MethodHandle constructor = defineClass(clazz, binaryName, bytes);
+            Implementation implementation = new Implementation(constructor, methodHandlers, layout);
+            // Links and verifies generated class, so broken class falls back to the proxy right away
+            implementation.newInstance();
+            return implementation;
+        } catch (Throwable e) {
+            // Instances are still created, but as proxies, so a broken generator would otherwise go unnoticed
+            LOGGER.log(Level.WARNING, "Failed to generate implementation of " + clazz.getName() + ", using a proxy instead", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns implementation compiled by the processor, which dispatches methods by their index in its {@code METHODS} field
+     * and has the slot of each method compiled to a field read or write in its {@code FIELDS} field.
+     *
+     * @return Compiled implementation, or {@code null} if there is none or it doesn't match the interface and the bound handlers.
+     */
+    private static @Nullable Implementation compiled(ProxySlotLayout layout, List<Method> methods,
+                                                     Map<Method, ProxyMethodHandler> handlers, Set<Method> fieldReads) throws Throwable {
+        Class<?> clazz = layout.type();
+        Class<?> compiled;
+        String[] described;
+        int[] fields;
+        MethodHandle constructor;
+        try {
+            compiled = Class.forName(clazz.getName() + COMPILED_SUFFIX, false, clazz.getClassLoader());
+            described = (String[]) compiled.getField("METHODS").get(null);
+            fields = (int[]) compiled.getField("FIELDS").get(null);
+            constructor = MethodHandles.lookup().findConstructor(compiled, CONSTRUCTOR_TYPE);
+        } catch (ClassNotFoundException | NoSuchFieldException | NoSuchMethodException | IllegalAccessException | ClassCastException e) {
+            return null;
+        }
+        if (!GeneratedInstance.class.isAssignableFrom(compiled) || described.length != methods.size() || fields.length != methods.size())
+            return null;
+
+        Map<String, Method> byDescription = new HashMap<>();
+        for (Method method : methods)
+            byDescription.put(Descriptors.describe(method), method);
+        ProxyMethodHandler[] methodHandlers = new ProxyMethodHandler[methods.size()];
+        for (int i = 0; i < described.length; i++) {
+            Method method = byDescription.remove(described[i]);
+            if (method == null)
+                return null;
+            methodHandlers[i] = handlers.get(method);
+            if (fields[i] != fieldSlot(layout, method, methodHandlers[i], fieldReads))
+                return null;
+        }
+
+        int slotFields = 0;
+        for (Field field : compiled.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()))
+                continue;
+            int slot = layout.size();
+            if (field.getName().startsWith(GeneratedInstance.SLOT_FIELD_PREFIX)) {
+                try {
+                    slot = Integer.parseInt(field.getName().substring(GeneratedInstance.SLOT_FIELD_PREFIX.length()));
+                } catch (NumberFormatException ignored) {
+                    return null;
+                }
+            }
+            if (slot < 0 || slot >= layout.size() || field.getType() != layout.method(slot).getReturnType())
+                return null;
+            slotFields++;
+        }
+        if (slotFields != layout.size())
+            return null;
+        return new Implementation(constructor, methodHandlers, layout);
+    }
+
+    /**
+     * @return Slot of the field the method reads or writes, or {@code -1} if the method is dispatched to its handler.
+     */
+    private static int fieldSlot(ProxySlotLayout layout, Method method, ProxyMethodHandler handler, Set<Method> fieldReads) {
+        if (fieldReads.contains(method))
+            return layout.slot(method);
+        if (handler instanceof ProxySlotSetter && writesField(layout, method, (ProxySlotSetter) handler))
+            return ((ProxySlotSetter) handler).slot();
+        return -1;
+    }
+
+    private static List<Method> implementedMethods(Class<?> clazz) throws NoSuchMethodException {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        List<Method> candidates = new ArrayList<>(Arrays.asList(clazz.getMethods()));
+        candidates.add(Object.class.getMethod("toString"));
+        candidates.add(Object.class.getMethod("equals", Object.class));
+        candidates.add(Object.class.getMethod("hashCode"));
+        for (Method method : candidates) {
+            if (Modifier.isStatic(method.getModifiers()))
+                continue;
+            String key = method.getName() + methodDescriptor(method.getReturnType(), method.getParameterTypes());
+            Method existing = methods.get(key);
+            // Keep the most specific declaration, same as the one returned to the caller
+            if (existing == null || existing.getDeclaringClass().isAssignableFrom(method.getDeclaringClass()))
+                methods.put(key, method);
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    private static byte[] writeClass(String name, ProxySlotLayout layout, List<Method> methods, ProxyMethodHandler[] handlers,
+                                     Set<Method> fieldReads) {
+        ClassFileWriter writer = new ClassFileWriter(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, name, BASE_NAME,
+                internalName(layout.type()));
+
+        for (int slot = 0; slot < layout.size(); slot++)
+            writer.field(ACC_PRIVATE, GeneratedInstance.SLOT_FIELD_PREFIX + slot, descriptor(layout.method(slot).getReturnType()));
+
+        writer.method(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR)
+                .load(ALOAD, 0)
+                .load(ALOAD, 1)
+                .load(ALOAD, 2)
+                .invoke(INVOKESPECIAL, BASE_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR)
+                .op(RETURN)
+                .end(3, 3);
+
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            Class<?> returnType = method.getReturnType();
+            ClassFileWriter.Code code = writer.method(ACC_PUBLIC, method.getName(),
+                    methodDescriptor(returnType, method.getParameterTypes()));
+            if (fieldReads.contains(method)) {
+                code.load(ALOAD, 0)
+                        .field(GETFIELD, name, GeneratedInstance.SLOT_FIELD_PREFIX + layout.slot(method), descriptor(returnType))
+                        .op(returnOpcode(returnType))
+                        .end(2, 1);
+                continue;
+            }
+            if (handlers[i] instanceof ProxySlotSetter && writesField(layout, method, (ProxySlotSetter) handlers[i])) {
+                int slot = ((ProxySlotSetter) handlers[i]).slot();
+                Class<?> fieldType = layout.method(slot).getReturnType();
+                code.load(ALOAD, 0)
+                        .load(loadOpcode(fieldType), 1)
+                        .field(PUTFIELD, name, GeneratedInstance.SLOT_FIELD_PREFIX + slot, descriptor(fieldType))
+                        .load(ALOAD, 0)
+                        .pushInt(slot)
+                        .invoke(INVOKEVIRTUAL, BASE_NAME, "markDirty", MARK_DIRTY_DESCRIPTOR);
+                if (returnType == void.class) {
+                    code.op(RETURN);
+                } else {
+                    code.load(ALOAD, 0).op(ARETURN);
+                }
+                code.end(3, 3);
+                continue;
+            }
+            int locals = writeDispatch(code, i, method.getParameterTypes());
+            writeReturn(code, returnType);
+            code.end(8, locals);
+        }
+        return writer.toByteArray();
+    }
+
+    private static boolean writesField(ProxySlotLayout layout, Method method, ProxySlotSetter setter) {
+        int slot = setter.slot();
+        if (method.getParameterCount() != 1 || slot < 0 || slot >= layout.size())
+            return false;
+        Class<?> returnType = method.getReturnType();
+        if (returnType != void.class && !returnType.isAssignableFrom(layout.type()))
+            return false;
+        return method.getParameterTypes()[0] == layout.method(slot).getReturnType();
+    }
+
+    private static int writeDispatch(ClassFileWriter.Code code, int index, Class<?>[] parameterTypes) {
+        code.load(ALOAD, 0).pushInt(index);
+        if (parameterTypes.length == 1 && !parameterTypes[0].isPrimitive()) {
+            // Single reference argument is passed as is, without the arguments array
+            code.load(ALOAD, 1).invoke(INVOKEVIRTUAL, BASE_NAME, "dispatchUnary", DISPATCH_UNARY_DESCRIPTOR);
+            return 2;
+        }
+        int local = 1;
+        if (parameterTypes.length == 0) {
+            code.op(ACONST_NULL);
+        } else {
+            code.pushInt(parameterTypes.length).type(ANEWARRAY, "java/lang/Object");
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Class<?> parameterType = parameterTypes[i];
+                code.op(DUP).pushInt(i).load(loadOpcode(parameterType), local);
+                if (parameterType.isPrimitive()) {
+                    Class<?> wrapper = wrapper(parameterType);
+                    code.invoke(INVOKESTATIC, internalName(wrapper), "valueOf", methodDescriptor(wrapper, parameterType));
+                }
+                code.op(AASTORE);
+                local += parameterType == long.class || parameterType == double.class ? 2 : 1;
+            }
+        }
+        code.invoke(INVOKEVIRTUAL, BASE_NAME, "dispatch", DISPATCH_DESCRIPTOR);
+        return local;
+    }
+
+    private static void writeReturn(ClassFileWriter.Code code, Class<?> returnType) {
+        if (returnType == void.class) {
+            code.op(POP).op(RETURN);
+            return;
+        }
+        if (returnType.isPrimitive()) {
+            Class<?> wrapper = wrapper(returnType);
+            code.type(CHECKCAST, internalName(wrapper))
+                    .invoke(INVOKEVIRTUAL, internalName(wrapper), returnType.getName() + "Value", methodDescriptor(returnType));
+        } else if (returnType != Object.class) {
+            code.type(CHECKCAST, internalName(returnType));
+        }
+        code.op(returnOpcode(returnType));
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (type == long.class)
+            return LLOAD;
+        if (type == float.class)
+            return FLOAD;
+        if (type == double.class)
+            return DLOAD;
+        if (type.isPrimitive())
+            return ILOAD;
+        return ALOAD;
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == long.class)
+            return LRETURN;
+        if (type == float.class)
+            return FRETURN;
+        if (type == double.class)
+            return DRETURN;
+        if (type.isPrimitive())
+            return IRETURN;
+        return ARETURN;
+    }
+
+    private static Class<?> wrapper(Class<?> primitive) {
+        return MethodType.methodType(primitive).wrap().returnType();
+    }
+
+    private static boolean accessible(Class<?> type, Class<?> from) {
+        while (type.isArray())
+            type = type.getComponentType();
+        if (type.isPrimitive())
+            return true;
+        for (Class<?> current = type; current != null; current = current.getDeclaringClass()) {
+            int modifiers = current.getModifiers();
+            if (Modifier.isPrivate(modifiers))
+                return false;
+            if (!Modifier.isPublic(modifiers) && !samePackage(current, from))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean samePackage(Class<?> first, Class<?> second) {
+        return first.getClassLoader() == second.getClassLoader() && packageName(first).equals(packageName(second));
+    }
+
+    private static String packageName(Class<?> type) {
+        String name = type.getName();
+        int lastDot = name.lastIndexOf('.');
+        return lastDot == -1 ? "" : name.substring(0, lastDot);
+    }
+
+    private static MethodHandle defineClass(Class<?> clazz, String binaryName, byte[] bytes) throws Throwable {
+        if (ProxyDefaultMethodInvoker.JAVA_VERSION <= 8) {
+            Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class, int.class);
+            defineClass.setAccessible(true);
+            Class<?> generated = (Class<?>) defineClass.invoke(clazz.getClassLoader(), binaryName, bytes, 0, bytes.length);
+            return MethodHandles.lookup().findConstructor(generated, CONSTRUCTOR_TYPE);
+        }
+        Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+        Lookup lookup = (Lookup) privateLookupIn.invoke(null, clazz, MethodHandles.lookup());
+        if (ProxyDefaultMethodInvoker.JAVA_VERSION >= 15) {
+            try {
+                Class<?> optionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                Method defineHiddenClass = Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                        Array.newInstance(optionClass, 0).getClass());
+                Lookup hiddenLookup = (Lookup) defineHiddenClass.invoke(lookup, bytes, true, Array.newInstance(optionClass, 0));
+                return hiddenLookup.findConstructor(hiddenLookup.lookupClass(), CONSTRUCTOR_TYPE);
+            } catch (ReflectiveOperationException ignored) {
+                // Lookup without full privilege access (interface in another module), define a normal class instead
+            }
+        }
+        Method defineClass = Lookup.class.getMethod("defineClass", byte[].class);
+        Class<?> generated = (Class<?>) defineClass.invoke(lookup, (Object) bytes);
+        return MethodHandles.lookup().findConstructor(generated, CONSTRUCTOR_TYPE);
+    }
+
+    static final class Implementation {
+
+        private final MethodHandle constructor;
+        private final ProxyMethodHandler[] handlers;
+        private final ProxySlotLayout layout;
+
+        private Implementation(MethodHandle constructor, ProxyMethodHandler[] handlers, ProxySlotLayout layout) {
+            this.constructor = constructor.asType(CONSTRUCTOR_TYPE.changeReturnType(GeneratedInstance.class));
+            this.handlers = handlers;
+            this.layout = layout;
+        }
+
+        GeneratedInstance newInstance() {
+            try {
+                return (GeneratedInstance) constructor.invokeExact(handlers, layout);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Base of slots of instances created by {@link InterfaceMethodDiscoverer}, keeps their attachments and tracks slots written to
+ * since the instance was loaded or its changes were saved.
+ *
+ * <p>{@link #set(int, Object)} of every implementation should {@link #markDirty(int) mark} the slot,
+ * values stored while loading the instance are not written through it.</p>
+ */
+abstract class InstanceSlots implements ProxySlots {
+
+    private static final AtomicReferenceFieldUpdater<InstanceSlots, Attachments> ATTACHMENTS =
+            AtomicReferenceFieldUpdater.newUpdater(InstanceSlots.class, Attachments.class, "attachments");
+    private static final AtomicReferenceFieldUpdater<InstanceSlots, AtomicLongArray> DIRTY =
+            AtomicReferenceFieldUpdater.newUpdater(InstanceSlots.class, AtomicLongArray.class, "dirty");
+    // Most instances never get an attachment, so they are created on demand
+    private volatile @Nullable Attachments attachments;
+    // Bitmask of slots written to, created on the first write and updated without locking since every setter marks it
+    private volatile @Nullable AtomicLongArray dirty;
+
+    @Override
+    public <T> T attachment(Object key, Supplier<T> factory) {
+        Attachments current = attachments;
+        if (current == null) {
+            current = new Attachments();
+            if (!ATTACHMENTS.compareAndSet(this, null, current))
+                current = attachments;
+        }
+        return current.get(key, factory);
+    }
+
+    /**
+     * Returns stored value of the slot without loading it, values that are not loaded yet have no changes.
+     *
+     * @param slot The slot ordinal.
+     * @return Stored value, or {@code null} if it is not loaded.
+     */
+    @Nullable Object loadedValue(int slot) {
+        return get(slot);
+    }
+
+    final void markDirty(int slot) {
+        AtomicLongArray words = dirtyWords();
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        // Setters usually write to slots already marked, so a plain read avoids contention on them
+        long current = words.get(word);
+        while ((current & bit) == 0 && !words.compareAndSet(word, current, current | bit))
+            current = words.get(word);
+    }
+
+    private AtomicLongArray dirtyWords() {
+        AtomicLongArray words = dirty;
+        if (words != null)
+            return words;
+        words = new AtomicLongArray((layout().size() + 63) >>> 6);
+        return DIRTY.compareAndSet(this, null, words) ? words : dirty;
+    }
+
+    final boolean dirty() {
+        AtomicLongArray words = dirty;
+        if (words == null)
+            return false;
+        for (int word = 0; word < words.length(); word++) {
+            if (words.get(word) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Clears and returns slots written to, the caller should {@link #restoreDirty(BitSet) restore} them if it fails to save them.
+     *
+     * @return Slots written to, or {@code null} if there are none.
+     */
+    final @Nullable BitSet takeDirty() {
+        AtomicLongArray words = dirty;
+        if (words == null)
+            return null;
+        long[] taken = null;
+        for (int word = 0; word < words.length(); word++) {
+            // Skips the write for clean words, setters racing with this keep their marks for the next save
+            if (words.get(word) == 0)
+                continue;
+            long value = words.getAndSet(word, 0);
+            if (value == 0)
+                continue;
+            if (taken == null)
+                taken = new long[words.length()];
+            taken[word] = value;
+        }
+        return taken == null ? null : BitSet.valueOf(taken);
+    }
+
+    final void restoreDirty(BitSet taken) {
+        AtomicLongArray words = dirtyWords();
+        long[] restored = taken.toLongArray();
+        for (int word = 0; word < restored.length; word++) {
+            long value = restored[word];
+            if (value != 0)
+                words.accumulateAndGet(word, value, (current, bits) -> current | bits);
+        }
+    }
+
+}
@@ -4,16 +4,17 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spongepowered.configurate.objectmapping.FieldDiscoverer;
 import org.spongepowered.configurate.serialize.SerializationException;
 
@@ -24,15 +25,53 @@ import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
 
 import io.leangen.geantyref.GenericTypeReflector;
 
-final class InterfaceMethodDiscoverer implements FieldDiscoverer<Map<String, Object>> {
+public final class InterfaceMethodDiscoverer implements FieldDiscoverer<Object[]> {
 
+    // Shared by every default builder, so default discoverers have equal configurations and share discovered interfaces
+    private static final List<ProxyMethodFilter> DEFAULT_FILTERS = Collections.unmodifiableList(Arrays.asList(
+            (method, type) -> !method.isSynthetic(),
+            (method, type) -> !Modifier.isStatic(method.getModifiers()),
+            (method, type) -> !method.isDefault() || !method.isAnnotationPresent(Transient.class),
+            (method, type) -> {
+                if (method.getParameterCount() == 1) {
+                    // Return true to skip methods if returnType is void or matches the method's declaring type, avoiding SerializationException.
+                    // Generic return type is resolved only if its erasure already matches
+                    if (method.getReturnType() == void.class)
+                        return false;
+                    if (method.getReturnType() == GenericTypeReflector.erase(type.getType()) &&
+                            GenericTypeReflector.equals(GenericTypeReflector.getReturnType(method, type), type))
+                        return false;
+                }
+                if (method.getParameterCount() != 0 && !method.isDefault())
+                    throw new SerializationException(method.getDeclaringClass(),
+                            "Interface methods should not have parameters: '" + method.toGenericString() + "'");
+                return true;
+            }));
+    private static final List<ProxyMethodInvoker> DEFAULT_INVOKERS = Collections.unmodifiableList(Arrays.asList(
+            MethodInvokers.cachedInvoker(),
+            MethodInvokers.transientDefaultInvoker(),
+            MethodInvokers.setterInvoker(),
+            MethodInvokers.toStringInvoker(),
+            MethodInvokers.equalsInvoker(),
+            MethodInvokers.hashCodeInvoker()));
     static final InterfaceMethodDiscoverer INSTANCE = InterfaceMethodDiscoverer.defaultBuilder().build();
-    private final Collection<ProxyMethodFilter> filters;
+    private final List<ProxyMethodFilter> filters;
     private final Collection<ProxyMethodInvoker> invokers;
+    private final boolean generateImplementations;
+    private final DiscoveryCache.Configuration configuration;
+    // Generated descriptors and snapshots follow the default filters, so other filters still discover through reflection
+    private final boolean useDescriptors;
+    private final @Nullable DiscoverySnapshot snapshot;
+    // Discoveries that reference classes the interface can't see, see DiscoveryCache
+    private final Map<DiscoveryCache.Key, DiscoveryCache.Discovery> uncachedDiscoveries = new ConcurrentHashMap<>();
 
     private InterfaceMethodDiscoverer(Builder builder) {
-        filters = builder.filters;
-        invokers = builder.invokers;
+        filters = new ArrayList<>(builder.filters);
+        invokers = new ArrayList<>(builder.invokers);
+        generateImplementations = builder.generateImplementations;
+        configuration = new DiscoveryCache.Configuration(filters, invokers, generateImplementations);
+        useDescriptors = filters.equals(DEFAULT_FILTERS);
+        snapshot = builder.snapshot;
     }
 
     public static Builder builder() {
@@ -40,86 +79,124 @@ final class InterfaceMethodDiscoverer implements FieldDiscoverer<Map<String, Obj
     }
 
     public static Builder defaultBuilder() {
-        return builder().reverseFilter((method, ignored) -> method.isSynthetic())
-                .reverseFilter((method, type) -> Modifier.isStatic(method.getModifiers()))
-                .filter((method, type) -> !method.isDefault() || !method.isAnnotationPresent(Transient.class))
-                .filter((method, type) -> {
-                    AnnotatedType returnType = GenericTypeReflector.getReturnType(method, type);
-                    if (method.getParameterCount() == 1) {
-                        // Return true to skip methods if returnType is void or matches the method's declaring type, avoiding SerializationException.
-                        if (GenericTypeReflector.equals(returnType, type) || GenericTypeReflector.equals(returnType, GenericTypeReflector.annotate(Void.TYPE)))
-                            return false;
-                    }
-                    if (method.getParameterCount() != 0 && !method.isDefault())
-                        throw new SerializationException(method.getDeclaringClass(),
-                                "Interface methods should not have parameters: '" + method.toGenericString() + "'");
-                    return true;
-                })
-                .invoker(MethodInvokers.transientDefaultInvoker())
-                .invoker(MethodInvokers.setterInvoker())
-                .invoker(MethodInvokers.toStringInvoker())
-                .invoker(MethodInvokers.equalsInvoker())
-                .invoker(MethodInvokers.hashCodeInvoker());
+        Builder builder = builder();
+        DEFAULT_FILTERS.forEach(builder::filter);
+        DEFAULT_INVOKERS.forEach(builder::invoker);
+        return builder;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Discovered interfaces are shared by every discoverer with equal filters, invokers and
+     * {@link Builder#generateImplementations(boolean)}, so only the first discovery of an interface inspects its methods.
+     * Interfaces compiled with {@code ConfigInterfaceProcessor} are discovered from their generated descriptors instead,
+     * and other interfaces from the {@link Builder#snapshot(DiscoverySnapshot) snapshot}, as long as the default filters are used.</p>
+     */
     @Override
-    public <V> InstanceFactory<Map<String, Object>> discover(final AnnotatedType target,
-                                                             final FieldCollector<Map<String, Object>, V> collector) {
+    public <V> InstanceFactory<Object[]> discover(final AnnotatedType target, final FieldCollector<Object[], V> collector) {
 
         final Class<?> clazz = GenericTypeReflector.erase(target.getType());
         if (!clazz.isInterface())
             return null;
 
-        // duplicateMethods prevents processing of overridden methods
-        Set<MethodAdapter> duplicateMethods = new HashSet<>();
-        collectMethods(target, collector, duplicateMethods);
-        for (AnnotatedType superType : getInterfaces(target, clazz)) {
-            collectMethods(superType, collector, duplicateMethods);
-        }
-
-        return new ProxyInstanceFactory(clazz, invokers);
+        DiscoveryCache.Discovery discovery = DiscoveryCache.get(clazz, target, configuration, uncachedDiscoveries,
+                type -> discover(clazz, type));
+        if (snapshot != null && useDescriptors)
+            snapshot.record(clazz, discovery);
+        discovery.collect(collector);
+        return discovery.instanceFactory();
     }
 
-    private <V> void collectMethods(AnnotatedType type, final FieldCollector<Map<String, Object>, V> collector, Set<MethodAdapter> duplicateMethods) {
-        for (Method method : GenericTypeReflector.erase(type.getType()).getDeclaredMethods()) {
-            final String name = method.getName();
+    /**
+     * Discovers the interface and defines the class of its instances ahead of the first instance.
+     *
+     * @param target Interface to prepare.
+     */
+    void prepare(AnnotatedType target) {
+        ProxyInstanceFactory factory = instanceFactory(target);
+        if (factory != null)
+            factory.defineInstanceClass();
+    }
 
-            MethodAdapter adapter = new MethodAdapter(method, type.getType());
+    /**
+     * Returns instance factory of the interface, discovering it if it isn't discovered yet.
+     *
+     * @param target Interface to find instance factory of.
+     * @return Instance factory, or {@code null} if the target is not an interface.
+     */
+    @Nullable ProxyInstanceFactory instanceFactory(AnnotatedType target) {
+        InstanceFactory<Object[]> factory = this.<Object>discover(target, (name, type, annotations, deserializer, serializer) -> {
+        });
+        return factory instanceof ProxyInstanceFactory ? (ProxyInstanceFactory) factory : null;
+    }
 
-            boolean added = duplicateMethods.add(adapter);
-            if (!added)
-                continue;
-            if (shouldBeIgnored(method, type))
-                continue;
+    private DiscoveryCache.Discovery discover(Class<?> clazz, AnnotatedType target) {
+        if (useDescriptors) {
+            // Snapshot is checked first, lookup of a missing descriptor class is slower than a snapshot entry
+            List<Method> described = snapshot != null ? snapshot.slots(clazz) : null;
+            if (described == null)
+                described = Descriptors.slots(clazz);
+            if (described != null)
+                return discover(clazz, target, described);
+        }
 
-            final AnnotatedType returnType = GenericTypeReflector.getReturnType(method, type);
-            final ProxyMethodSerializer<V> methodSerializer = new ProxyMethodSerializer<>(method, name);
-            collector.accept(name, returnType, method, methodSerializer, methodSerializer);
+        // duplicateMethods prevents processing of overridden methods
+        Set<MethodAdapter> duplicateMethods = new HashSet<>();
+        // Discovered methods in the order of their slots
+        List<Method> slots = new ArrayList<>();
+        List<AnnotatedType> returnTypes = new ArrayList<>();
+        for (ResolvedInterface resolved : ResolvedInterface.hierarchy(target)) {
+            List<ResolvedInterface.ResolvedMethod> methods = resolved.methods();
+            for (int i = 0; i < methods.size(); i++) {
+                ResolvedInterface.ResolvedMethod method = methods.get(i);
+                if (!duplicateMethods.add(method.signature()))
+                    continue;
+                if (resolved.ignored(configuration, i, this::shouldBeIgnored))
+                    continue;
+                slots.add(method.method());
+                returnTypes.add(method.returnType());
+            }
         }
+
+        return discover(clazz, slots, returnTypes);
     }
 
-    private List<AnnotatedType> getInterfaces(AnnotatedType parentType, Type type) {
-        Class<?>[] interfaces = GenericTypeReflector.erase(type).getInterfaces();
-        return Stream.of(interfaces)
-                .map(interfaceType -> GenericTypeReflector.getExactSuperType(parentType, interfaceType))
-                .flatMap(superType -> Stream.concat(Stream.of(superType), getInterfaces(parentType, superType.getType()).stream()))
-                .collect(Collectors.toList());
+    private DiscoveryCache.Discovery discover(Class<?> clazz, AnnotatedType target, List<Method> slots) {
+        List<AnnotatedType> returnTypes = new ArrayList<>(slots.size());
+        for (Method method : slots)
+            returnTypes.add(GenericTypeReflector.getReturnType(method, target));
+        return discover(clazz, slots, returnTypes);
+    }
+
+    private DiscoveryCache.Discovery discover(Class<?> clazz, List<Method> slots, List<AnnotatedType> returnTypes) {
+        ProxyInstanceFactory instanceFactory = new ProxyInstanceFactory(new SlotLayout(clazz, slots), invokers, generateImplementations);
+        List<DiscoveryCache.Field> fields = new ArrayList<>(slots.size());
+        for (Method method : slots) {
+            fields.add(new DiscoveryCache.Field(method, returnTypes.get(fields.size()),
+                    new ProxyMethodSerializer<>(method, fields.size(), instanceFactory)));
+        }
+        return new DiscoveryCache.Discovery(fields, instanceFactory);
     }
 
     private boolean shouldBeIgnored(Method method, AnnotatedType type) {
-        return filters.stream().anyMatch(filter -> {
-            try {
-                return !filter.test(method, type);
-            } catch (SerializationException e) {
-                throw new RuntimeException(e);
+        try {
+            for (ProxyMethodFilter filter : filters) {
+                if (!filter.test(method, type))
+                    return true;
             }
-        });
+            return false;
+        } catch (SerializationException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public static final class Builder {
 
         private final Collection<ProxyMethodFilter> filters = new ArrayList<>();
         private final Collection<ProxyMethodInvoker> invokers = new ArrayList<>();
+        private boolean generateImplementations;
+        private @Nullable DiscoverySnapshot snapshot;
 
         private Builder() {
         }
@@ -144,6 +221,33 @@ final class InterfaceMethodDiscoverer implements FieldDiscoverer<Map<String, Obj
             return this;
         }
 
+        /**
+         * Sets whether instances should be generated classes instead of {@link java.lang.reflect.Proxy}.
+         *
+         * <p>Generated class reads stored values from its fields, so accessors cost the same as POJO getters.
+         * Interfaces that cannot be implemented by a generated class still use {@link java.lang.reflect.Proxy}.</p>
+         *
+         * @param generateImplementations Whether implementations should be generated.
+         * @return This builder.
+         */
+        public Builder generateImplementations(boolean generateImplementations) {
+            this.generateImplementations = generateImplementations;
+            return this;
+        }
+
+        /**
+         * Sets snapshot to discover interfaces from and to record discovered interfaces to.
+         *
+         * <p>Like generated descriptors, snapshot is only used with the default filters.</p>
+         *
+         * @param snapshot Snapshot of discovered interfaces.
+         * @return This builder.
+         */
+        public Builder snapshot(DiscoverySnapshot snapshot) {
+            this.snapshot = snapshot;
+            return this;
+        }
+
         public InterfaceMethodDiscoverer build() {
             return new InterfaceMethodDiscoverer(this);
         }
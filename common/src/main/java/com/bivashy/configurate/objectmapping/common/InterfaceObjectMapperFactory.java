@@ -2,17 +2,40 @@ package com.bivashy.configurate.objectmapping.common;
 
 import static io.leangen.geantyref.GenericTypeReflector.erase;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurateException;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.loader.ConfigurationLoader;
+import org.spongepowered.configurate.objectmapping.FieldData;
 import org.spongepowered.configurate.objectmapping.ObjectMapper;
 import org.spongepowered.configurate.objectmapping.ObjectMapper.Factory;
 import org.spongepowered.configurate.serialize.SerializationException;
 import org.spongepowered.configurate.serialize.TypeSerializer;
+import org.spongepowered.configurate.util.CheckedFunction;
+import org.spongepowered.configurate.util.CheckedSupplier;
 
 import com.bivashy.configurate.objectmapping.ConfigInterface;
 import com.bivashy.configurate.objectmapping.common.meta.Constraints;
@@ -21,19 +44,42 @@ import com.bivashy.configurate.objectmapping.common.meta.Processors;
 import com.bivashy.configurate.objectmapping.meta.Comment;
 import com.bivashy.configurate.objectmapping.meta.Matches;
 import com.bivashy.configurate.objectmapping.meta.Required;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
 
 import io.leangen.geantyref.GenericTypeReflector;
 
 public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Object> {
 
     private static final String CLASS_KEY = "__class__";
+    // Node of the config interface loaded into a concurrent config on the current thread, see loadConcurrently
+    private static final ThreadLocal<ConfigurationNode> LOADING = new ThreadLocal<>();
     private final Factory delegate;
+    private final InterfaceMethodDiscoverer discoverer;
+    private final boolean lazy;
+    private final boolean concurrent;
+    private final TypeRegistry typeRegistry;
+    // Empty values loaded once per type and options, see DefaultInstance. Options are weak keys, nodes may be created with new options
+    private final Map<Type, Map<ConfigurationOptions, DefaultInstance>> defaultInstances;
 
     public InterfaceObjectMapperFactory() {
         this(ObjectMapper.factoryBuilder());
     }
 
     public InterfaceObjectMapperFactory(Builder builder) {
+        this(builder, InterfaceMethodDiscoverer.INSTANCE);
+    }
+
+    public InterfaceObjectMapperFactory(InterfaceMethodDiscoverer discoverer) {
+        this(ObjectMapper.factoryBuilder(), discoverer);
+    }
+
+    public InterfaceObjectMapperFactory(Builder builder, InterfaceMethodDiscoverer discoverer) {
+        this.discoverer = discoverer;
+        this.lazy = false;
+        this.concurrent = false;
+        this.typeRegistry = TypeRegistry.defaults();
+        this.defaultInstances = new ConcurrentHashMap<>();
         this.delegate = builder
                 .addNodeResolver(NodeResolvers.nodeKey())
                 .addNodeResolver(NodeResolvers.keyFromSetting())
@@ -41,11 +87,24 @@ public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Obj
                 .addProcessor(Comment.class, Processors.comments())
                 .addConstraint(Matches.class, String.class, Constraints.pattern())
                 .addConstraint(Required.class, Constraints.required())
-                .addDiscoverer(InterfaceMethodDiscoverer.INSTANCE)
+                .addDiscoverer(discoverer)
                 .build();
     }
 
+    private InterfaceObjectMapperFactory(InterfaceObjectMapperFactory factory, boolean lazy, boolean concurrent, TypeRegistry typeRegistry) {
+        this.delegate = factory.delegate;
+        this.discoverer = factory.discoverer;
+        this.lazy = lazy;
+        this.concurrent = concurrent;
+        this.typeRegistry = typeRegistry;
+        this.defaultInstances = factory.defaultInstances;
+    }
+
     public static ObjectMapper.Factory.Builder factoryBuilder() {
+        return factoryBuilder(InterfaceMethodDiscoverer.INSTANCE);
+    }
+
+    public static ObjectMapper.Factory.Builder factoryBuilder(InterfaceMethodDiscoverer discoverer) {
         return ObjectMapper.factoryBuilder()
                 .addNodeResolver(NodeResolvers.nodeKey())
                 .addNodeResolver(NodeResolvers.keyFromSetting())
@@ -53,7 +112,7 @@ public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Obj
                 .addProcessor(Comment.class, Processors.comments())
                 .addConstraint(Matches.class, String.class, Constraints.pattern())
                 .addConstraint(Required.class, Constraints.required())
-                .addDiscoverer(InterfaceMethodDiscoverer.INSTANCE);
+                .addDiscoverer(discoverer);
     }
 
     public static boolean applicable(Type type) {
@@ -65,6 +124,179 @@ public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Obj
         return delegate.get(type);
     }
 
+    /**
+     * Returns factory that shares object mappers of this factory, but deserializes config interfaces lazily when used as
+     * {@link TypeSerializer}.
+     *
+     * <p>Lazy instance keeps a reference to its node and deserializes each value, including its constraints, on the first call
+     * of its accessor. Failures are thrown from the accessor as {@link LazyLoadException},
+     * {@link ProxyInstances#validateAll(Object)} loads and checks every value at once.
+     * Node is read on the first access, so changes of the node until then are visible to the instance.</p>
+     *
+     * <p>Lazy instances are always {@link java.lang.reflect.Proxy} instances. If the node copies defaults and some value
+     * of the instance is missing, the instance is loaded eagerly to copy its defaults, nested instances may still be lazy.
+     * {@link ObjectMapper#load(ConfigurationNode)} of the returned factory loads eagerly too.</p>
+     *
+     * @return Lazy factory.
+     */
+    public InterfaceObjectMapperFactory lazy() {
+        return lazy ? this : new InterfaceObjectMapperFactory(this, true, concurrent, typeRegistry);
+    }
+
+    /**
+     * Returns factory that shares object mappers of this factory, but deserializes config interfaces that can be written to
+     * and read from many threads when used as {@link TypeSerializer}.
+     *
+     * <p>Each deserialized instance and config interfaces nested in it form a tree, whose values are published as immutable versions.
+     * Reads are lock-free and see a single version. Setters copy the written state and publish a new version by compare-and-set,
+     * so concurrent writers never lose each other's writes. {@link ProxyInstances#snapshot(Object)} returns a read-only view
+     * of the current version of the whole subtree, without copying it.</p>
+     *
+     * <p>Writes copy only the written state and the part of the version that refers to it, so their cost grows with the logarithm
+     * of the size of the tree. Every write still allocates a version, so configs are meant to be rarely written to.
+     * Collections and maps are shared between versions, config interfaces in them are versioned on their own.
+     * Instances are {@link java.lang.reflect.Proxy} instances and are loaded eagerly, even if this factory is lazy.</p>
+     *
+     * @return Concurrent factory.
+     */
+    public InterfaceObjectMapperFactory concurrent() {
+        return concurrent ? this : new InterfaceObjectMapperFactory(this, lazy, true, typeRegistry);
+    }
+
+    /**
+     * Returns factory that shares object mappers of this factory, but writes and resolves types of polymorphic values
+     * by the registry, see {@link TypeRegistry}.
+     *
+     * <p>Values of abstract classes always have their type in the {@code __class__} key. Values of config interfaces have it
+     * only if the registry {@link TypeRegistry#polymorphicInterfaces() allows it} and they are instances of a config interface
+     * that extends the declared one.</p>
+     *
+     * @param typeRegistry Registry of polymorphic types.
+     * @return Factory using the registry.
+     */
+    public InterfaceObjectMapperFactory typeRegistry(TypeRegistry typeRegistry) {
+        return new InterfaceObjectMapperFactory(this, lazy, concurrent, typeRegistry);
+    }
+
+    /**
+     * Creates partial loader of the config interface, see {@link Projection}.
+     *
+     * @param type Config interface to load.
+     * @param <T> Type of the config interface.
+     * @return Projection that selects no values yet.
+     * @throws SerializationException If the type cannot be mapped.
+     */
+    public <T> Projection<T> projection(Class<T> type) throws SerializationException {
+        return new Projection<>(delegate, discoverer, type);
+    }
+
+    /**
+     * Loads the config interface from the loader as a config that can be reloaded behind the same instances, see {@link ReloadableConfig}.
+     *
+     * @param type Config interface to load.
+     * @param loader Loader of the config, its serializers should include this factory.
+     * @param <T> Type of the config interface.
+     * @return Loaded config.
+     * @throws ConfigurateException If the config cannot be loaded.
+     */
+    public <T> ReloadableConfig<T> reloadable(Class<T> type, ConfigurationLoader<?> loader) throws ConfigurateException {
+        return new ReloadableConfig<>(this, discoverer, type, loader);
+    }
+
+    /**
+     * Creates loader of config interfaces from large JSON files, see {@link StreamingLoader}.
+     *
+     * @param type Config interface of the elements.
+     * @param options Options of element nodes, their serializers should include this factory.
+     * @param <T> Type of the config interface.
+     * @return Loader of the elements.
+     * @throws SerializationException If the type cannot be mapped.
+     */
+    public <T> StreamingLoader<T> streaming(Class<T> type, ConfigurationOptions options) throws SerializationException {
+        return new StreamingLoader<>(this, type, options);
+    }
+
+    /**
+     * Creates serializer of lists and maps of config interfaces with the {@link BatchSerializer#DEFAULT_PARALLEL_THRESHOLD default}
+     * parallel threshold, see {@link BatchSerializer}.
+     *
+     * @return Serializer of lists and maps, backed by this factory.
+     */
+    public BatchSerializer batchSerializer() {
+        return batchSerializer(BatchSerializer.DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates serializer of lists and maps of config interfaces, see {@link BatchSerializer}.
+     *
+     * @param parallelThreshold Count of elements from which lists and maps are deserialized in parallel.
+     * @param pool Pool to deserialize elements on.
+     * @return Serializer of lists and maps, backed by this factory.
+     */
+    public BatchSerializer batchSerializer(int parallelThreshold, ForkJoinPool pool) {
+        return new BatchSerializer(this, parallelThreshold, pool);
+    }
+
+    /**
+     * Warms up types on the {@link ForkJoinPool#commonPool() common pool}, see {@link #warmUp(Collection, Executor)}.
+     *
+     * @param types Types to warm up.
+     * @return Future completed with timings once every type is warmed up.
+     */
+    public CompletableFuture<WarmUpStats> warmUp(Collection<? extends Type> types) {
+        return warmUp(types, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates object mappers of the types and their nested config interfaces in parallel,
+     * so the first load of each type doesn't pay for discovery and definition of its instance class.
+     *
+     * <p>The future completes exceptionally if any type cannot be mapped.</p>
+     *
+     * @param types Types to warm up.
+     * @param executor Executor to warm up types on.
+     * @return Future completed with timings once every type is warmed up.
+     */
+    public CompletableFuture<WarmUpStats> warmUp(Collection<? extends Type> types, Executor executor) {
+        long start = System.nanoTime();
+        Set<Type> visited = ConcurrentHashMap.newKeySet();
+        Map<Type, Duration> discoveryTimes = Collections.synchronizedMap(new LinkedHashMap<>());
+        CompletableFuture<?>[] futures = types.stream()
+                .filter(visited::add)
+                .map(type -> warmUp(type, executor, visited, discoveryTimes))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures)
+                .thenApply(ignored -> new WarmUpStats(discoveryTimes, Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    private CompletableFuture<Void> warmUp(Type type, Executor executor, Set<Type> visited, Map<Type, Duration> discoveryTimes) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            List<Type> nestedTypes = new ArrayList<>();
+            try {
+                for (FieldData<?, ?> field : get(type).fields())
+                    collectConfigInterfaces(field.resolvedType().getType(), nestedTypes);
+            } catch (SerializationException e) {
+                throw new CompletionException(e);
+            }
+            discoverer.prepare(GenericTypeReflector.annotate(type));
+            discoveryTimes.put(type, Duration.ofNanos(System.nanoTime() - start));
+            return nestedTypes;
+        }, executor).thenCompose(nestedTypes -> CompletableFuture.allOf(nestedTypes.stream()
+                .filter(visited::add)
+                .map(nestedType -> warmUp(nestedType, executor, visited, discoveryTimes))
+                .toArray(CompletableFuture[]::new)));
+    }
+
+    private static void collectConfigInterfaces(Type type, List<Type> types) {
+        if (type instanceof ParameterizedType) {
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments())
+                collectConfigInterfaces(argument, types);
+        }
+        if (applicable(type) && erase(type).isInterface())
+            types.add(type);
+    }
+
     @Override
     public TypeSerializer<Object> asTypeSerializer() {
         return this;
@@ -73,9 +305,73 @@ public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Obj
     @Override
     public Object deserialize(final Type type, final ConfigurationNode node) throws SerializationException {
         final Type clazz = instantiableType(node, type, node.node(CLASS_KEY).getString());
+        if (concurrent)
+            return loadConcurrently(node, () -> get(clazz).load(node));
+        if (lazy) {
+            Object instance = loadLazily(clazz, node);
+            if (instance != null)
+                return instance;
+        }
         return get(clazz).load(node);
     }
 
+    /**
+     * Resolves object mapper of the config interface once to load many nodes of it.
+     *
+     * @param type Config interface, not an abstract class configured per node.
+     * @return Loader of the nodes.
+     * @throws SerializationException If the type cannot be mapped.
+     */
+    CheckedFunction<ConfigurationNode, Object, SerializationException> loader(final Type type) throws SerializationException {
+        ObjectMapper<?> mapper = get(type);
+        return node -> {
+            // Polymorphic elements are loaded as their configured type
+            if (typeRegistry.polymorphicInterfaces() && !node.node(CLASS_KEY).virtual())
+                return deserialize(type, node);
+            if (concurrent)
+                return loadConcurrently(node, () -> mapper.load(node));
+            Object instance = lazy ? loadLazily(type, node) : null;
+            return instance != null ? instance : mapper.load(node);
+        };
+    }
+
+    // Values nested in the loaded instance are copied into its tree with it, so the tree is built once by the outermost instance.
+    // Instances in collections and maps are not a part of the tree, they are copied into their own trees
+    private Object loadConcurrently(final ConfigurationNode node, final CheckedSupplier<Object, SerializationException> loader)
+            throws SerializationException {
+        ConfigurationNode parent = LOADING.get();
+        LOADING.set(node);
+        Object instance;
+        try {
+            instance = loader.get();
+        } finally {
+            if (parent != null)
+                LOADING.set(parent);
+            else
+                LOADING.remove();
+        }
+        if (parent != null && node.parent() == parent)
+            return instance;
+        return VersionedTree.copyOf(discoverer, this, instance);
+    }
+
+    private @Nullable Object loadLazily(final Type type, final ConfigurationNode node) throws SerializationException {
+        ObjectMapper<?> mapper = get(type);
+        ProxyInstanceFactory instanceFactory = discoverer.instanceFactory(GenericTypeReflector.annotate(type));
+        // Other discoverer of the delegate may map the type
+        if (instanceFactory == null || !mapper.canCreateInstances())
+            return null;
+        // Defaults of missing values are copied to the node by the object mapper
+        if (node.options().shouldCopyDefaults()) {
+            for (FieldData<?, ?> field : mapper.fields()) {
+                ConfigurationNode fieldNode = field.resolveNode(node);
+                if (fieldNode != null && fieldNode.isNull())
+                    return null;
+            }
+        }
+        return instanceFactory.completeLazily(node, mapper.fields());
+    }
+
     private Type instantiableType(final ConfigurationNode node, final Type type,
                                   final @Nullable String configuredName) throws SerializationException {
         final Type retClass;
@@ -84,16 +380,10 @@ public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Obj
             if (configuredName == null) {
                 throw new SerializationException(node, type, "No available configured type for instances of this type");
             } else {
-                try {
-                    retClass = Class.forName(configuredName);
-                } catch (final ClassNotFoundException e) {
-                    throw new SerializationException(node, type, "Unknown class of object " + configuredName, e);
-                }
-                if (!GenericTypeReflector.isSuperType(type, retClass)) {
-                    throw new SerializationException(node, type, "Configured type " + configuredName + " does not extend "
-                            + rawType.getCanonicalName());
-                }
+                retClass = typeRegistry.resolve(node, type, configuredName);
             }
+        } else if (rawType.isInterface() && configuredName != null && typeRegistry.polymorphicInterfaces()) {
+            retClass = typeRegistry.resolve(node, type, configuredName);
         } else {
             retClass = type;
         }
@@ -111,25 +401,143 @@ public class InterfaceObjectMapperFactory implements Factory, TypeSerializer<Obj
             return;
         }
         final Class<?> rawType = erase(type);
+        final Class<?> mappedType = TypeRegistry.mappedType(obj.getClass());
         final ObjectMapper<?> mapper;
         if (!rawType.isInterface() && Modifier.isAbstract(rawType.getModifiers())) {
             // serialize obj's concrete type rather than the interface/abstract class
-            node.node(CLASS_KEY).set(obj.getClass().getName());
-            mapper = get(obj.getClass());
+            node.node(CLASS_KEY).set(typeRegistry.discriminator(mappedType));
+            mapper = get(mappedType);
+        } else if (rawType.isInterface() && mappedType.isInterface() && mappedType != rawType && typeRegistry.polymorphicInterfaces()) {
+            // instance of a config interface that extends the declared one
+            node.node(CLASS_KEY).set(typeRegistry.discriminator(mappedType));
+            mapper = get(mappedType);
         } else {
             mapper = get(type);
         }
         ((ObjectMapper<Object>) mapper).save(obj, node);
     }
 
+    /**
+     * Writes only values of the instance written to by setters since it was loaded, or since its changes were last saved by this method,
+     * into the node it was loaded from. Nested instances with changes are saved the same way, other values of the node are kept as is.
+     *
+     * <pre>{@code
+     * if (factory.saveChanges(config, node))
+     *     loader.save(node);
+     * }</pre>
+     *
+     * <p>Changed values are written by their serializers, but processors such as {@link Comment} are not applied again.
+     * Collections and maps that contain instances with changes are written as a whole.
+     * Modifications of collections in place are not tracked, pass the collection to the setter to save it.</p>
+     *
+     * @param instance Instance of a config interface.
+     * @param node Node the instance was loaded from.
+     * @return Whether anything was written, the node doesn't need to be saved otherwise.
+     * @throws SerializationException If some value cannot be serialized, changes of the instance are kept.
+     * @see ProxyInstances#isDirty(Object)
+     */
+    public boolean saveChanges(Object instance, ConfigurationNode node) throws SerializationException {
+        ProxySlots slots = ProxyInstances.slots(instance);
+        if (!(slots instanceof InstanceSlots))
+            throw new SerializationException(node, instance.getClass(), "Changes are tracked only for instances of config interfaces");
+        InstanceSlots instanceSlots = (InstanceSlots) slots;
+        ProxySlotLayout layout = slots.layout();
+        List<? extends FieldData<?, ?>> fields = get(layout.type()).fields();
+        if (fields.size() != layout.size())
+            throw new SerializationException(node, layout.type(), "Fields of the object mapper don't match methods of the interface");
+        ProxyInstanceFactory instanceFactory = discoverer.instanceFactory(GenericTypeReflector.annotate(layout.type()));
+        BitSet dirty = instanceSlots.takeDirty();
+        boolean written = false;
+        try {
+            for (int slot = 0; slot < fields.size(); slot++) {
+                if (dirty != null && dirty.get(slot)) {
+                    written |= saveField(fields.get(slot), slot, instanceFactory, layout.method(slot), instance, node);
+                    continue;
+                }
+                Object value = instanceSlots.loadedValue(slot);
+                if (!ProxyInstances.isDirty(value))
+                    continue;
+                if (ProxyInstances.slots(value) == null) {
+                    // Collection or map that contains instances with changes
+                    written |= saveField(fields.get(slot), slot, instanceFactory, layout.method(slot), instance, node);
+                    continue;
+                }
+                ConfigurationNode fieldNode = fields.get(slot).resolveNode(node);
+                if (fieldNode != null)
+                    written |= saveChanges(value, fieldNode);
+            }
+        } catch (SerializationException e) {
+            if (dirty != null)
+                instanceSlots.restoreDirty(dirty);
+            throw e;
+        }
+        return written;
+    }
+
+    // Same as the object mapper saves a single field, except processors
+    @SuppressWarnings("unchecked")
+    private static boolean saveField(FieldData<?, ?> field, int slot, @Nullable ProxyInstanceFactory instanceFactory, Method getter,
+            Object instance, ConfigurationNode source) throws SerializationException {
+        ConfigurationNode node = field.resolveNode(source);
+        if (node == null)
+            return false;
+        Type type = field.resolvedType().getType();
+        try {
+            Object value;
+            try {
+                value = ProxyMethodSerializer.read(instanceFactory, getter, slot, instance);
+            } catch (InvocationTargetException e) {
+                throw new SerializationException(node, type, e.getCause());
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new SerializationException(node, type, e);
+            }
+            if (value == null) {
+                node.set(null);
+            } else {
+                TypeSerializer<Object> serializer = (TypeSerializer<Object>) node.options().serializers().get(type);
+                if (serializer == null)
+                    throw new SerializationException("No TypeSerializer found for field " + field.name() + " of type " + type);
+                serializer.serialize(type, value, node);
+            }
+            ProxyInstances.markSaved(value);
+            return true;
+        } catch (SerializationException e) {
+            e.initPath(node::path);
+            e.initType(type);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns empty value of the config interface, loaded from an empty node once per type and options, while the options are reachable.
+     * Empty values share their stored values until they are written to, see {@link DefaultInstance}.
+     */
     @Override
     public @Nullable Object emptyValue(final Type specificType, final ConfigurationOptions options) {
-        try {
-            // preserve options, but don't copy defaults into temporary node
-            return get(specificType).load(BasicConfigurationNode.root(options.shouldCopyDefaults(false)));
-        } catch (final SerializationException ex) {
-            return null;
+        Map<ConfigurationOptions, DefaultInstance> instances = defaultInstances.get(specificType);
+        if (instances == null) {
+            instances = Collections.synchronizedMap(new WeakHashMap<>());
+            Map<ConfigurationOptions, DefaultInstance> existing = defaultInstances.putIfAbsent(specificType, instances);
+            if (existing != null)
+                instances = existing;
+        }
+        DefaultInstance defaultInstance = instances.get(options);
+        if (defaultInstance == null) {
+            // Not computed in place, loading the empty value requests empty values of nested types
+            final ObjectMapper<?> mapper;
+            try {
+                mapper = get(specificType);
+            } catch (final SerializationException ex) {
+                return null;
+            }
+            defaultInstance = DefaultInstance.load(mapper, options, discoverer.instanceFactory(GenericTypeReflector.annotate(specificType)));
+            DefaultInstance existing = instances.putIfAbsent(options, defaultInstance);
+            if (existing != null)
+                defaultInstance = existing;
         }
+        Object instance = defaultInstance.newInstance(options);
+        // Empty values of fields are copied into the tree of the loading instance with it
+        return concurrent && LOADING.get() == null ? VersionedTree.copyOf(discoverer, this, instance) : instance;
     }
 
 }
@@ -0,0 +1,322 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.Collections;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.loader.ParsingException;
+
+/**
+ * Reader of elements of a top-level JSON array or object, each element is read into its own node tree.
+ * Only the element being read is held in memory.
+ */
+final class JsonStreamReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    // Nodes are attached to their parents recursively, deeper values would overflow the stack while they are read or mapped
+    private static final int MAX_DEPTH = 512;
+    private final Reader reader;
+    private final ConfigurationOptions options;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int column;
+    // Closing bracket of the top-level array or object, -1 until it is opened
+    private int close = -1;
+    private boolean finished;
+    private int index;
+
+    JsonStreamReader(Reader reader, ConfigurationOptions options) {
+        this.reader = reader;
+        this.options = options;
+    }
+
+    /**
+     * Reads the next element. Elements of an array are keyed by their index, elements of an object by their key.
+     *
+     * @return Node of the element, or null if there are no elements left.
+     * @throws IOException If the source cannot be read or it is not valid JSON.
+     */
+    @Nullable ConfigurationNode next() throws IOException {
+        if (finished)
+            return null;
+        if (close == -1) {
+            int first = skipWhitespace();
+            if (first == '\uFEFF') {
+                read();
+                first = skipWhitespace();
+            }
+            if (first != '[' && first != '{')
+                throw error("Expected a top-level array or object");
+            read();
+            close = first == '[' ? ']' : '}';
+        }
+        if (skipWhitespace() == close) {
+            read();
+            if (skipWhitespace() != -1)
+                throw error("Unexpected content after the top-level " + (close == ']' ? "array" : "object"));
+            finished = true;
+            return null;
+        }
+        if (index > 0) {
+            expect(',');
+            skipWhitespace();
+        }
+        // Holder keeps the path of the element in error messages, and is released together with the element
+        BasicConfigurationNode holder = BasicConfigurationNode.root(options);
+        holder.raw(Collections.emptyMap());
+        ConfigurationNode element = close == ']' ? holder.node(index) : holder.node(readKey());
+        readValue(element, 1);
+        index++;
+        return element;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readValue(ConfigurationNode node, int depth) throws IOException {
+        int next = skipWhitespace();
+        if ((next == '{' || next == '[') && depth > MAX_DEPTH)
+            throw error("Values are nested deeper than " + MAX_DEPTH + " levels");
+        switch (next) {
+            case '{':
+                read();
+                // Children make the node a map or a list once they are attached, only empty ones are set explicitly
+                if (skipWhitespace() == '}') {
+                    read();
+                    node.raw(Collections.emptyMap());
+                    return;
+                }
+                do {
+                    skipWhitespace();
+                    readValue(node.node(readKey()), depth + 1);
+                } while (separator('}'));
+                return;
+            case '[':
+                read();
+                if (skipWhitespace() == ']') {
+                    read();
+                    node.raw(Collections.emptyList());
+                    return;
+                }
+                do {
+                    readValue(node.appendListNode(), depth + 1);
+                } while (separator(']'));
+                return;
+            case '"':
+                node.raw(readString());
+                return;
+            case 't':
+                readLiteral("true");
+                node.raw(true);
+                return;
+            case 'f':
+                readLiteral("false");
+                node.raw(false);
+                return;
+            case 'n':
+                readLiteral("null");
+                node.raw(null);
+                return;
+            default:
+                if (next == '-' || (next >= '0' && next <= '9')) {
+                    node.raw(readNumber());
+                    return;
+                }
+                throw error(next == -1 ? "Unexpected end of input" : "Unexpected character '" + (char) next + "'");
+        }
+    }
+
+    private String readKey() throws IOException {
+        if (peek() != '"')
+            throw error("Expected a key");
+        String key = readString();
+        skipWhitespace();
+        expect(':');
+        return key;
+    }
+
+    private boolean separator(char closing) throws IOException {
+        if (skipWhitespace() == closing) {
+            read();
+            return false;
+        }
+        expect(',');
+        return true;
+    }
+
+    private String readString() throws IOException {
+        read();
+        text.setLength(0);
+        while (true) {
+            int next = read();
+            if (next == '"')
+                return text.toString();
+            if (next == -1)
+                throw error("Unterminated string");
+            if (next < ' ')
+                throw error("Unescaped control character in string");
+            if (next != '\\') {
+                text.append((char) next);
+                continue;
+            }
+            int escaped = read();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append((char) escaped);
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0)
+                            throw error("Invalid unicode escape");
+                        code = code * 16 + digit;
+                    }
+                    text.append((char) code);
+                    break;
+                default:
+                    throw error("Invalid escape sequence");
+            }
+        }
+    }
+
+    /**
+     * Reads a number of the JSON grammar. Integers are read as the narrowest of int, long and {@link BigInteger},
+     * other numbers as double.
+     */
+    private Object readNumber() throws IOException {
+        text.setLength(0);
+        if (peek() == '-')
+            text.append((char) read());
+        if (peek() == '0') {
+            text.append((char) read());
+            if (isDigit(peek()))
+                throw error("Invalid number " + text + (char) peek() + ", leading zeros are not allowed");
+        } else if (readDigits() == 0) {
+            throw error("Invalid number " + text);
+        }
+        boolean decimal = false;
+        if (peek() == '.') {
+            decimal = true;
+            text.append((char) read());
+            if (readDigits() == 0)
+                throw error("Invalid number " + text);
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            decimal = true;
+            text.append((char) read());
+            if (peek() == '+' || peek() == '-')
+                text.append((char) read());
+            if (readDigits() == 0)
+                throw error("Invalid number " + text);
+        }
+        String number = text.toString();
+        if (decimal)
+            return Double.parseDouble(number);
+        // At most 18 digits always fit in a long
+        if (number.length() > (number.charAt(0) == '-' ? 19 : 18)) {
+            BigInteger value = new BigInteger(number);
+            if (value.bitLength() >= Long.SIZE)
+                return value;
+        }
+        long value = Long.parseLong(number);
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+            return (int) value;
+        return value;
+    }
+
+    private int readDigits() throws IOException {
+        int digits = 0;
+        while (isDigit(peek())) {
+            text.append((char) read());
+            digits++;
+        }
+        return digits;
+    }
+
+    private static boolean isDigit(int next) {
+        return next >= '0' && next <= '9';
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i))
+                throw error("Expected " + literal);
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (read() != expected)
+            throw error("Expected '" + expected + "'");
+    }
+
+    private int skipWhitespace() throws IOException {
+        int next = peek();
+        while (next == ' ' || next == '\t' || next == '\n' || next == '\r') {
+            read();
+            next = peek();
+        }
+        return next;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        char next = buffer[position++];
+        if (next == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+        return next;
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private ParsingException error(String message) {
+        return new ParsingException(line, column, null, message, null);
+    }
+
+}
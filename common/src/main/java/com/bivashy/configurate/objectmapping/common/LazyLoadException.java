@@ -0,0 +1,22 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import org.spongepowered.configurate.serialize.SerializationException;
+
+/**
+ * Thrown by an accessor of a lazily loaded instance if its value cannot be deserialized,
+ * see {@link InterfaceObjectMapperFactory#lazy()}.
+ */
+public final class LazyLoadException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    LazyLoadException(SerializationException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SerializationException getCause() {
+        return (SerializationException) super.getCause();
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.objectmapping.FieldData;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializer;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+/**
+ * Slots of a lazily loaded {@link java.lang.reflect.Proxy} instance, each value is deserialized from the node on its first read.
+ *
+ * <p>Values are deserialized the same way {@link org.spongepowered.configurate.objectmapping.ObjectMapper#load} does,
+ * including constraints of the field. The node is released once every slot is loaded.</p>
+ */
+final class LazySlots extends InstanceSlots {
+
+    private static final Object UNLOADED = new Object();
+    private final ProxySlotLayout layout;
+    private final List<? extends FieldData<?, ?>> fields;
+    private final AtomicReferenceArray<Object> values;
+    // Guarded by this object, cleared once every slot is loaded
+    private @Nullable ConfigurationNode node;
+    private int unloaded;
+
+    LazySlots(ProxySlotLayout layout, List<? extends FieldData<?, ?>> fields, ConfigurationNode node) {
+        this.layout = layout;
+        this.fields = fields;
+        this.values = new AtomicReferenceArray<>(layout.size());
+        for (int i = 0; i < layout.size(); i++)
+            values.set(i, UNLOADED);
+        this.node = node;
+        this.unloaded = layout.size();
+        if (unloaded == 0)
+            this.node = null;
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public Object get(int slot) {
+        Object value = values.get(slot);
+        if (value != UNLOADED)
+            return value;
+        try {
+            return load(slot);
+        } catch (SerializationException e) {
+            throw new LazyLoadException(e);
+        }
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        if (values.get(slot) == UNLOADED) {
+            synchronized (this) {
+                if (values.getAndSet(slot, value) == UNLOADED)
+                    loaded();
+            }
+        } else {
+            values.set(slot, value);
+        }
+        markDirty(slot);
+    }
+
+    @Override
+    @Nullable Object loadedValue(int slot) {
+        Object value = values.get(slot);
+        return value != UNLOADED ? value : null;
+    }
+
+    /**
+     * Loads every slot that is not loaded yet.
+     *
+     * @throws SerializationException If some slot cannot be loaded, failures of other slots are suppressed by it.
+     */
+    void loadAll() throws SerializationException {
+        SerializationException failure = null;
+        for (int i = 0; i < layout.size(); i++) {
+            if (values.get(i) != UNLOADED)
+                continue;
+            try {
+                load(i);
+            } catch (SerializationException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    private synchronized Object load(int slot) throws SerializationException {
+        Object value = values.get(slot);
+        if (value != UNLOADED)
+            return value;
+        value = deserialize(fields.get(slot), node);
+        values.set(slot, value);
+        loaded();
+        return value;
+    }
+
+    private void loaded() {
+        if (--unloaded == 0)
+            node = null;
+    }
+
+    /**
+     * Deserializes value of the field from the node of its instance, like {@link org.spongepowered.configurate.objectmapping.ObjectMapper#load}.
+     *
+     * @param field Field to deserialize.
+     * @param source Node of the instance.
+     * @return Deserialized value, may be {@code null}.
+     * @throws SerializationException If the value cannot be deserialized or doesn't pass constraints of the field.
+     */
+    static @Nullable Object deserialize(FieldData<?, ?> field, ConfigurationNode source) throws SerializationException {
+        ConfigurationNode node = field.resolveNode(source);
+        if (node == null)
+            return null;
+        Type type = field.resolvedType().getType();
+        try {
+            TypeSerializer<?> serializer = node.options().serializers().get(type);
+            if (serializer == null)
+                throw new SerializationException("No TypeSerializer found for field " + field.name() + " of type " + type);
+            Object value = node.isNull() ? null : serializer.deserialize(type, node);
+            field.validate(value);
+            if (value == null && node.options().implicitInitialization())
+                return serializer.emptyValue(type, node.options());
+            return value;
+        } catch (SerializationException e) {
+            e.initPath(node::path);
+            e.initType(type);
+            throw e;
+        }
+    }
+
+}
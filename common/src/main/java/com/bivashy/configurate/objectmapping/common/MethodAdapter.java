@@ -1,8 +1,5 @@
 package com.bivashy.configurate.objectmapping.common;
 
-import io.leangen.geantyref.GenericTypeReflector;
-
-import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Objects;
@@ -17,10 +14,10 @@ final class MethodAdapter {
     private final Type returnType;
     private final Type[] parameterTypes;
 
-    public MethodAdapter(Method method, Type declaringType) {
-        this.name = method.getName();
-        this.returnType = GenericTypeReflector.getReturnType(method, declaringType);
-        this.parameterTypes = GenericTypeReflector.getParameterTypes(method, declaringType);
+    MethodAdapter(String name, Type returnType, Type[] parameterTypes) {
+        this.name = name;
+        this.returnType = returnType;
+        this.parameterTypes = parameterTypes;
     }
 
     @Override
@@ -0,0 +1,66 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+/**
+ * Slots of an instance loaded by {@link Projection}, only selected slots hold loaded values.
+ */
+final class ProjectedSlots extends InstanceSlots {
+
+    private final ProxySlotLayout layout;
+    private final Object[] values;
+    private final boolean[] selected;
+    private final boolean defaultUnselected;
+
+    ProjectedSlots(ProxySlotLayout layout, boolean defaultUnselected) {
+        this.layout = layout;
+        this.values = new Object[layout.size()];
+        this.selected = new boolean[layout.size()];
+        this.defaultUnselected = defaultUnselected;
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public Object get(int slot) {
+        if (selected[slot])
+            return values[slot];
+        // Stored value handlers fall back to the default of the method
+        if (defaultUnselected)
+            return null;
+        throw new IllegalStateException("Method '" + layout.method(slot).toGenericString() + "' is not selected by the projection");
+    }
+
+    @Override
+    public boolean isLoaded(int slot) {
+        return selected[slot] || defaultUnselected;
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        load(slot, value);
+        markDirty(slot);
+    }
+
+    @Override
+    @Nullable Object loadedValue(int slot) {
+        return selected[slot] ? values[slot] : null;
+    }
+
+    /**
+     * Stores loaded value of the selected slot.
+     *
+     * @param slot The slot ordinal.
+     * @param value Loaded value.
+     */
+    void load(int slot, @Nullable Object value) {
+        values[slot] = value;
+        selected[slot] = true;
+    }
+
+}
@@ -0,0 +1,311 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import static io.leangen.geantyref.GenericTypeReflector.erase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.NodePath;
+import org.spongepowered.configurate.objectmapping.FieldData;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.util.Types;
+
+import io.leangen.geantyref.GenericTypeReflector;
+
+/**
+ * Partial loader of a config interface, deserializes only selected values and nested config interfaces along the way to them.
+ *
+ * <pre>{@code
+ * RootConfig config = factory.projection(RootConfig.class)
+ *         .select(RootConfig::name)
+ *         .select(root -> root.database().url())
+ *         .select("messages", "prefix")
+ *         .load(node);
+ * }</pre>
+ *
+ * <p>Values are resolved by the same node resolvers and checked by the same constraints as by the object mapper.
+ * Accessors of values that are not selected throw {@link IllegalStateException},
+ * or return defaults if {@link #defaultUnselected(boolean)} is set.</p>
+ *
+ * @param <T> Type of the config interface.
+ * @see InterfaceObjectMapperFactory#projection(Class)
+ */
+public final class Projection<T> {
+
+    private final ObjectMapper.Factory mappers;
+    private final InterfaceMethodDiscoverer discoverer;
+    private final Class<T> type;
+    private final Map<Type, Target> targets = new ConcurrentHashMap<>();
+    private final Selection selection = new Selection();
+    private final List<Object[]> paths = new ArrayList<>();
+    private boolean defaultUnselected;
+
+    Projection(ObjectMapper.Factory mappers, InterfaceMethodDiscoverer discoverer, Class<T> type) throws SerializationException {
+        this.mappers = mappers;
+        this.discoverer = discoverer;
+        this.type = type;
+        target(type);
+    }
+
+    /**
+     * Selects value returned by the accessor, or by the last accessor of a chain of nested config interfaces,
+     * for example {@code root -> root.database().url()}.
+     *
+     * <p>The accessor is called once on a recording instance, which returns defaults from accessors of other values.</p>
+     *
+     * @param accessor Accessor of the value.
+     * @return This projection.
+     * @throws IllegalArgumentException If the accessor doesn't call any method of a stored value.
+     */
+    public Projection<T> select(Function<? super T, ?> accessor) {
+        List<Integer> recorded = new ArrayList<>();
+        try {
+            accessor.apply(type.cast(recorder(type, new ArrayList<>(), recorded)));
+        } catch (RecordingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        if (recorded.isEmpty())
+            throw new IllegalArgumentException("Accessor of " + type.getName() + " doesn't call any method of a stored value");
+        Selection current = selection;
+        for (Integer slot : recorded)
+            current = current.child(slot);
+        current.whole = true;
+        return this;
+    }
+
+    /**
+     * Selects value at the path, relative to the node of the config interface. Paths into values that are not config interfaces,
+     * such as an element of a list, select the whole value.
+     *
+     * @param path Path of the value.
+     * @return This projection.
+     */
+    public Projection<T> select(Object... path) {
+        if (path.length == 0)
+            throw new IllegalArgumentException("Path is empty");
+        paths.add(path.clone());
+        return this;
+    }
+
+    /**
+     * Sets whether accessors of values that are not selected return defaults instead of throwing {@link IllegalStateException}.
+     * Defaults are the same as of missing values: default methods are called, other accessors return {@code null} or zero.
+     *
+     * @param defaultUnselected Whether unselected values return defaults.
+     * @return This projection.
+     */
+    public Projection<T> defaultUnselected(boolean defaultUnselected) {
+        this.defaultUnselected = defaultUnselected;
+        return this;
+    }
+
+    /**
+     * Loads selected values from the node.
+     *
+     * @param node Node of the config interface.
+     * @return Instance of the config interface holding the selected values.
+     * @throws SerializationException If a selected value cannot be deserialized or no value is at a selected path.
+     */
+    public T load(ConfigurationNode node) throws SerializationException {
+        Selection selection = this.selection.copy();
+        for (Object[] path : paths) {
+            if (!select(type, node, selection, path, 0))
+                throw new SerializationException(node, type, "No value at path " + Arrays.toString(path));
+        }
+        return type.cast(load(type, node, selection));
+    }
+
+    private boolean select(Type type, ConfigurationNode node, Selection selection, Object[] path, int from)
+            throws SerializationException {
+        Target target = target(type);
+        boolean selected = false;
+        for (int slot = 0; slot < target.fields.size(); slot++) {
+            FieldData<?, ?> field = target.fields.get(slot);
+            ConfigurationNode fieldNode = field.resolveNode(node);
+            if (fieldNode == null)
+                continue;
+            // Values resolved outside of the node, such as @NodeKey, can't be selected by path
+            if (!startsWith(fieldNode.path(), node.path()))
+                continue;
+            int length = fieldNode.path().size() - node.path().size();
+            if (!startsWith(path, from, fieldNode.path(), node.path().size(), length))
+                continue;
+            Type fieldType = field.resolvedType().getType();
+            if (configInterface(fieldType) && from + length < path.length) {
+                // Nested interface may be resolved from the same node, so it is selected only if it has the value
+                Selection nested = selection.children.containsKey(slot) ? selection.children.get(slot) : new Selection();
+                if (select(fieldType, fieldNode, nested, path, from + length)) {
+                    selection.children.put(slot, nested);
+                    selected = true;
+                }
+            } else if (length > 0) {
+                selection.child(slot).whole = true;
+                selected = true;
+            }
+        }
+        return selected;
+    }
+
+    private Object load(Type type, ConfigurationNode node, Selection selection) throws SerializationException {
+        Target target = target(type);
+        ProjectedSlots slots = new ProjectedSlots(target.instanceFactory.layout(), defaultUnselected);
+        SerializationException failure = null;
+        for (Map.Entry<Integer, Selection> entry : selection.children.entrySet()) {
+            FieldData<?, ?> field = target.fields.get(entry.getKey());
+            try {
+                slots.load(entry.getKey(), entry.getValue().whole ? LazySlots.deserialize(field, node) :
+                        loadNested(field, node, entry.getValue()));
+            } catch (SerializationException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+        return target.instanceFactory.createInstance(slots);
+    }
+
+    private @Nullable Object loadNested(FieldData<?, ?> field, ConfigurationNode source, Selection selection)
+            throws SerializationException {
+        ConfigurationNode node = field.resolveNode(source);
+        // Missing value is deserialized as usual to be implicitly initialized
+        if (node == null || node.isNull())
+            return LazySlots.deserialize(field, source);
+        Type type = field.resolvedType().getType();
+        try {
+            Object value = load(type, node, selection);
+            field.validate(value);
+            return value;
+        } catch (SerializationException e) {
+            e.initPath(node::path);
+            e.initType(type);
+            throw e;
+        }
+    }
+
+    private Target target(Type type) throws SerializationException {
+        Target target = targets.get(type);
+        if (target != null)
+            return target;
+        ObjectMapper<?> mapper = mappers.get(type);
+        ProxyInstanceFactory instanceFactory = discoverer.instanceFactory(GenericTypeReflector.annotate(type));
+        if (instanceFactory == null || instanceFactory.layout().size() != mapper.fields().size())
+            throw new SerializationException(type, "Type cannot be projected, it is not a config interface of the factory");
+        target = new Target(mapper.fields(), instanceFactory);
+        targets.put(type, target);
+        return target;
+    }
+
+    private Object recorder(Type type, List<Integer> path, List<Integer> recorded) {
+        Target target;
+        try {
+            target = target(type);
+        } catch (SerializationException e) {
+            throw new RecordingException(e.getMessage());
+        }
+        SlotLayout layout = target.instanceFactory.layout();
+        InvocationHandler handler = (proxy, method, args) -> {
+            int slot = layout.slot(method);
+            if (slot == -1 || method.getParameterCount() != 0)
+                throw new RecordingException("Method '" + method.toGenericString() + "' is not an accessor of a stored value");
+            List<Integer> methodPath = new ArrayList<>(path);
+            methodPath.add(slot);
+            recorded.clear();
+            recorded.addAll(methodPath);
+            Type fieldType = target.fields.get(slot).resolvedType().getType();
+            if (configInterface(fieldType))
+                return recorder(fieldType, methodPath, recorded);
+            return defaultValue(method);
+        };
+        Class<?> clazz = erase(type);
+        return Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, handler);
+    }
+
+    private static @Nullable Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType.isPrimitive() && returnType != void.class ? Types.defaultValue(returnType) : null;
+    }
+
+    private static boolean configInterface(Type type) {
+        return InterfaceObjectMapperFactory.applicable(type) && erase(type).isInterface();
+    }
+
+    private static boolean startsWith(NodePath path, NodePath prefix) {
+        if (prefix.size() > path.size())
+            return false;
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!Objects.equals(path.get(i), prefix.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(Object[] path, int from, NodePath nodePath, int start, int length) {
+        if (from + length > path.length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (!Objects.equals(path[from + i], nodePath.get(start + i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static final class Target {
+
+        private final List<? extends FieldData<?, ?>> fields;
+        private final ProxyInstanceFactory instanceFactory;
+
+        Target(List<? extends FieldData<?, ?>> fields, ProxyInstanceFactory instanceFactory) {
+            this.fields = fields;
+            this.instanceFactory = instanceFactory;
+        }
+
+    }
+
+    /**
+     * Selected slots of a config interface, either the whole value or some values of the nested config interface.
+     */
+    private static final class Selection {
+
+        private final Map<Integer, Selection> children = new TreeMap<>();
+        private boolean whole;
+
+        Selection child(int slot) {
+            return children.computeIfAbsent(slot, key -> new Selection());
+        }
+
+        Selection copy() {
+            Selection copy = new Selection();
+            copy.whole = whole;
+            children.forEach((slot, child) -> copy.children.put(slot, child.copy()));
+            return copy;
+        }
+
+    }
+
+    private static final class RecordingException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        RecordingException(String message) {
+            super(message);
+        }
+
+    }
+
+}
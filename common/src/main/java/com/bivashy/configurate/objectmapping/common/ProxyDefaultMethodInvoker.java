@@ -3,21 +3,82 @@ package com.bivashy.configurate.objectmapping.common;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
 
 public class ProxyDefaultMethodInvoker {
 
+    static final int JAVA_VERSION = javaVersion();
+    // Unbound handles of (Object proxy, Object[] args)Object type, grouped by declaring class to release them with the class
+    private static final ClassValue<Map<Method, MethodHandle>> HANDLES = new ClassValue<Map<Method, MethodHandle>>() {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private ProxyDefaultMethodInvoker() {
     }
 
     public static Object invokeDefaultMethod(Object proxy, Method method, Object[] args) throws ReflectiveOperationException {
+        return invoke(defaultMethodHandle(method), proxy, args);
+    }
+
+    /**
+     * Binds a handler that calls default implementation of the method, the handle is resolved when the handler is bound.
+     *
+     * @param method The default method of an interface.
+     * @return Handler of the method, if the handle cannot be resolved the handler tries to resolve it again on each call.
+     */
+    public static ProxyMethodHandler defaultMethodHandler(Method method) {
+        final MethodHandle methodHandle;
+        try {
+            methodHandle = defaultMethodHandle(method);
+        } catch (ReflectiveOperationException e) {
+            return (proxy, args, slots) -> invokeDefaultMethod(proxy, method, args);
+        }
+        return (proxy, args, slots) -> invoke(methodHandle, proxy, args);
+    }
+
+    private static Object invoke(MethodHandle methodHandle, Object proxy, Object[] args) {
+        try {
+            return (Object) methodHandle.invokeExact(proxy, args);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Resolves the handle of the default method, the handle is resolved once per method.
+     *
+     * @param method The default method of an interface.
+     * @return Handle of {@code (Object proxy, Object[] args)Object} type that calls default implementation of the method.
+     * @throws ReflectiveOperationException If handle cannot be resolved.
+     */
+    public static MethodHandle defaultMethodHandle(Method method) throws ReflectiveOperationException {
+        Map<Method, MethodHandle> handles = HANDLES.get(method.getDeclaringClass());
+        MethodHandle methodHandle = handles.get(method);
+        if (methodHandle == null) {
+            methodHandle = resolveDefaultMethodHandle(method);
+            MethodHandle previous = handles.putIfAbsent(method, methodHandle);
+            if (previous != null)
+                return previous;
+        }
+        return methodHandle;
+    }
+
+    private static MethodHandle resolveDefaultMethodHandle(Method method) throws ReflectiveOperationException {
         final Class<?> declaringClass = method.getDeclaringClass();
 
         method.setAccessible(true);
 
         MethodHandle methodHandle;
-        if (javaVersion() <= 8) { // Java 8 and lower
+        if (JAVA_VERSION <= 8) { // Java 8 and lower
             // Lookup(Class)
             Constructor<Lookup> constructor = Lookup.class
                     .getDeclaredConstructor(Class.class);
@@ -25,21 +86,17 @@ public class ProxyDefaultMethodInvoker {
 
             methodHandle = constructor.newInstance(declaringClass)
                     .in(declaringClass)
-                    .unreflectSpecial(method, declaringClass)
-                    .bindTo(proxy);
+                    .unreflectSpecial(method, declaringClass);
         } else {  // For Java 9 and above
             // MethodHandles.privateLookupIn(Class, Lookup)
             Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
             Lookup lookup = (Lookup) privateLookupIn.invoke(null, declaringClass, MethodHandles.lookup());
-            methodHandle = lookup.unreflectSpecial(method, declaringClass)
-                    .bindTo(proxy);
+            methodHandle = lookup.unreflectSpecial(method, declaringClass);
         }
 
-        try {
-            return methodHandle.invokeWithArguments(args);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
-        }
+        int parameterCount = method.getParameterCount();
+        return methodHandle.asType(MethodType.genericMethodType(parameterCount + 1))
+                .asSpreader(Object[].class, parameterCount);
     }
 
     private static int javaVersion() {
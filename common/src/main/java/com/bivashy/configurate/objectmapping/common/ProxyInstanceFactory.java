@@ -3,49 +3,131 @@ package com.bivashy.configurate.objectmapping.common;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.objectmapping.FieldData;
 import org.spongepowered.configurate.objectmapping.FieldDiscoverer.InstanceFactory;
 import org.spongepowered.configurate.util.Types;
 
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
 import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
 
-class ProxyInstanceFactory implements InstanceFactory<Map<String, Object>> {
+class ProxyInstanceFactory implements InstanceFactory<Object[]> {
 
     private final Class<?> clazz;
-    private final Collection<ProxyMethodInvoker> invokers;
+    private final SlotLayout layout;
+    private final List<ProxyMethodInvoker> invokers;
+    // Resolved once per interface, indexed by the same order as methods
+    private final Method[] methods;
+    private final ProxyMethodHandler[] handlers;
+    // Indexes of Method instances passed by proxies, filled on the first call of each method
+    private volatile MethodIndex methodIndex = new MethodIndex(16);
+    // Methods that are not claimed by any invoker and only return their stored value
+    private final Set<Method> storedValueMethods = new HashSet<>();
+    // Handlers of getters of every slot, read stored values directly when no invoker claims the getter
+    private final ProxyMethodHandler[] getters;
+    private final ImplementationGenerator.@Nullable Implementation implementation;
 
-    public ProxyInstanceFactory(Class<?> clazz, Collection<ProxyMethodInvoker> invokers) {
-        this.clazz = clazz;
-        this.invokers = invokers;
+    /**
+     * Creates instance factory of the interface.
+     *
+     * @param layout Slot layout of the interface to create instances of.
+     * @param invokers Invokers to bind interface methods with.
+     * @param generateImplementation Whether instances should be generated classes instead of {@link Proxy}, if possible.
+     */
+    public ProxyInstanceFactory(SlotLayout layout, Collection<ProxyMethodInvoker> invokers, boolean generateImplementation) {
+        this.clazz = layout.type();
+        this.layout = layout;
+        this.invokers = new ArrayList<>(invokers);
+        Map<Method, ProxyMethodHandler> handlers = new LinkedHashMap<>();
+        for (Method method : clazz.getMethods())
+            handlers.put(method, bind(method));
+        for (Method method : Object.class.getMethods())
+            handlers.putIfAbsent(method, bind(method));
+        this.methods = handlers.keySet().toArray(new Method[0]);
+        this.handlers = handlers.values().toArray(new ProxyMethodHandler[0]);
+        this.getters = new ProxyMethodHandler[layout.size()];
+        for (int slot = 0; slot < getters.length; slot++) {
+            Method method = layout.method(slot);
+            getters[slot] = storedValueMethods.contains(method) ? storedValueHandler(layout, method) : handler(method);
+        }
+        this.implementation = generateImplementation ? ImplementationGenerator.generate(layout, handlers, fieldReads()) : null;
     }
 
     @Override
-    public Map<String, Object> begin() {
-        return new HashMap<>();
+    public Object[] begin() {
+        return new Object[layout.size()];
     }
 
     @Override
-    public Object complete(Map<String, Object> intermediate) {
-        return createProxy((proxy, method, args) -> {
-            Object intermediateValue = intermediate.get(method.getName());
-            Optional<Object> invocationResult = chooseInvocationResult(proxy, method, args, intermediate);
+    public Object complete(Object[] intermediate) {
+        if (implementation != null) {
+            GeneratedInstance instance = implementation.newInstance();
+            for (int i = 0; i < intermediate.length; i++)
+                instance.initialize(i, intermediate[i]);
+            return instance;
+        }
+        return createProxy(new SlotsInvocationHandler(this, new ArraySlots(layout, intermediate)));
+    }
+
+    /**
+     * Creates an instance that deserializes each stored value from the node on its first read.
+     * Lazy instances are always {@link Proxy} instances, generated implementations read their fields directly.
+     *
+     * @param node Node to deserialize stored values from.
+     * @param fields Fields of the object mapper of the interface, in the order of slots.
+     * @return Lazy instance, or {@code null} if the fields don't match slots of the interface.
+     */
+    @Nullable Object completeLazily(ConfigurationNode node, List<? extends FieldData<?, ?>> fields) {
+        if (fields.size() != layout.size())
+            return null;
+        return createInstance(new LazySlots(layout, fields, node));
+    }
 
-            if (invocationResult.isPresent())
-                return invocationResult.get();
+    /**
+     * Creates a {@link Proxy} instance backed by the given slots.
+     *
+     * @param slots Slots of the layout of this factory.
+     * @return Created instance.
+     */
+    Object createInstance(ProxySlots slots) {
+        return createProxy(new SlotsInvocationHandler(this, slots));
+    }
 
-            if (intermediateValue == null && method.isDefault())
-                return ProxyDefaultMethodInvoker.invokeDefaultMethod(proxy, method, args);
+    /**
+     * Returns value of the slot the same way as its getter, without reflective dispatch through the instance.
+     *
+     * @param instance Instance created by this factory.
+     * @param slots Slots of the instance.
+     * @param slot The slot ordinal.
+     * @return Value returned by the getter of the slot.
+     * @throws ReflectiveOperationException If the getter is a default method that cannot be invoked.
+     */
+    Object read(Object instance, ProxySlots slots, int slot) throws ReflectiveOperationException {
+        return getters[slot].handle(instance, null, slots);
+    }
 
-            if (intermediateValue == null && method.getReturnType().isPrimitive())
-                return intermediate.computeIfAbsent(method.getName(), (ignored) -> Types.defaultValue(method.getReturnType()));
+    SlotLayout layout() {
+        return layout;
+    }
 
-            return intermediateValue;
-        });
+    /**
+     * Defines the proxy class, which is otherwise defined on the first instance.
+     * Generated implementations are already defined.
+     */
+    void defineInstanceClass() {
+        if (implementation == null)
+            createProxy(new SlotsInvocationHandler(this, new ArraySlots(layout, begin())));
     }
 
     @Override
@@ -57,17 +139,149 @@ class ProxyInstanceFactory implements InstanceFactory<Map<String, Object>> {
         return Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, invocationHandler);
     }
 
-    private Optional<Object> chooseInvocationResult(Object proxy, Method method, Object[] args, Map<String, Object> intermediateValue) {
-        return invokers.stream()
-                .map(invoker -> {
-                    try {
-                        return invoker.invoke(proxy, method, args, intermediateValue);
-                    } catch (ReflectiveOperationException e) {
-                        throw new RuntimeException(e);
-                    }
-                })
-                .filter(Objects::nonNull)
-                .findFirst();
+    private ProxyMethodHandler handler(Method method) {
+        int index = methodIndex.get(method);
+        if (index != -1)
+            return handlers[index];
+        return index(method);
+    }
+
+    // Proxy classes pass the same Method instance on every call of a method, it is compared by equals only once
+    private synchronized ProxyMethodHandler index(Method method) {
+        for (int i = 0; i < methods.length; i++) {
+            if (methods[i].equals(method)) {
+                methodIndex = methodIndex.with(method, i);
+                return handlers[i];
+            }
+        }
+        // Theoretically not possible, proxy dispatches only methods of the interface and Object
+        return bind(method);
+    }
+
+    private ProxyMethodHandler bind(Method method) {
+        ProxyMethodHandler storedValueHandler = storedValueHandler(layout, method);
+        ProxyMethodHandler handler = storedValueHandler;
+        for (int i = invokers.size() - 1; i >= 0; i--)
+            handler = invokers.get(i).bind(layout, method, handler);
+        if (handler == storedValueHandler)
+            storedValueMethods.add(method);
+        return handler;
+    }
+
+    private Set<Method> fieldReads() {
+        Set<Method> fieldReads = new HashSet<>();
+        for (Method method : storedValueMethods) {
+            if (method.isDefault() || method.getParameterCount() != 0)
+                continue;
+            int slot = layout.slot(method);
+            if (slot != -1 && method.getReturnType().equals(layout.method(slot).getReturnType()))
+                fieldReads.add(method);
+        }
+        return fieldReads;
+    }
+
+    /**
+     * Invocation handler of proxies, keeps slots of the proxy accessible through {@link ProxyInstances#slots(Object)}.
+     */
+    static final class SlotsInvocationHandler implements InvocationHandler {
+
+        private final ProxyInstanceFactory factory;
+        private final ProxySlots slots;
+
+        SlotsInvocationHandler(ProxyInstanceFactory factory, ProxySlots slots) {
+            this.factory = factory;
+            this.slots = slots;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return factory.handler(method).handle(proxy, args, slots);
+        }
+
+        ProxySlots slots() {
+            return slots;
+        }
+
+    }
+
+    /**
+     * Open addressing table of method indexes by identity of {@link Method} instances, replaced on insert.
+     */
+    private static final class MethodIndex {
+
+        private final Method[] keys;
+        private final int[] indexes;
+        private final int size;
+
+        MethodIndex(int capacity) {
+            this(new Method[capacity], new int[capacity], 0);
+        }
+
+        private MethodIndex(Method[] keys, int[] indexes, int size) {
+            this.keys = keys;
+            this.indexes = indexes;
+            this.size = size;
+        }
+
+        int get(Method method) {
+            int mask = keys.length - 1;
+            for (int i = System.identityHashCode(method) & mask; ; i = (i + 1) & mask) {
+                Method key = keys[i];
+                if (key == method)
+                    return indexes[i];
+                if (key == null)
+                    return -1;
+            }
+        }
+
+        MethodIndex with(Method method, int index) {
+            int capacity = (size + 1) * 2 > keys.length ? keys.length * 2 : keys.length;
+            MethodIndex copy = new MethodIndex(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null)
+                    copy.put(keys[i], indexes[i]);
+            }
+            copy.put(method, index);
+            return new MethodIndex(copy.keys, copy.indexes, size + 1);
+        }
+
+        private void put(Method method, int index) {
+            int mask = keys.length - 1;
+            int i = System.identityHashCode(method) & mask;
+            while (keys[i] != null && keys[i] != method)
+                i = (i + 1) & mask;
+            keys[i] = method;
+            indexes[i] = index;
+        }
+
+    }
+
+    private static ProxyMethodHandler storedValueHandler(ProxySlotLayout layout, Method method) {
+        final int slot = layout.slot(method);
+        if (method.isDefault()) {
+            ProxyMethodHandler defaultHandler = ProxyDefaultMethodInvoker.defaultMethodHandler(method);
+            if (slot == -1)
+                return defaultHandler;
+            return (proxy, args, slots) -> {
+                Object value = slots.get(slot);
+                if (value == null)
+                    return defaultHandler.handle(proxy, args, slots);
+                return value;
+            };
+        }
+        final Object defaultValue = method.getReturnType().isPrimitive() && method.getReturnType() != void.class ?
+                Types.defaultValue(method.getReturnType()) : null;
+        if (slot == -1)
+            return (proxy, args, slots) -> defaultValue;
+        if (defaultValue != null) {
+            return (proxy, args, slots) -> {
+                Object value = slots.get(slot);
+                if (value == null)
+                    return defaultValue;
+                return value;
+            };
+        }
+        return (proxy, args, slots) -> slots.get(slot);
     }
 
 }
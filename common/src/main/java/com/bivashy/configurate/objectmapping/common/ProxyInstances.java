@@ -0,0 +1,231 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Utilities for instances created by {@link InterfaceMethodDiscoverer}.
+ */
+public final class ProxyInstances {
+
+    private ProxyInstances() {
+    }
+
+    /**
+     * Returns stored values of the instance.
+     *
+     * @param instance The instance, may be {@code null}.
+     * @return Slots of the instance, or {@code null} if it wasn't created by {@link InterfaceMethodDiscoverer}.
+     */
+    public static @Nullable ProxySlots slots(@Nullable Object instance) {
+        if (instance instanceof GeneratedInstance)
+            return ((GeneratedInstance) instance).slots();
+        if (instance == null || !Proxy.isProxyClass(instance.getClass()))
+            return null;
+        InvocationHandler handler = Proxy.getInvocationHandler(instance);
+        if (handler instanceof ProxyInstanceFactory.SlotsInvocationHandler)
+            return ((ProxyInstanceFactory.SlotsInvocationHandler) handler).slots();
+        return null;
+    }
+
+    /**
+     * Loads every value of the lazily loaded instance and of instances nested in it, including their elements of collections
+     * and values of maps, so failures are thrown at once instead of from accessors. Instances that are not lazy are only traversed.
+     *
+     * @param instance The instance, may be {@code null}.
+     * @throws SerializationException If some value cannot be loaded, failures of other values are suppressed by it.
+     * @see InterfaceObjectMapperFactory#lazy()
+     */
+    public static void validateAll(@Nullable Object instance) throws SerializationException {
+        ProxySlots slots = slots(instance);
+        if (slots == null)
+            return;
+        SerializationException failure = null;
+        if (slots instanceof LazySlots) {
+            try {
+                ((LazySlots) slots).loadAll();
+            } catch (SerializationException e) {
+                failure = e;
+            }
+        }
+        for (int i = 0; i < slots.layout().size(); i++) {
+            try {
+                validateValue(slots.get(i));
+            } catch (LazyLoadException e) {
+                // Slot that failed to load above
+            } catch (SerializationException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Returns whether the instance or instances nested in it, including their elements of collections and values of maps,
+     * were written to by setters since they were loaded or their changes were saved.
+     *
+     * @param instance The instance, may be {@code null}.
+     * @return Whether the instance has unsaved changes.
+     * @see InterfaceObjectMapperFactory#saveChanges(Object, org.spongepowered.configurate.ConfigurationNode)
+     */
+    public static boolean isDirty(@Nullable Object instance) {
+        if (instance instanceof Collection) {
+            for (Object element : (Collection<?>) instance) {
+                if (isDirty(element))
+                    return true;
+            }
+            return false;
+        }
+        if (instance instanceof Map) {
+            for (Object element : ((Map<?, ?>) instance).values()) {
+                if (isDirty(element))
+                    return true;
+            }
+            return false;
+        }
+        ProxySlots slots = slots(instance);
+        if (!(slots instanceof InstanceSlots))
+            return false;
+        InstanceSlots instanceSlots = (InstanceSlots) slots;
+        if (instanceSlots.dirty())
+            return true;
+        for (int i = 0; i < slots.layout().size(); i++) {
+            if (isDirty(instanceSlots.loadedValue(i)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets changes of the value and of instances nested in it, once the value is saved as a whole.
+     *
+     * @param value The value, may be {@code null}.
+     */
+    static void markSaved(@Nullable Object value) {
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value)
+                markSaved(element);
+            return;
+        }
+        if (value instanceof Map) {
+            for (Object element : ((Map<?, ?>) value).values())
+                markSaved(element);
+            return;
+        }
+        ProxySlots slots = slots(value);
+        if (!(slots instanceof InstanceSlots))
+            return;
+        InstanceSlots instanceSlots = (InstanceSlots) slots;
+        instanceSlots.takeDirty();
+        for (int i = 0; i < slots.layout().size(); i++)
+            markSaved(instanceSlots.loadedValue(i));
+    }
+
+    /**
+     * Returns read-only view of the current values of the instance and of config interfaces nested in it.
+     * Taking a snapshot doesn't copy values, later writes to the instance are not visible to it.
+     *
+     * @param instance Instance deserialized by a {@link InterfaceObjectMapperFactory#concurrent() concurrent} factory
+     * or of a {@link ReloadableConfig}, or a snapshot.
+     * @param <T> Type of the instance.
+     * @return Snapshot of the instance, setters of the snapshot throw {@link UnsupportedOperationException}.
+     * @throws IllegalArgumentException If the instance doesn't publish its values as versions, or it was replaced by a setter
+     * of the instance holding it.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T snapshot(T instance) {
+        ProxySlots slots = slots(instance);
+        if (slots instanceof SnapshotSlots)
+            return instance;
+        VersionedSlots versioned = versioned(instance);
+        return (T) versioned.tree().snapshot(versioned);
+    }
+
+    /**
+     * Registers listener of the value returned by the accessor, or by the last accessor of a chain of nested config interfaces,
+     * for example {@code root -> root.database().url()}. The accessor is called once on a recording instance.
+     *
+     * <p>The listener is called on the writing thread once per reload or setter call that changes the value,
+     * or values of a nested config interface returned by the accessor. It receives the value read by the accessor
+     * from {@link #snapshot(Object) snapshots} before and after the change.</p>
+     *
+     * @param instance Instance deserialized by a {@link InterfaceObjectMapperFactory#concurrent() concurrent} factory
+     * or of a {@link ReloadableConfig}.
+     * @param accessor Accessor of the value.
+     * @param listener Receives previous and new value.
+     * @param <T> Type of the instance.
+     * @param <V> Type of the value.
+     * @throws IllegalArgumentException If the instance doesn't publish its values as versions, or it was replaced by a setter
+     * of the instance holding it, or the accessor doesn't call accessors of stored values only.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> void onChange(T instance, Function<? super T, V> accessor, BiConsumer<? super V, ? super V> listener) {
+        VersionedSlots slots = versioned(instance);
+        int[] path = slots.tree().record(slots.layout(), (Function<Object, ?>) accessor);
+        slots.tree().listen(slots, path, (before, after) -> listener.accept(accessor.apply((T) before), accessor.apply((T) after)));
+    }
+
+    /**
+     * Writes many values of the instance at once. The mutator writes values of a staged copy of the instance,
+     * its nested config interfaces are staged copies too, then the written values are published as a single version,
+     * so readers and {@link #snapshot(Object) snapshots} see either none or all of them.
+     *
+     * <pre>{@code
+     * ProxyInstances.update(config, staged -> {
+     *     staged.host("example.org");
+     *     staged.port(8080);
+     * });
+     * }</pre>
+     *
+     * <p>Constraints of written values, such as {@code @Required} or {@code @Matches}, are checked once on the final values.
+     * No lock is held while the mutator runs, if another write is published meanwhile, the mutator is called again
+     * on a copy of the new version, so it should have no other side effects. The staged copy should not be used after the mutator returns.</p>
+     *
+     * @param instance Instance deserialized by a {@link InterfaceObjectMapperFactory#concurrent() concurrent} factory
+     * or of a {@link ReloadableConfig}.
+     * @param mutator Writes values of the staged copy.
+     * @param <T> Type of the instance.
+     * @throws SerializationException If some written value doesn't pass constraints of its field, nothing is written.
+     * @throws IllegalArgumentException If the instance doesn't publish its values as versions, or it was replaced by a setter
+     * of the instance holding it.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void update(T instance, Consumer<? super T> mutator) throws SerializationException {
+        VersionedSlots slots = versioned(instance);
+        slots.tree().update(slots, (Consumer<Object>) mutator);
+    }
+
+    static VersionedSlots versioned(Object instance) {
+        ProxySlots slots = slots(instance);
+        if (!(slots instanceof VersionedSlots))
+            throw new IllegalArgumentException("Only instances of concurrent or reloadable configs are versioned");
+        return (VersionedSlots) slots;
+    }
+
+    private static void validateValue(@Nullable Object value) throws SerializationException {
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value)
+                validateValue(element);
+        } else if (value instanceof Map) {
+            for (Object element : ((Map<?, ?>) value).values())
+                validateValue(element);
+        } else {
+            validateAll(value);
+        }
+    }
+
+}
@@ -1,33 +1,58 @@
 package com.bivashy.configurate.objectmapping.common;
 
 import java.lang.reflect.Method;
-import java.util.Map;
 import java.util.function.Supplier;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import org.spongepowered.configurate.objectmapping.FieldData;
 import org.spongepowered.configurate.util.CheckedFunction;
 
-class ProxyMethodSerializer<V> implements FieldData.Deserializer<Map<String, Object>>, CheckedFunction<V, Object, Exception> {
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+class ProxyMethodSerializer<V> implements FieldData.Deserializer<Object[]>, CheckedFunction<V, Object, Exception> {
 
     private final Method method;
-    private final String name;
+    private final int slot;
+    private final ProxyInstanceFactory instanceFactory;
 
-    public ProxyMethodSerializer(Method method, String name) {
+    public ProxyMethodSerializer(Method method, int slot, ProxyInstanceFactory instanceFactory) {
         this.method = method;
-        this.name = name;
+        this.slot = slot;
+        this.instanceFactory = instanceFactory;
     }
 
     @Override
-    public void accept(Map<String, Object> intermediate, Object newValue, Supplier<Object> implicitInitializer) {
+    public void accept(Object[] intermediate, Object newValue, Supplier<Object> implicitInitializer) {
         if (newValue != null) {
-            intermediate.put(name, newValue);
+            intermediate[slot] = newValue;
         } else {
-            intermediate.put(name, implicitInitializer.get());
+            intermediate[slot] = implicitInitializer.get();
         }
     }
 
+    // Instances of the factory are read from their slots, other implementations of the interface through reflection
     @Override
     public Object apply(V obj) throws Exception {
+        return read(instanceFactory, method, slot, obj);
+    }
+
+    /**
+     * Returns value of the getter of the slot, read from stored values if the object is created by the instance factory.
+     *
+     * @param instanceFactory Instance factory of the interface, may be {@code null}.
+     * @param method Getter of the slot.
+     * @param slot The slot ordinal.
+     * @param obj Object to read the value of.
+     * @return Value returned by the getter.
+     * @throws ReflectiveOperationException If the getter cannot be invoked.
+     */
+    static Object read(@Nullable ProxyInstanceFactory instanceFactory, Method method, int slot, Object obj) throws ReflectiveOperationException {
+        if (instanceFactory != null) {
+            ProxySlots slots = ProxyInstances.slots(obj);
+            if (slots != null && slots.layout() == instanceFactory.layout())
+                return instanceFactory.read(obj, slots, slot);
+        }
         return method.invoke(obj);
     }
 
@@ -0,0 +1,269 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import static io.leangen.geantyref.GenericTypeReflector.erase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurateException;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.NodePath;
+import org.spongepowered.configurate.loader.ConfigurationLoader;
+import org.spongepowered.configurate.objectmapping.FieldData;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.util.CheckedFunction;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Config interface loaded from a {@link ConfigurationLoader}, which can be reloaded behind the same instances.
+ *
+ * <pre>{@code
+ * ReloadableConfig<MainConfig> config = factory.reloadable(MainConfig.class, loader);
+ * config.watch(Paths.get("main.conf"), Duration.ofMillis(200), e -> logger.warn("Cannot reload config", e));
+ * MainConfig main = config.get(); // stays valid across reloads
+ * }</pre>
+ *
+ * <p>{@link #get()} and config interfaces nested in it read the current version of the config, which {@link #reload()} replaces
+ * at once by a single volatile write, see {@link InterfaceObjectMapperFactory#concurrent()}. Reads never block.
+ * The config is loaded and validated before it is published,
+ * if it fails, for example by {@code @Required} or {@code @Matches} constraints, the previous state stays live.</p>
+ *
+ * <p>Nested config interfaces keep their instances across reloads while they are present.
+ * Values of collections and maps, including their elements, are replaced on reload.</p>
+ *
+ * @param <T> Type of the config interface.
+ * @see InterfaceObjectMapperFactory#reloadable(Class, ConfigurationLoader)
+ */
+public final class ReloadableConfig<T> implements Closeable {
+
+    private final Class<T> type;
+    private final InterfaceObjectMapperFactory factory;
+    private final CheckedFunction<ConfigurationNode, Object, SerializationException> mapper;
+    private final ConfigurationLoader<?> loader;
+    private final T instance;
+    private @Nullable WatchService watchService;
+
+    ReloadableConfig(InterfaceObjectMapperFactory factory, InterfaceMethodDiscoverer discoverer, Class<T> type,
+            ConfigurationLoader<?> loader) throws ConfigurateException {
+        this.type = type;
+        this.factory = factory;
+        this.mapper = factory.loader(type);
+        this.loader = loader;
+        Object instance = VersionedTree.copyOf(discoverer, factory, load());
+        if (!(ProxyInstances.slots(instance) instanceof VersionedSlots))
+            throw new SerializationException(type, "Only instances of config interfaces can be reloaded");
+        this.instance = type.cast(instance);
+    }
+
+    /**
+     * @return Instance of the config, which reads its current state.
+     */
+    public T get() {
+        return instance;
+    }
+
+    /**
+     * Loads the config and publishes its state to the instances, values written by setters are replaced.
+     *
+     * @throws ConfigurateException If the config cannot be loaded or validated, the previous state is kept.
+     */
+    public synchronized void reload() throws ConfigurateException {
+        Object loaded = load();
+        VersionedSlots root = (VersionedSlots) ProxyInstances.slots(instance);
+        root.tree().replace(root, ProxyInstances.slots(loaded));
+        ProxyInstances.markSaved(instance);
+    }
+
+    /**
+     * Writes many values of the config as a single version, see {@link ProxyInstances#update(Object, Consumer)}.
+     *
+     * @param mutator Writes values of a staged copy of the config, may be called more than once.
+     * @throws SerializationException If some written value doesn't pass constraints of its field, nothing is written.
+     */
+    public void update(Consumer<? super T> mutator) throws SerializationException {
+        ProxyInstances.update(instance, mutator);
+    }
+
+    /**
+     * Registers listener of a value of the config, see {@link ProxyInstances#onChange(Object, Function, BiConsumer)}.
+     * Listeners are called once per reload, after the whole config is published.
+     *
+     * @param accessor Accessor of the value, for example {@code MainConfig::permissions}.
+     * @param listener Receives previous and new value.
+     * @param <V> Type of the value.
+     * @return This config.
+     */
+    public <V> ReloadableConfig<T> onChange(Function<? super T, V> accessor, BiConsumer<? super V, ? super V> listener) {
+        ProxyInstances.onChange(instance, accessor, listener);
+        return this;
+    }
+
+    /**
+     * Registers listener of the value at the node path, relative to the node of the config.
+     * Paths into values that are not config interfaces, such as an element of a list, listen to the whole value.
+     *
+     * @param path Path of the value, for example {@code NodePath.path("database", "url")}.
+     * @param listener Receives previous and new stored value, nested config interfaces are received as snapshots.
+     * @return This config.
+     * @throws SerializationException If the path doesn't lead to a value of the config.
+     */
+    public ReloadableConfig<T> onChange(NodePath path, BiConsumer<Object, Object> listener) throws SerializationException {
+        int[] slots = slots(path);
+        VersionedSlots root = ProxyInstances.versioned(instance);
+        root.tree().listen(root, slots, (before, after) -> listener.accept(value(before, slots), value(after, slots)));
+        return this;
+    }
+
+    /**
+     * Reloads the config on changes of the file on a daemon thread, once the file isn't changed for the debounce duration.
+     *
+     * @param file File of the loader.
+     * @param debounce Time without changes of the file to wait before reloading it.
+     * @param errorHandler Receives failures of reloads, the previous state is kept on failure.
+     * @throws IOException If the directory of the file cannot be watched.
+     * @throws IllegalStateException If the config is already watched.
+     */
+    public synchronized void watch(Path file, Duration debounce, Consumer<? super ConfigurateException> errorHandler) throws IOException {
+        if (watchService != null)
+            throw new IllegalStateException("Config is already watched");
+        Path absolute = file.toAbsolutePath();
+        WatchService watchService = absolute.getFileSystem().newWatchService();
+        absolute.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watchService = watchService;
+        Thread thread = new Thread(() -> watch(watchService, absolute.getFileName(), debounce.toNanos(), errorHandler),
+                "ProximateConfigurate reload of " + absolute.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the file, the config stays usable.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null)
+            watchService.close();
+        watchService = null;
+    }
+
+    private Object load() throws ConfigurateException {
+        ConfigurationNode node = loader.load();
+        Object loaded = mapper.apply(node);
+        // Lazy values are loaded before they are published
+        ProxyInstances.validateAll(loaded);
+        if (ProxyInstances.slots(loaded) == null)
+            throw new SerializationException(node, type, "Only instances of config interfaces can be reloaded");
+        return loaded;
+    }
+
+    private int[] slots(NodePath path) throws SerializationException {
+        List<Integer> slots = new ArrayList<>();
+        Type current = type;
+        ConfigurationNode node = BasicConfigurationNode.root();
+        int from = 0;
+        while (from < path.size()) {
+            if (!erase(current).isInterface() || !InterfaceObjectMapperFactory.applicable(current))
+                break;
+            List<? extends FieldData<?, ?>> fields = factory.get(current).fields();
+            int slot = 0;
+            ConfigurationNode fieldNode = null;
+            for (; slot < fields.size(); slot++) {
+                fieldNode = fields.get(slot).resolveNode(node);
+                if (fieldNode != null && startsWith(path, from, fieldNode.path(), node.path().size()))
+                    break;
+            }
+            if (slot == fields.size())
+                throw new SerializationException(type, "No value at path " + path);
+            slots.add(slot);
+            from += fieldNode.path().size() - node.path().size();
+            current = fields.get(slot).resolvedType().getType();
+            node = fieldNode;
+        }
+        int[] result = new int[slots.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = slots.get(i);
+        return result;
+    }
+
+    // Whether the node path continues the path from the node of the config by at least one key
+    private static boolean startsWith(NodePath path, int from, NodePath nodePath, int start) {
+        int length = nodePath.size() - start;
+        if (length <= 0 || from + length > path.size())
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (!Objects.equals(path.get(from + i), nodePath.get(start + i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static @Nullable Object value(Object instance, int[] slots) {
+        Object value = instance;
+        for (int slot : slots) {
+            ProxySlots valueSlots = ProxyInstances.slots(value);
+            if (valueSlots == null)
+                return null;
+            value = valueSlots.get(slot);
+        }
+        return value;
+    }
+
+    private void watch(WatchService watchService, Path fileName, long debounceNanos, Consumer<? super ConfigurateException> errorHandler) {
+        try {
+            while (true) {
+                if (!changed(watchService.take(), fileName))
+                    continue;
+                // Waits until the file is written completely, events of other files in the directory don't delay the reload
+                long deadline = System.nanoTime() + debounceNanos;
+                long remaining;
+                while ((remaining = deadline - System.nanoTime()) > 0) {
+                    WatchKey key = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (key != null && changed(key, fileName))
+                        deadline = System.nanoTime() + debounceNanos;
+                }
+                try {
+                    reload();
+                } catch (ConfigurateException e) {
+                    errorHandler.accept(e);
+                } catch (RuntimeException e) {
+                    errorHandler.accept(new ConfigurateException(e));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private static boolean changed(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context()))
+                changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+import io.leangen.geantyref.GenericTypeReflector;
+
+/**
+ * Declared methods and direct superinterfaces of an interface, resolved against its type arguments.
+ *
+ * <p>Resolved once per interface and type arguments, and shared by every interface that extends it,
+ * so deep and diamond hierarchies resolve each parent once. Results of discoverer filters are memoized per method too.</p>
+ */
+final class ResolvedInterface {
+
+    private static final ClassValue<Map<List<Object>, ResolvedInterface>> RESOLVED =
+            new ClassValue<Map<List<Object>, ResolvedInterface>>() {
+                @Override
+                protected Map<List<Object>, ResolvedInterface> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+    private final AnnotatedType type;
+    private final List<ResolvedMethod> methods;
+    private final List<AnnotatedType> superInterfaces;
+    private final Map<DiscoveryCache.Configuration, Boolean[]> ignored = new ConcurrentHashMap<>();
+
+    private ResolvedInterface(AnnotatedType type) {
+        this.type = type;
+        Class<?> clazz = GenericTypeReflector.erase(type.getType());
+        Method[] declaredMethods = clazz.getDeclaredMethods();
+        List<ResolvedMethod> methods = new ArrayList<>(declaredMethods.length);
+        for (Method method : declaredMethods)
+            methods.add(new ResolvedMethod(method, type));
+        this.methods = Collections.unmodifiableList(methods);
+        List<AnnotatedType> superInterfaces = new ArrayList<>();
+        for (Class<?> superInterface : clazz.getInterfaces())
+            superInterfaces.add(GenericTypeReflector.getExactSuperType(type, superInterface));
+        this.superInterfaces = Collections.unmodifiableList(superInterfaces);
+    }
+
+    static ResolvedInterface of(AnnotatedType type) {
+        Class<?> clazz = GenericTypeReflector.erase(type.getType());
+        if (!DiscoveryCache.cacheable(clazz, type.getType()))
+            return new ResolvedInterface(type);
+        Map<List<Object>, ResolvedInterface> resolved = RESOLVED.get(clazz);
+        List<Object> key = Arrays.asList(type.getType(), Arrays.asList(type.getAnnotations()));
+        ResolvedInterface resolvedInterface = resolved.get(key);
+        if (resolvedInterface != null)
+            return resolvedInterface;
+        resolvedInterface = new ResolvedInterface(type);
+        ResolvedInterface existing = resolved.putIfAbsent(key, resolvedInterface);
+        return existing == null ? resolvedInterface : existing;
+    }
+
+    /**
+     * Returns the interface followed by all of its superinterfaces, depth-first, each one only once.
+     *
+     * @param type Interface to resolve hierarchy of.
+     * @return Resolved interfaces of the hierarchy.
+     */
+    static List<ResolvedInterface> hierarchy(AnnotatedType type) {
+        List<ResolvedInterface> hierarchy = new ArrayList<>();
+        collectHierarchy(of(type), hierarchy, new HashSet<>());
+        return hierarchy;
+    }
+
+    private static void collectHierarchy(ResolvedInterface resolved, List<ResolvedInterface> hierarchy, Set<Class<?>> visited) {
+        // Interface can't be inherited with different type arguments, so erased class identifies it in the hierarchy
+        if (!visited.add(GenericTypeReflector.erase(resolved.type.getType())))
+            return;
+        hierarchy.add(resolved);
+        for (AnnotatedType superInterface : resolved.superInterfaces)
+            collectHierarchy(of(superInterface), hierarchy, visited);
+    }
+
+    AnnotatedType type() {
+        return type;
+    }
+
+    List<ResolvedMethod> methods() {
+        return methods;
+    }
+
+    /**
+     * Returns whether the method is ignored by the filters of the configuration, testing it only on the first call.
+     *
+     * @param configuration Configuration of the filters.
+     * @param index Index of the method in {@link #methods()}.
+     * @param filters Filters of the configuration.
+     * @return Whether the method is ignored.
+     */
+    boolean ignored(DiscoveryCache.Configuration configuration, int index, BiPredicate<Method, AnnotatedType> filters) {
+        Class<?> clazz = GenericTypeReflector.erase(type.getType());
+        if (!DiscoveryCache.cacheable(clazz, configuration))
+            return filters.test(methods.get(index).method, type);
+        Boolean[] results = ignored.computeIfAbsent(configuration, key -> new Boolean[methods.size()]);
+        // Racy, but results are canonical Boolean instances, so a concurrent call only tests the method again
+        Boolean result = results[index];
+        if (result == null) {
+            result = filters.test(methods.get(index).method, type);
+            results[index] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Declared method with its return and parameter types resolved against type arguments of the interface.
+     */
+    static final class ResolvedMethod {
+
+        private final Method method;
+        private final AnnotatedType returnType;
+        private final MethodAdapter signature;
+
+        private ResolvedMethod(Method method, AnnotatedType declaringType) {
+            this.method = method;
+            this.returnType = GenericTypeReflector.getReturnType(method, declaringType);
+            this.signature = new MethodAdapter(method.getName(), returnType.getType(),
+                    GenericTypeReflector.getParameterTypes(method, declaringType.getType()));
+        }
+
+        Method method() {
+            return method;
+        }
+
+        AnnotatedType returnType() {
+            return returnType;
+        }
+
+        MethodAdapter signature() {
+            return signature;
+        }
+
+    }
+
+}
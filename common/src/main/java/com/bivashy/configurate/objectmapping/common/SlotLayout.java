@@ -0,0 +1,67 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+/**
+ * Slot layout built from the methods collected by {@link InterfaceMethodDiscoverer}, in discovery order.
+ */
+final class SlotLayout implements ProxySlotLayout {
+
+    private final Class<?> type;
+    private final Method[] methods;
+    private final Map<Method, Integer> slots = new HashMap<>();
+    // Same method can be reported by getMethods() with another declaring class, so slots are also looked up by signature
+    private final Map<String, Integer> signatureSlots = new HashMap<>();
+    private final Map<String, Integer> nameSlots = new HashMap<>();
+
+    SlotLayout(Class<?> type, List<Method> methods) {
+        this.type = type;
+        this.methods = methods.toArray(new Method[0]);
+        for (int i = 0; i < this.methods.length; i++) {
+            Method method = this.methods[i];
+            slots.put(method, i);
+            signatureSlots.putIfAbsent(signature(method), i);
+            nameSlots.putIfAbsent(method.getName(), i);
+        }
+    }
+
+    @Override
+    public Class<?> type() {
+        return type;
+    }
+
+    @Override
+    public int size() {
+        return methods.length;
+    }
+
+    @Override
+    public int slot(Method method) {
+        Integer slot = slots.get(method);
+        if (slot == null)
+            slot = signatureSlots.get(signature(method));
+        return slot == null ? -1 : slot;
+    }
+
+    @Override
+    public int slot(String name) {
+        Integer slot = nameSlots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    @Override
+    public Method method(int slot) {
+        return methods[slot];
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.toString(method.getParameterTypes());
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.util.function.Supplier;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+/**
+ * Read-only slots of an instance in a single version of a {@link VersionedTree}, nested instances of the tree are read
+ * from the same version.
+ */
+final class SnapshotSlots extends InstanceSlots {
+
+    private final VersionedTree.Snapshot snapshot;
+    private final ProxySlotLayout layout;
+    private final int index;
+
+    SnapshotSlots(VersionedTree.Snapshot snapshot, ProxySlotLayout layout, int index) {
+        this.snapshot = snapshot;
+        this.layout = layout;
+        this.index = index;
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public Object get(int slot) {
+        return snapshot.value(index, slot);
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        throw new UnsupportedOperationException("Snapshot of " + layout.type().getName() + " is read-only");
+    }
+
+    // Shared with instances reading the same version, the values are the same
+    @Override
+    public <T> T attachment(Object key, Supplier<T> factory) {
+        return snapshot.state(index).attachment(key, factory);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Slots of a staged copy of an instance of a {@link VersionedTree}, written to by a mutator of an update.
+ * Values are copied from a single version, nested instances of the tree are read as staged copies too.
+ *
+ * <p>Slots written to are {@link #markDirty(int) marked}, the update publishes only them.</p>
+ */
+final class StagedSlots extends InstanceSlots {
+
+    private final VersionedTree.Transaction transaction;
+    private final VersionedSlots target;
+    private final Object[] values;
+
+    StagedSlots(VersionedTree.Transaction transaction, VersionedSlots target, ProxySlots state) {
+        this.transaction = transaction;
+        this.target = target;
+        this.values = new Object[state.layout().size()];
+        for (int slot = 0; slot < values.length; slot++)
+            values[slot] = state.get(slot);
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return target.layout();
+    }
+
+    @Override
+    public Object get(int slot) {
+        return transaction.value(values[slot]);
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        values[slot] = value;
+        markDirty(slot);
+    }
+
+    VersionedSlots target() {
+        return target;
+    }
+
+    /**
+     * @param slot The slot ordinal.
+     * @return Value of the slot, nested instances of the tree are not staged.
+     */
+    Object stored(int slot) {
+        return values[slot];
+    }
+
+}
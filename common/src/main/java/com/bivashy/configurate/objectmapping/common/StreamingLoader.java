@@ -0,0 +1,117 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.util.CheckedFunction;
+
+/**
+ * Loader of config interfaces from a top-level JSON array or object, which builds and maps the node tree of one element at a time.
+ * Memory use is bounded by the largest element instead of the whole file.
+ *
+ * <pre>{@code
+ * StreamingLoader<Item> loader = factory.streaming(Item.class, options);
+ * try (Stream<Item> items = loader.stream(Paths.get("items.json"))) {
+ *     items.filter(Item::enabled).forEach(registry::register);
+ * }
+ * }</pre>
+ *
+ * <p>Elements of an array are keyed by their index and elements of an object by their key, so {@code @NodeKey} methods and
+ * paths of errors point to the element. Malformed input and invalid elements throw {@link UncheckedIOException} with a
+ * {@link org.spongepowered.configurate.loader.ParsingException} or a {@link SerializationException} as its cause.</p>
+ *
+ * @param <T> Type of the config interface.
+ * @see InterfaceObjectMapperFactory#streaming(Class, ConfigurationOptions)
+ */
+public final class StreamingLoader<T> {
+
+    private final Class<T> type;
+    private final ConfigurationOptions options;
+    private final CheckedFunction<ConfigurationNode, Object, SerializationException> loader;
+
+    StreamingLoader(InterfaceObjectMapperFactory factory, Class<T> type, ConfigurationOptions options) throws SerializationException {
+        this.type = type;
+        this.options = options;
+        this.loader = factory.loader(type);
+    }
+
+    /**
+     * Streams elements of the JSON file, the file is closed together with the stream.
+     *
+     * @param path JSON file encoded in UTF-8.
+     * @return Sequential stream of the elements.
+     * @throws IOException If the file cannot be opened.
+     */
+    public Stream<T> stream(Path path) throws IOException {
+        return stream(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streams elements of the JSON source, the reader is closed together with the stream.
+     *
+     * @param reader JSON source.
+     * @return Sequential stream of the elements.
+     */
+    public Stream<T> stream(Reader reader) {
+        JsonStreamReader elements = new JsonStreamReader(reader, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Elements(elements),
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+            try {
+                elements.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private final class Elements implements Iterator<T> {
+
+        private final JsonStreamReader reader;
+        private @Nullable T next;
+
+        Elements(JsonStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null)
+                next = read();
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            T element = next;
+            next = null;
+            return element;
+        }
+
+        private @Nullable T read() {
+            try {
+                ConfigurationNode node = reader.next();
+                return node != null ? type.cast(loader.apply(node)) : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import static io.leangen.geantyref.GenericTypeReflector.erase;
+
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import io.leangen.geantyref.GenericTypeReflector;
+
+/**
+ * Types of polymorphic values, written to the {@code __class__} key of their nodes.
+ *
+ * <p>Values of abstract classes always have their type in the key. Values of config interfaces have it only if the registry is
+ * built with {@link Builder#polymorphicInterfaces()}, otherwise they are loaded as the declared interface.</p>
+ *
+ * <p>Types with an alias are written as their alias, other types as their class names.
+ * Class names are resolved from the class loader of the declared type once, and whether the resolved type extends
+ * the declared type is checked once per pair of types.</p>
+ *
+ * <pre>{@code
+ * TypeRegistry registry = TypeRegistry.builder()
+ *         .alias("item", ItemReward.class)
+ *         .alias("money", MoneyReward.class)
+ *         .polymorphicInterfaces()
+ *         .build();
+ * builder.register(InterfaceObjectMapperFactory::applicable, new InterfaceObjectMapperFactory().typeRegistry(registry));
+ * }</pre>
+ */
+public final class TypeRegistry {
+
+    private static final TypeRegistry DEFAULTS = builder().build();
+    // Names resolved from the class loader of the declared type, released together with it
+    private static final ClassValue<Map<String, Class<?>>> RESOLVED_NAMES = new ClassValue<Map<String, Class<?>>>() {
+        @Override
+        protected Map<String, Class<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final ClassValue<Map<Type, Boolean>> SUPERTYPES = new ClassValue<Map<Type, Boolean>>() {
+        @Override
+        protected Map<Type, Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    // Instances of config interfaces are proxies or generated classes, they are mapped as the interface they implement
+    private static final ClassValue<Class<?>> MAPPED_TYPES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            Class<?>[] interfaces = type.getInterfaces();
+            if (interfaces.length == 1 && (Proxy.isProxyClass(type) || GeneratedInstance.class.isAssignableFrom(type)))
+                return interfaces[0];
+            return type;
+        }
+    };
+    private final Map<String, Class<?>> types;
+    private final Map<Class<?>, String> aliases;
+    private final boolean polymorphicInterfaces;
+
+    private TypeRegistry(Builder builder) {
+        this.types = Collections.unmodifiableMap(new HashMap<>(builder.types));
+        this.aliases = Collections.unmodifiableMap(new HashMap<>(builder.aliases));
+        this.polymorphicInterfaces = builder.polymorphicInterfaces;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns registry without aliases, types of abstract classes are written as their class names.
+     *
+     * @return Registry without aliases.
+     */
+    public static TypeRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return Whether values of config interfaces are resolved and written with their type, see {@link Builder#polymorphicInterfaces()}.
+     */
+    public boolean polymorphicInterfaces() {
+        return polymorphicInterfaces;
+    }
+
+    /**
+     * Resolves type configured by the {@code __class__} key.
+     *
+     * @param node Node of the value.
+     * @param type Declared type of the value.
+     * @param name Alias or class name of the configured type.
+     * @return Configured type.
+     * @throws SerializationException If the configured type is unknown or it doesn't extend the declared type.
+     */
+    public Class<?> resolve(ConfigurationNode node, Type type, String name) throws SerializationException {
+        Class<?> configuredType = types.get(name);
+        if (configuredType == null)
+            configuredType = forName(node, type, name);
+        if (!isSubtype(type, configuredType))
+            throw new SerializationException(node, type, "Configured type " + name + " does not extend " + erase(type).getCanonicalName());
+        return configuredType;
+    }
+
+    /**
+     * Returns value of the {@code __class__} key of the type.
+     *
+     * @param type Mapped type of a value, see {@link #mappedType(Class)}.
+     * @return Alias of the type, or its class name if it has no alias.
+     */
+    public String discriminator(Class<?> type) {
+        String alias = aliases.get(type);
+        return alias != null ? alias : type.getName();
+    }
+
+    /**
+     * Returns type that instances of the class are mapped as, this is the config interface for its proxies and generated
+     * implementations, and the class itself otherwise.
+     *
+     * @param instanceClass Class of an instance.
+     * @return Mapped type of the instances.
+     */
+    public static Class<?> mappedType(Class<?> instanceClass) {
+        return MAPPED_TYPES.get(instanceClass);
+    }
+
+    private static Class<?> forName(ConfigurationNode node, Type type, String name) throws SerializationException {
+        Class<?> rawType = erase(type);
+        Map<String, Class<?>> resolvedNames = RESOLVED_NAMES.get(rawType);
+        Class<?> resolved = resolvedNames.get(name);
+        if (resolved != null)
+            return resolved;
+        try {
+            resolved = Class.forName(name, false, rawType.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            try {
+                // Class loader of this library, as class names were resolved before
+                resolved = Class.forName(name);
+            } catch (ClassNotFoundException ex) {
+                throw new SerializationException(node, type, "Unknown class of object " + name, ex);
+            }
+        }
+        if (DiscoveryCache.cacheable(rawType, resolved))
+            resolvedNames.putIfAbsent(name, resolved);
+        return resolved;
+    }
+
+    private static boolean isSubtype(Type type, Class<?> subtype) {
+        if (!DiscoveryCache.cacheable(subtype, type))
+            return GenericTypeReflector.isSuperType(type, subtype);
+        Map<Type, Boolean> supertypes = SUPERTYPES.get(subtype);
+        Boolean subtypeOf = supertypes.get(type);
+        if (subtypeOf == null) {
+            subtypeOf = GenericTypeReflector.isSuperType(type, subtype);
+            supertypes.putIfAbsent(type, subtypeOf);
+        }
+        return subtypeOf;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Class<?>> types = new HashMap<>();
+        private final Map<Class<?>, String> aliases = new HashMap<>();
+        private boolean polymorphicInterfaces;
+
+        private Builder() {
+        }
+
+        /**
+         * Registers alias of the type, written instead of its class name. Class name of the type is still accepted.
+         *
+         * @param alias Alias of the type.
+         * @param type Type of polymorphic values.
+         * @return This builder.
+         * @throws IllegalArgumentException If the alias or the type already has another registration.
+         */
+        public Builder alias(String alias, Class<?> type) {
+            Class<?> registeredType = types.get(alias);
+            String registeredAlias = aliases.get(type);
+            if ((registeredType != null && registeredType != type) || (registeredAlias != null && !registeredAlias.equals(alias)))
+                throw new IllegalArgumentException("Alias '" + alias + "' or type " + type.getName() + " is already registered");
+            types.put(alias, type);
+            aliases.put(type, alias);
+            return this;
+        }
+
+        /**
+         * Resolves values of config interfaces by the {@code __class__} key too, and writes it for instances of a config interface
+         * that extends the declared one. Nodes of config interfaces are not checked for the key otherwise.
+         *
+         * @return This builder.
+         */
+        public Builder polymorphicInterfaces() {
+            this.polymorphicInterfaces = true;
+            return this;
+        }
+
+        public TypeRegistry build() {
+            return new TypeRegistry(this);
+        }
+
+    }
+
+}
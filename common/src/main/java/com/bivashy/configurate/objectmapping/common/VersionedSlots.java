@@ -0,0 +1,96 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+/**
+ * Slots of an instance of a {@link VersionedTree}, which read the state of the instance in the current version of the tree.
+ *
+ * <p>Attachments belong to the state, so cached results and hash codes are discarded with it.</p>
+ *
+ * <p>Instance removed from the tree is detached before its index is reused, then it reads and writes its own state.</p>
+ */
+final class VersionedSlots extends InstanceSlots {
+
+    private static final AtomicReferenceFieldUpdater<VersionedSlots, VersionedTree.State> DETACHED =
+            AtomicReferenceFieldUpdater.newUpdater(VersionedSlots.class, VersionedTree.State.class, "detached");
+
+    private final VersionedTree tree;
+    private final ProxyInstanceFactory instanceFactory;
+    private final int index;
+    // Instance of the tree that holds this instance, -1 for the root
+    private final int parentIndex;
+    private final int parentSlot;
+    private volatile VersionedTree.@Nullable State detached;
+
+    VersionedSlots(VersionedTree tree, ProxyInstanceFactory instanceFactory, int index, int parentIndex, int parentSlot) {
+        this.tree = tree;
+        this.instanceFactory = instanceFactory;
+        this.index = index;
+        this.parentIndex = parentIndex;
+        this.parentSlot = parentSlot;
+    }
+
+    @Override
+    public ProxySlotLayout layout() {
+        return instanceFactory.layout();
+    }
+
+    @Override
+    public Object get(int slot) {
+        return tree.state(this).get(slot);
+    }
+
+    @Override
+    public void set(int slot, Object value) {
+        tree.set(this, slot, value);
+        markDirty(slot);
+    }
+
+    @Override
+    public <T> T attachment(Object key, Supplier<T> factory) {
+        return tree.state(this).attachment(key, factory);
+    }
+
+    VersionedTree tree() {
+        return tree;
+    }
+
+    ProxyInstanceFactory instanceFactory() {
+        return instanceFactory;
+    }
+
+    /**
+     * @return Index of the state of the instance in versions of the tree.
+     */
+    int index() {
+        return index;
+    }
+
+    /**
+     * @return Index of the instance that holds this instance in its slot, or {@code -1} if this instance is the root of the tree.
+     */
+    int parentIndex() {
+        return parentIndex;
+    }
+
+    int parentSlot() {
+        return parentSlot;
+    }
+
+    /**
+     * @return State of the instance since it was removed from the tree, or {@code null} if it wasn't detached yet.
+     */
+    VersionedTree.@Nullable State detached() {
+        return detached;
+    }
+
+    boolean detach(VersionedTree.@Nullable State expected, VersionedTree.State state) {
+        return DETACHED.compareAndSet(this, expected, state);
+    }
+
+}
@@ -0,0 +1,778 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.objectmapping.FieldData;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.util.Types;
+
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+import io.leangen.geantyref.GenericTypeReflector;
+
+/**
+ * Instances of config interfaces nested in each other, whose states are published together.
+ *
+ * <p>A version of the tree is a persistent array of immutable states, one per instance. Instances read their state from the current
+ * version by a single volatile read. Writes copy the state of the written instance and the nodes of the version on the path to it,
+ * other nodes are shared with the previous version, then publish the copy by compare-and-set,
+ * so concurrent writers retry instead of blocking and readers never see a partially published version.
+ * A {@link Snapshot} keeps a single version, nested instances of the snapshot read the same version.
+ * A {@link Transaction} stages writes to many instances on a single version and publishes them as one version.</p>
+ *
+ * <p>Collections and maps are shared between versions, config interfaces in them are not a part of the tree.</p>
+ *
+ * <p>Listeners of values are notified after a version is published. Only states replaced by the version are compared,
+ * states of unchanged instances are kept by reference, so the cost depends on the size of the change.
+ * States of instances holding a replaced state are replaced too, so their attachments never outlive values of nested instances.</p>
+ *
+ * <p>Nested instances replaced by a write are removed from the tree, later versions reuse their indices, so the size of a version
+ * is bounded by the size of the tree. Before its index is reused, a removed instance is detached with its last state,
+ * it keeps its values but doesn't publish versions anymore.</p>
+ */
+final class VersionedTree {
+
+    private static final AtomicReferenceFieldUpdater<VersionedTree, Version> VERSION =
+            AtomicReferenceFieldUpdater.newUpdater(VersionedTree.class, Version.class, "version");
+    private final InterfaceMethodDiscoverer discoverer;
+    private final ObjectMapper.Factory mappers;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // States of every instance of the tree by their index
+    private volatile Version version = Version.EMPTY;
+
+    private VersionedTree(InterfaceMethodDiscoverer discoverer, ObjectMapper.Factory mappers) {
+        this.discoverer = discoverer;
+        this.mappers = mappers;
+    }
+
+    /**
+     * Copies the instance and config interfaces nested in it into a new tree.
+     *
+     * @param discoverer Discoverer of instance factories of the config interfaces.
+     * @param mappers Object mappers of the config interfaces, their constraints are checked by updates.
+     * @param value Instance to copy.
+     * @return Root instance of the tree, or the value if it isn't an instance of a config interface of the discoverer.
+     */
+    static @Nullable Object copyOf(InterfaceMethodDiscoverer discoverer, ObjectMapper.Factory mappers, @Nullable Object value) {
+        if (ProxyInstances.slots(value) == null)
+            return value;
+        VersionedTree tree = new VersionedTree(discoverer, mappers);
+        Draft draft = tree.new Draft(Version.EMPTY);
+        Object root = tree.wrap(value, draft, -1, -1);
+        tree.version = draft.version();
+        return root;
+    }
+
+    /**
+     * @param slots Slots of an instance of the tree.
+     * @return State of the instance in the current version, or its detached state if it was removed from the tree.
+     */
+    State state(VersionedSlots slots) {
+        State detached = slots.detached();
+        if (detached != null)
+            return detached;
+        State state = version.get(slots.index());
+        // Removed instance is detached before its index is reused
+        return state.owner == slots ? state : slots.detached();
+    }
+
+    /**
+     * Publishes new version with the value of the slot replaced, instances of config interfaces are copied into the tree.
+     *
+     * @param target Slots of the written instance.
+     * @param slot The slot ordinal.
+     * @param value New value of the slot.
+     */
+    void set(VersionedSlots target, int slot, @Nullable Object value) {
+        while (true) {
+            Version current = version;
+            if (!live(current, target)) {
+                setDetached(target, slot, value);
+                return;
+            }
+            Draft draft = new Draft(current);
+            State previous = current.get(target.index());
+            Object[] values = previous.values.clone();
+            values[slot] = wrap(value, draft, target.index(), slot);
+            draft.replaced(previous.values[slot], values[slot]);
+            draft.set(target.index(), new State(target, values));
+            if (publish(current, draft))
+                return;
+        }
+    }
+
+    private void setDetached(VersionedSlots target, int slot, @Nullable Object value) {
+        while (true) {
+            State detached = target.detached();
+            State state = detached != null ? detached : version.get(target.index());
+            // Index was reused meanwhile, so the instance is detached now
+            if (state.owner != target)
+                continue;
+            Object[] values = state.values.clone();
+            values[slot] = value;
+            if (target.detach(detached, new State(target, values, true)))
+                return;
+        }
+    }
+
+    /**
+     * Publishes new version with values of the instance replaced by values of the loaded one,
+     * nested instances of the same config interfaces are kept and their values are replaced too.
+     *
+     * @param target Slots of the replaced instance.
+     * @param loaded Slots of the loaded instance of the same layout.
+     */
+    void replace(VersionedSlots target, ProxySlots loaded) {
+        while (true) {
+            Version current = version;
+            Draft draft = new Draft(current);
+            adopt(target, current.get(target.index()), loaded, draft);
+            if (publish(current, draft))
+                return;
+        }
+    }
+
+    /**
+     * Calls the mutator on a staged copy of the instance, then publishes values it wrote, including values of nested instances,
+     * as a single version. Constraints of written values are checked once, before the version is published.
+     * If another version was published meanwhile, the mutator is called again on a copy of it.
+     *
+     * @param target Slots of the updated instance.
+     * @param mutator Writes values of the staged copy, may be called more than once.
+     * @throws SerializationException If some written value doesn't pass constraints of its field, nothing is published.
+     * @throws IllegalArgumentException If the instance was removed from the tree.
+     */
+    void update(VersionedSlots target, Consumer<Object> mutator) throws SerializationException {
+        while (true) {
+            Version current = version;
+            checkLive(current, target);
+            Transaction transaction = new Transaction(current);
+            mutator.accept(transaction.instance(target));
+            Map<StagedSlots, BitSet> written = transaction.written();
+            if (written.isEmpty())
+                return;
+            validate(written);
+            Draft draft = new Draft(current);
+            for (Map.Entry<StagedSlots, BitSet> entry : written.entrySet()) {
+                VersionedSlots owner = entry.getKey().target();
+                State previous = draft.get(owner.index());
+                // Written instance was replaced by a write to the instance holding it
+                if (previous.removed)
+                    continue;
+                Object[] values = previous.values.clone();
+                BitSet slots = entry.getValue();
+                for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                    values[slot] = wrap(entry.getKey().stored(slot), draft, owner.index(), slot);
+                    draft.replaced(previous.values[slot], values[slot]);
+                }
+                if (!previous.sameValues(values))
+                    draft.set(owner.index(), new State(owner, values));
+            }
+            if (publish(current, draft)) {
+                for (Map.Entry<StagedSlots, BitSet> entry : written.entrySet()) {
+                    BitSet slots = entry.getValue();
+                    for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1))
+                        entry.getKey().target().markDirty(slot);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param slots Slots of an instance of the tree.
+     * @return Read-only instance that reads the current version of the tree.
+     * @throws IllegalArgumentException If the instance was removed from the tree.
+     */
+    Object snapshot(VersionedSlots slots) {
+        Version current = version;
+        checkLive(current, slots);
+        return new Snapshot(current).instance(slots);
+    }
+
+    /**
+     * Registers listener of a value of the instance, notified once per published version that changes the value.
+     *
+     * @param target Slots of the instance.
+     * @param path Slots of the value, starting at the instance and continuing in nested instances.
+     * @param listener Receives snapshots of the instance before and after the change.
+     * @throws IllegalArgumentException If the instance was removed from the tree.
+     */
+    void listen(VersionedSlots target, int[] path, BiConsumer<Object, Object> listener) {
+        checkLive(version, target);
+        listeners.add(new Listener(target, path, listener));
+    }
+
+    /**
+     * Records stored values called by the accessor on a recording instance.
+     *
+     * @param layout Layout of the instance the accessor is called on.
+     * @param accessor Accessor of a value, for example {@code root -> root.database().url()}.
+     * @return Slots of the last called value, starting at the instance.
+     * @throws IllegalArgumentException If the accessor calls methods that are not accessors of stored values.
+     */
+    int[] record(ProxySlotLayout layout, Function<Object, ?> accessor) {
+        List<Integer> recorded = new ArrayList<>();
+        accessor.apply(recorder(layout, new ArrayList<>(), recorded));
+        if (recorded.isEmpty())
+            throw new IllegalArgumentException("Accessor of " + layout.type().getName() + " doesn't call any method of a stored value");
+        int[] path = new int[recorded.size()];
+        for (int i = 0; i < path.length; i++)
+            path[i] = recorded.get(i);
+        return path;
+    }
+
+    private boolean publish(Version current, Draft draft) {
+        Version next = draft.version();
+        if (!VERSION.compareAndSet(this, current, next))
+            return false;
+        if (!listeners.isEmpty())
+            notifyListeners(current, next, draft);
+        return true;
+    }
+
+    private void validate(Map<StagedSlots, BitSet> written) throws SerializationException {
+        SerializationException failure = null;
+        for (Map.Entry<StagedSlots, BitSet> entry : written.entrySet()) {
+            StagedSlots staged = entry.getKey();
+            ProxySlotLayout layout = staged.layout();
+            List<? extends FieldData<?, ?>> fields = mappers.get(layout.type()).fields();
+            if (fields.size() != layout.size())
+                throw new SerializationException(layout.type(), "Fields of the object mapper don't match methods of the interface");
+            BitSet slots = entry.getValue();
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                try {
+                    fields.get(slot).validate(staged.stored(slot));
+                } catch (SerializationException e) {
+                    e.initType(fields.get(slot).resolvedType().getType());
+                    if (failure == null)
+                        failure = e;
+                    else
+                        failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    private void notifyListeners(Version previous, Version next, Draft draft) {
+        Changes changes = new Changes(previous, next, draft.touched, draft.touchedCount);
+        if (changes.isEmpty())
+            return;
+        Snapshot before = new Snapshot(previous);
+        Snapshot after = new Snapshot(next);
+        for (Listener listener : listeners) {
+            // Listeners of removed instances are not notified anymore
+            if (live(next, listener.target) && changes.affects(listener.target.index(), listener.path))
+                listener.callback.accept(before.instance(listener.target), after.instance(listener.target));
+        }
+    }
+
+    private @Nullable Object wrap(@Nullable Object value, Draft draft, int parentIndex, int parentSlot) {
+        ProxySlots slots = ProxyInstances.slots(value);
+        if (slots == null)
+            return value;
+        // Instance stays in its own slot, instances moved to other slots or removed are copied to keep the tree a tree
+        if (slots instanceof VersionedSlots && draft.live((VersionedSlots) slots) &&
+                ((VersionedSlots) slots).parentIndex() == parentIndex && ((VersionedSlots) slots).parentSlot() == parentSlot)
+            return value;
+        ProxyInstanceFactory instanceFactory = instanceFactory(slots.layout().type());
+        if (instanceFactory == null || instanceFactory.layout() != slots.layout())
+            return value;
+        VersionedSlots versioned = new VersionedSlots(this, instanceFactory, draft.allocate(), parentIndex, parentSlot);
+        adopt(versioned, null, slots, draft);
+        return instanceFactory.createInstance(versioned);
+    }
+
+    private void adopt(VersionedSlots target, @Nullable State previous, ProxySlots loaded, Draft draft) {
+        Object[] values = new Object[loaded.layout().size()];
+        for (int slot = 0; slot < values.length; slot++) {
+            Object value = loaded.get(slot);
+            Object previousValue = previous != null ? previous.values[slot] : null;
+            VersionedSlots previousSlots = nested(previousValue);
+            ProxySlots valueSlots = ProxyInstances.slots(value);
+            if (previousSlots != null && valueSlots != null && valueSlots.layout() == previousSlots.layout()) {
+                adopt(previousSlots, draft.get(previousSlots.index()), valueSlots, draft);
+                values[slot] = previousValue;
+                continue;
+            }
+            values[slot] = wrap(value, draft, target.index(), slot);
+            draft.replaced(previousValue, values[slot]);
+        }
+        // Unchanged state is kept with its attachments, such as cached results, unless states nested in it are replaced
+        if (previous == null || !previous.sameValues(values))
+            draft.set(target.index(), new State(target, values));
+    }
+
+    private @Nullable VersionedSlots nested(@Nullable Object value) {
+        ProxySlots slots = ProxyInstances.slots(value);
+        return slots instanceof VersionedSlots && ((VersionedSlots) slots).tree() == this ? (VersionedSlots) slots : null;
+    }
+
+    private static boolean live(Version version, VersionedSlots slots) {
+        State state = version.get(slots.index());
+        return state.owner == slots && !state.removed;
+    }
+
+    private static void checkLive(Version version, VersionedSlots slots) {
+        if (!live(version, slots))
+            throw new IllegalArgumentException("Instance of " + slots.layout().type().getName() + " was removed from its config");
+    }
+
+    private @Nullable ProxyInstanceFactory instanceFactory(Class<?> type) {
+        if (!type.isInterface() || !InterfaceObjectMapperFactory.applicable(type))
+            return null;
+        return discoverer.instanceFactory(GenericTypeReflector.annotate(type));
+    }
+
+    private Object recorder(ProxySlotLayout layout, List<Integer> path, List<Integer> recorded) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            int slot = layout.slot(method);
+            if (slot == -1 || method.getParameterCount() != 0)
+                throw new IllegalArgumentException("Method '" + method.toGenericString() + "' is not an accessor of a stored value");
+            List<Integer> methodPath = new ArrayList<>(path);
+            methodPath.add(slot);
+            recorded.clear();
+            recorded.addAll(methodPath);
+            ProxyInstanceFactory nested = instanceFactory(method.getReturnType());
+            if (nested != null)
+                return recorder(nested.layout(), methodPath, recorded);
+            return defaultValue(method);
+        };
+        Class<?> clazz = layout.type();
+        return Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, handler);
+    }
+
+    private static @Nullable Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType.isPrimitive() && returnType != void.class ? Types.defaultValue(returnType) : null;
+    }
+
+    // Instances of the tree are compared by reference, their values are compared by their own states
+    private static boolean sameValue(@Nullable Object first, @Nullable Object second) {
+        if (first == second)
+            return true;
+        if (ProxyInstances.slots(first) instanceof VersionedSlots || ProxyInstances.slots(second) instanceof VersionedSlots)
+            return false;
+        return Objects.equals(first, second);
+    }
+
+    /**
+     * Immutable values of an instance in a version of the tree.
+     */
+    static final class State extends InstanceSlots {
+
+        private final VersionedSlots owner;
+        private final Object[] values;
+        // Removed states stay in versions until their index is reused
+        private final boolean removed;
+
+        State(VersionedSlots owner, Object[] values) {
+            this(owner, values, false);
+        }
+
+        State(VersionedSlots owner, Object[] values, boolean removed) {
+            this.owner = owner;
+            this.values = values;
+            this.removed = removed;
+        }
+
+        @Override
+        public ProxySlotLayout layout() {
+            return owner.layout();
+        }
+
+        @Override
+        public Object get(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        public void set(int slot, Object value) {
+            throw new UnsupportedOperationException("State of a version is immutable");
+        }
+
+        boolean sameValues(Object[] other) {
+            for (int slot = 0; slot < values.length; slot++) {
+                if (!sameValue(values[slot], other[slot]))
+                    return false;
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Slots changed between two versions, and slots holding nested instances with changes.
+     * Only states set by the draft of the next version are compared.
+     */
+    private static final class Changes {
+
+        private final Version next;
+        private final Map<Integer, BitSet> changed = new HashMap<>();
+        private final Map<Integer, BitSet> nestedChanged = new HashMap<>();
+
+        Changes(Version previous, Version next, int[] touched, int touchedCount) {
+            this.next = next;
+            for (int i = 0; i < touchedCount; i++) {
+                int index = touched[i];
+                // Instances added by the version are values of changed slots
+                if (index >= previous.size() || changed.containsKey(index))
+                    continue;
+                State before = previous.get(index);
+                State after = next.get(index);
+                if (before == after)
+                    continue;
+                // Removed instances and instances that reuse their indices are values of changed slots
+                if (before.owner != after.owner || after.removed)
+                    continue;
+                BitSet slots = null;
+                for (int slot = 0; slot < before.values.length; slot++) {
+                    if (sameValue(before.values[slot], after.values[slot]))
+                        continue;
+                    if (slots == null)
+                        slots = new BitSet(before.values.length);
+                    slots.set(slot);
+                }
+                if (slots == null)
+                    continue;
+                changed.put(index, slots);
+                VersionedSlots owner = after.owner;
+                while (owner.parentIndex() != -1) {
+                    BitSet parentSlots = nestedChanged.computeIfAbsent(owner.parentIndex(), key -> new BitSet());
+                    if (parentSlots.get(owner.parentSlot()))
+                        break;
+                    parentSlots.set(owner.parentSlot());
+                    owner = next.get(owner.parentIndex()).owner;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return changed.isEmpty();
+        }
+
+        boolean affects(int index, int[] path) {
+            if (path.length == 0)
+                return changed.containsKey(index) || nestedChanged.containsKey(index);
+            int current = index;
+            for (int i = 0; i < path.length; i++) {
+                int slot = path[i];
+                BitSet slots = changed.get(current);
+                if (slots != null && slots.get(slot))
+                    return true;
+                BitSet nested = nestedChanged.get(current);
+                if (nested == null || !nested.get(slot))
+                    return false;
+                if (i == path.length - 1)
+                    return true;
+                ProxySlots value = ProxyInstances.slots(next.get(current).values[slot]);
+                if (!(value instanceof VersionedSlots))
+                    return false;
+                current = ((VersionedSlots) value).index();
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * Persistent array of states of every instance of the tree by their index, stored in a trie.
+     * The last element of a node is the draft that created it, published nodes are never written.
+     */
+    static final class Version {
+
+        private static final int BITS = 5;
+        private static final int WIDTH = 1 << BITS;
+        private static final int MASK = WIDTH - 1;
+        static final Version EMPTY = new Version(new Object[WIDTH + 1], 0, 0, null);
+        private final Object[] root;
+        private final int shift;
+        private final int size;
+        // Indices of removed states, reused by later versions
+        private final @Nullable FreeIndex free;
+
+        private Version(Object[] root, int shift, int size, @Nullable FreeIndex free) {
+            this.root = root;
+            this.shift = shift;
+            this.size = size;
+            this.free = free;
+        }
+
+        int size() {
+            return size;
+        }
+
+        State get(int index) {
+            return (State) leaf(root, shift, index)[index & MASK];
+        }
+
+        private static Object[] leaf(Object[] root, int shift, int index) {
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS)
+                node = (Object[]) node[index >>> level & MASK];
+            return node;
+        }
+
+    }
+
+    private static final class FreeIndex {
+
+        private final int index;
+        private final @Nullable FreeIndex next;
+
+        FreeIndex(int index, @Nullable FreeIndex next) {
+            this.index = index;
+            this.next = next;
+        }
+
+    }
+
+    /**
+     * Next version of the tree, built from the current one. Nodes of the current version are copied on the first write to them,
+     * so the cost of a draft depends on the number of states it sets, not on the size of the tree.
+     */
+    private final class Draft {
+
+        private final Version current;
+        // Identity of nodes created by this draft, a small object so that published nodes don't keep the draft reachable
+        private final Object edit = new Object();
+        private Object[] root;
+        private int shift;
+        private int size;
+        // Removed states of the current version not reused yet, and states removed by this draft
+        private @Nullable FreeIndex reusable;
+        private @Nullable FreeIndex removed;
+        // Indices of set states, in order and possibly repeated
+        private int[] touched = new int[4];
+        private int touchedCount;
+
+        private Draft(Version current) {
+            this.current = current;
+            this.root = current.root;
+            this.shift = current.shift;
+            this.size = current.size;
+            this.reusable = current.free;
+        }
+
+        State get(int index) {
+            return (State) Version.leaf(root, shift, index)[index & Version.MASK];
+        }
+
+        void set(int index, @Nullable State state) {
+            root = copied(root);
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= Version.BITS) {
+                int child = index >>> level & Version.MASK;
+                Object[] childNode = (Object[]) node[child];
+                childNode = childNode == null ? node() : copied(childNode);
+                node[child] = childNode;
+                node = childNode;
+            }
+            node[index & Version.MASK] = state;
+            if (touchedCount == touched.length)
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            touched[touchedCount++] = index;
+        }
+
+        private Object[] node() {
+            Object[] node = new Object[Version.WIDTH + 1];
+            node[Version.WIDTH] = edit;
+            return node;
+        }
+
+        private Object[] copied(Object[] node) {
+            if (node[Version.WIDTH] == edit)
+                return node;
+            Object[] copy = node.clone();
+            copy[Version.WIDTH] = edit;
+            return copy;
+        }
+
+        boolean live(VersionedSlots slots) {
+            if (slots.tree() != VersionedTree.this || slots.index() >= size)
+                return false;
+            State state = get(slots.index());
+            return state != null && state.owner == slots && !state.removed;
+        }
+
+        /**
+         * Returns index for a new instance, its state should be {@link #set(int, State) set} before the draft is published.
+         * Indices of instances removed by previous versions are reused first.
+         */
+        int allocate() {
+            while (reusable != null) {
+                int index = reusable.index;
+                reusable = reusable.next;
+                State state = current.get(index);
+                if (state.removed && get(index) == state) {
+                    state.owner.detach(null, state);
+                    set(index, null);
+                    return index;
+                }
+            }
+            if (size == Version.WIDTH << shift) {
+                Object[] grown = node();
+                grown[0] = root;
+                root = grown;
+                shift += Version.BITS;
+            }
+            return size++;
+        }
+
+        /**
+         * Removes the previous value of a slot, with instances nested in it, if it is an instance of the tree replaced by the next value.
+         */
+        void replaced(@Nullable Object previous, @Nullable Object next) {
+            if (previous == next)
+                return;
+            VersionedSlots slots = nested(previous);
+            if (slots != null)
+                remove(slots.index());
+        }
+
+        private void remove(int index) {
+            State state = get(index);
+            if (state.removed)
+                return;
+            set(index, new State(state.owner, state.values, true));
+            removed = new FreeIndex(index, removed);
+            for (Object value : state.values) {
+                VersionedSlots slots = nested(value);
+                if (slots != null)
+                    remove(slots.index());
+            }
+        }
+
+        Version version() {
+            // Instances holding replaced states get new states, so their attachments aren't computed from previous nested values
+            for (int i = 0; i < touchedCount; i++) {
+                int index = touched[i];
+                State state = get(index);
+                if (state.removed || index < current.size && state == current.get(index))
+                    continue;
+                for (int parent = state.owner.parentIndex(); parent != -1 && parent < current.size; ) {
+                    State parentState = get(parent);
+                    if (parentState != current.get(parent))
+                        break;
+                    set(parent, new State(parentState.owner, parentState.values));
+                    parent = parentState.owner.parentIndex();
+                }
+            }
+            FreeIndex free = reusable;
+            for (FreeIndex index = removed; index != null; index = index.next)
+                free = new FreeIndex(index.index, free);
+            return new Version(root, shift, size, free);
+        }
+
+    }
+
+    private static final class Listener {
+
+        private final VersionedSlots target;
+        private final int[] path;
+        private final BiConsumer<Object, Object> callback;
+
+        Listener(VersionedSlots target, int[] path, BiConsumer<Object, Object> callback) {
+            this.target = target;
+            this.path = path;
+            this.callback = callback;
+        }
+
+    }
+
+    /**
+     * Staged copies of instances of a single version, created on their first read.
+     */
+    final class Transaction {
+
+        private final Version states;
+        private final Map<Integer, StagedSlots> staged = new LinkedHashMap<>();
+        private final Map<Integer, Object> instances = new HashMap<>();
+
+        private Transaction(Version states) {
+            this.states = states;
+        }
+
+        Object value(Object value) {
+            ProxySlots slots = ProxyInstances.slots(value);
+            if (slots instanceof VersionedSlots && ((VersionedSlots) slots).tree() == VersionedTree.this)
+                return instance((VersionedSlots) slots);
+            return value;
+        }
+
+        private Object instance(VersionedSlots slots) {
+            Object instance = instances.get(slots.index());
+            if (instance == null) {
+                StagedSlots stagedSlots = new StagedSlots(this, slots, states.get(slots.index()));
+                instance = slots.instanceFactory().createInstance(stagedSlots);
+                staged.put(slots.index(), stagedSlots);
+                instances.put(slots.index(), instance);
+            }
+            return instance;
+        }
+
+        private Map<StagedSlots, BitSet> written() {
+            Map<StagedSlots, BitSet> written = new LinkedHashMap<>();
+            for (StagedSlots stagedSlots : staged.values()) {
+                BitSet slots = stagedSlots.takeDirty();
+                if (slots != null)
+                    written.put(stagedSlots, slots);
+            }
+            return written;
+        }
+
+    }
+
+    /**
+     * Single version of the tree, its instances are created on their first read.
+     */
+    final class Snapshot {
+
+        private final Version states;
+        private final Map<Integer, Object> instances = new ConcurrentHashMap<>();
+
+        private Snapshot(Version states) {
+            this.states = states;
+        }
+
+        ProxySlots state(int index) {
+            return states.get(index);
+        }
+
+        Object value(int index, int slot) {
+            Object value = states.get(index).values[slot];
+            ProxySlots slots = ProxyInstances.slots(value);
+            if (slots instanceof VersionedSlots && ((VersionedSlots) slots).tree() == VersionedTree.this)
+                return instance((VersionedSlots) slots);
+            return value;
+        }
+
+        private Object instance(VersionedSlots slots) {
+            return instances.computeIfAbsent(slots.index(),
+                    index -> slots.instanceFactory().createInstance(new SnapshotSlots(this, slots.layout(), index)));
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.bivashy.configurate.objectmapping.common;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings of {@link InterfaceObjectMapperFactory#warmUp(java.util.Collection, java.util.concurrent.Executor)}.
+ */
+public final class WarmUpStats {
+
+    private final Map<Type, Duration> discoveryTimes;
+    private final Duration elapsed;
+
+    WarmUpStats(Map<Type, Duration> discoveryTimes, Duration elapsed) {
+        this.discoveryTimes = Collections.unmodifiableMap(new LinkedHashMap<>(discoveryTimes));
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns count of warmed up types, including nested config interfaces.
+     *
+     * @return Count of warmed up types.
+     */
+    public int types() {
+        return discoveryTimes.size();
+    }
+
+    /**
+     * Returns wall-clock time from the start of the warm-up to its completion.
+     *
+     * @return Elapsed time of the warm-up.
+     */
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns total time spent warming up types, summed over every task.
+     *
+     * <p>Exceeds {@link #elapsed()} when types were warmed up in parallel.</p>
+     *
+     * @return Total discovery time.
+     */
+    public Duration discoveryTime() {
+        return discoveryTimes.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * Returns time spent warming up each type, in order of completion.
+     *
+     * @return Discovery time of each type.
+     */
+    public Map<Type, Duration> discoveryTimes() {
+        return discoveryTimes;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpStats{types=" + types() + ", elapsed=" + elapsed + ", discoveryTime=" + discoveryTime() + "}";
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.bivashy.configurate.objectmapping.common.meta;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Cached;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+/**
+ * Results of {@link Cached} methods of a single instance, attached to its {@link ProxySlots}.
+ */
+final class CachedResults {
+
+    static final Object KEY = new Object();
+    private static final ClassValue<List<Method>> CACHED_METHODS = new ClassValue<List<Method>>() {
+        @Override
+        protected List<Method> computeValue(Class<?> type) {
+            List<Method> methods = new ArrayList<>();
+            for (Method method : type.getMethods()) {
+                if (isCached(method))
+                    methods.add(method);
+            }
+            return methods;
+        }
+    };
+    // Computations that are running on the current thread, innermost first
+    private static final ThreadLocal<Recorder> RECORDER = new ThreadLocal<>();
+    // Read without locking, computed and invalidated under the lock of this object
+    private final AtomicReferenceArray<Entry> entries;
+
+    private CachedResults(int size) {
+        this.entries = new AtomicReferenceArray<>(size);
+    }
+
+    static boolean isCached(Method method) {
+        return method.isDefault() && method.isAnnotationPresent(Cached.class) && method.isAnnotationPresent(Transient.class);
+    }
+
+    static List<Method> cachedMethods(Class<?> type) {
+        return CACHED_METHODS.get(type);
+    }
+
+    static Supplier<CachedResults> factory(int size) {
+        return () -> new CachedResults(size);
+    }
+
+    /**
+     * Records that the running computation of the proxy read the given slot.
+     * Changes inside nested config interfaces are not tracked, so results that read them are not cached.
+     */
+    static void recordRead(Object proxy, int slot, Object value) {
+        Recorder recorder = RECORDER.get();
+        if (recorder != null && recorder.proxy == proxy) {
+            recorder.reads.set(slot);
+            if (!recorder.nested && ProxyInstances.slots(value) != null)
+                recorder.nested = true;
+        }
+    }
+
+    Object get(int index, Object proxy, Object[] args, ProxySlots slots, ProxyMethodHandler computation)
+            throws ReflectiveOperationException {
+        Entry entry = entries.get(index);
+        if (entry == null) {
+            synchronized (this) {
+                entry = entries.get(index);
+                if (entry == null)
+                    entry = compute(index, proxy, args, slots, computation);
+            }
+        }
+        Recorder recorder = RECORDER.get();
+        // Outer computation depends on everything this result depends on
+        if (recorder != null && recorder.proxy == proxy) {
+            recorder.reads.or(entry.dependencies);
+            recorder.nested |= entry.nested;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Drops results that read the given slot.
+     */
+    synchronized void invalidate(int slot) {
+        for (int i = 0; i < entries.length(); i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.dependencies.get(slot))
+                entries.set(i, null);
+        }
+    }
+
+    private Entry compute(int index, Object proxy, Object[] args, ProxySlots slots, ProxyMethodHandler computation)
+            throws ReflectiveOperationException {
+        Recorder recorder = new Recorder(proxy, RECORDER.get());
+        RECORDER.set(recorder);
+        Object value;
+        try {
+            value = computation.handle(proxy, args, slots);
+        } finally {
+            RECORDER.set(recorder.parent);
+        }
+        Entry entry = new Entry(value, recorder.reads, recorder.nested);
+        if (!entry.nested)
+            entries.set(index, entry);
+        return entry;
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final BitSet dependencies;
+        // Result read a nested config interface and is computed on every call
+        private final boolean nested;
+
+        Entry(Object value, BitSet dependencies, boolean nested) {
+            this.value = value;
+            this.dependencies = dependencies;
+            this.nested = nested;
+        }
+
+    }
+
+    private static final class Recorder {
+
+        private final Object proxy;
+        private final Recorder parent;
+        private final BitSet reads = new BitSet();
+        private boolean nested;
+
+        Recorder(Object proxy, Recorder parent) {
+            this.proxy = proxy;
+            this.parent = parent;
+        }
+
+    }
+
+}
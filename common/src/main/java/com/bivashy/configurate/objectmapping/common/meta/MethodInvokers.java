@@ -1,137 +1,311 @@
 package com.bivashy.configurate.objectmapping.common.meta;
 
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import com.bivashy.configurate.objectmapping.common.ProxyDefaultMethodInvoker;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Cached;
 import com.bivashy.configurate.objectmapping.meta.Style;
 import com.bivashy.configurate.objectmapping.meta.Transient;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
 import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotSetter;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+import io.leangen.geantyref.GenericTypeReflector;
 
 public class MethodInvokers {
 
+    private static final Set<Class<?>> IMMUTABLE_VALUES = new HashSet<>(Arrays.asList(String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class));
+
     private MethodInvokers() {
     }
 
+    /**
+     * Creates invoker of {@link Cached} methods.
+     *
+     * <p>It should precede {@link #transientDefaultInvoker()} and {@link #setterInvoker()}:
+     * it wraps their handlers to record stored values read by cached methods and to invalidate results on change.
+     * Interfaces without cached methods are left untouched.</p>
+     *
+     * @return Invoker of cached methods.
+     */
+    public static ProxyMethodInvoker cachedInvoker() {
+        return ProxyMethodInvoker.of((layout, method, next) -> {
+            if (method.isAnnotationPresent(Cached.class) && !CachedResults.isCached(method))
+                throw new IllegalStateException("Cached method '" + method.toGenericString() + "' should be a @Transient default method");
+            List<Method> cachedMethods = CachedResults.cachedMethods(layout.type());
+            if (cachedMethods.isEmpty())
+                return next;
+            final Supplier<CachedResults> results = CachedResults.factory(cachedMethods.size());
+            if (CachedResults.isCached(method)) {
+                if (method.getParameterCount() != 0)
+                    throw new IllegalStateException("Cached method '" + method.toGenericString() + "' should not have parameters");
+                final int index = cachedMethods.indexOf(method);
+                return (proxy, args, slots) -> slots.attachment(CachedResults.KEY, results).get(index, proxy, args, slots, next);
+            }
+            if (next instanceof ProxySlotSetter) {
+                final int slot = ((ProxySlotSetter) next).slot();
+                return (proxy, args, slots) -> {
+                    Object result = next.handle(proxy, args, slots);
+                    slots.attachment(CachedResults.KEY, results).invalidate(slot);
+                    return result;
+                };
+            }
+            final int slot = layout.slot(method);
+            if (slot == -1 || method.getParameterCount() != 0)
+                return next;
+            return (proxy, args, slots) -> {
+                Object value = next.handle(proxy, args, slots);
+                CachedResults.recordRead(proxy, slot, value);
+                return value;
+            };
+        });
+    }
+
     public static ProxyMethodInvoker transientDefaultInvoker() {
-        return (proxy, method, args, intermediate) -> {
-            if(!method.isDefault())
-                return null;
+        return ProxyMethodInvoker.of((layout, method, next) -> {
+            if (!method.isDefault())
+                return next;
             if (!method.isAnnotationPresent(Transient.class))
-                return null;
-            return ProxyDefaultMethodInvoker.invokeDefaultMethod(proxy, method, args);
-        };
+                return next;
+            return ProxyDefaultMethodInvoker.defaultMethodHandler(method);
+        });
     }
 
     public static ProxyMethodInvoker setterInvoker() {
-        return (proxy, method, args, intermediate) -> {
-            if (args == null || args.length != 1)
-                return null;
-            Class<?> returnType = method.getReturnType();
-            if (!returnType.equals(proxy.getClass()) && !returnType.equals(void.class))
-                return null;
-            Object argument = args[0];
-            intermediate.put(method.getName(), argument);
-            return proxy;
-        };
+        return ProxyMethodInvoker.of((layout, method, next) -> {
+            if (!isSetter(layout.type(), method))
+                return next;
+            final int slot = layout.slot(method.getName());
+            // There is no getter to store the value for
+            if (slot == -1)
+                return (proxy, args, slots) -> proxy;
+            return ProxySlotSetter.of(slot);
+        });
     }
 
     public static ProxyMethodInvoker toStringInvoker() {
-        return (proxy, method, args, intermediate) -> {
+        return ProxyMethodInvoker.of((layout, method, next) -> {
             if (methodNotEquals(method, "toString"))
-                return null;
-            try {
-                String methodName = findStyle(proxy).map(Style::toStringName).orElse("stringify");
-                return invokeDefaultMethod(proxy, methodName, new Object[0]);
-            } catch (NoSuchMethodException e) {
-                StringBuilder stringBuilder = new StringBuilder();
-
-                String fields = intermediate.entrySet().stream().map(entry -> {
-                    String name = entry.getKey();
-                    String value = Objects.toString(entry.getValue());
-                    return name + "=" + value;
-                }).collect(Collectors.joining(", "));
-
-                String classNames = Arrays.toString(proxy.getClass().getInterfaces());
-                return stringBuilder.append(classNames).append("{").append(fields).append("}").toString();
-            }
-        };
+                return next;
+            ProxyMethodHandler hook = StyleHooks.of(layout.type()).toStringHook();
+            if (hook != null)
+                return hook;
+            final String classNames = "[" + layout.type() + "]";
+            return (proxy, args, slots) -> {
+                StringBuilder stringBuilder = new StringBuilder(classNames).append("{");
+                boolean first = true;
+                for (int slot = 0; slot < layout.size(); slot++) {
+                    // Partially loaded instances have no values of some slots
+                    if (!slots.isLoaded(slot))
+                        continue;
+                    if (!first)
+                        stringBuilder.append(", ");
+                    first = false;
+                    stringBuilder.append(layout.method(slot).getName()).append("=").append(slots.get(slot));
+                }
+                return stringBuilder.append("}").toString();
+            };
+        });
     }
 
     public static ProxyMethodInvoker equalsInvoker() {
-        return (proxy, method, args, intermediate) -> {
+        return ProxyMethodInvoker.of((layout, method, next) -> {
             if (methodNotEquals(method, "equals", Object.class))
-                return null;
-            Object object = args[0];
-            try {
-                String methodName = findStyle(proxy).map(Style::equalsName).orElse("equalTo");
-                return invokeDefaultMethod(proxy, methodName, new Object[]{object}, Object.class);
-            } catch (NoSuchMethodException e) {
-                if (proxy == object)
-                    return true;
-                if (object == null || !proxy.getClass().equals(object.getClass()))
-                    return false;
-                Collection<Object> objectFields = fields(object, intermediate.keySet());
-                Collection<Object> proxyFields = fields(proxy, intermediate.keySet());
-                return objectFields.size() == proxyFields.size() && objectFields.containsAll(proxyFields) && proxyFields.containsAll(objectFields);
-            }
-        };
+                return next;
+            ProxyMethodHandler hook = StyleHooks.of(layout.type()).equalsHook();
+            if (hook != null)
+                return hook;
+            return new StructuralEquals(layout);
+        });
     }
 
     public static ProxyMethodInvoker hashCodeInvoker() {
-        return (proxy, method, args, intermediate) -> {
+        return ProxyMethodInvoker.of((layout, method, next) -> {
             if (methodNotEquals(method, "hashCode"))
-                return null;
-            try {
-                String methodName = findStyle(proxy).map(Style::hashCodeName).orElse("hash");
-                return invokeDefaultMethod(proxy, methodName, new Object[0]);
-            } catch (NoSuchMethodException ez) {
-                return Objects.hash(fields(proxy, intermediate.keySet()));
-            }
-        };
+                return next;
+            StyleHooks hooks = StyleHooks.of(layout.type());
+            ProxyMethodHandler hook = hooks.hashCodeHook();
+            if (hook != null)
+                return hook;
+            Style style = hooks.style();
+            if (style == null || !style.cacheHashCode() || !isImmutable(layout.type()))
+                return (proxy, args, slots) -> hashCode(proxy, slots);
+            return (proxy, args, slots) -> {
+                CachedHashCode cachedHashCode = slots.attachment(CachedHashCode.class, CachedHashCode::new);
+                Integer hashCode = cachedHashCode.value;
+                if (hashCode == null)
+                    cachedHashCode.value = hashCode = hashCode(proxy, slots);
+                return hashCode;
+            };
+        });
     }
 
-    static Optional<Style> findStyle(Object proxy) {
-        Class<?>[] interfaces = proxy.getClass().getInterfaces();
-        // Theoretically not possible
-        if (interfaces.length == 0)
-            return Optional.empty();
-        Class<?> clazz = interfaces[0];
-        return clazz.isAnnotationPresent(Style.class) ? Optional.of(clazz.getAnnotation(Style.class)) : Optional.empty();
+    static boolean methodNotEquals(Method method, String methodName, Object... argumentTypes) {
+        if (method == null || !method.getName().equals(methodName))
+            return true;
+        return !Arrays.equals(method.getParameterTypes(), argumentTypes);
     }
 
-    static Object invokeDefaultMethod(Object proxy, String methodName, Object[] args, Class<?>... parameterTypes) throws ReflectiveOperationException {
-        Class<?>[] interfaces = proxy.getClass().getInterfaces();
-        // Theoretically not possible
-        if (interfaces.length == 0)
-            throw new NoSuchMethodException();
-        Method method = interfaces[0].getDeclaredMethod(methodName, parameterTypes);
-        if (!method.isDefault())
-            throw new IllegalStateException("Cannot call '" + methodName + "' on '" + Arrays.toString(proxy.getClass().getInterfaces()) +
-                    "', because '" + methodName + "' doesn't have 'default' keyword");
-        return ProxyDefaultMethodInvoker.invokeDefaultMethod(proxy, method, args);
+    static boolean isSetter(Class<?> type, Method method) {
+        if (method.getParameterCount() != 1 || Modifier.isStatic(method.getModifiers()))
+            return false;
+        Class<?> returnType = method.getReturnType();
+        return returnType.equals(void.class) || (returnType.isInterface() && returnType.isAssignableFrom(type));
     }
 
-    static boolean methodNotEquals(Method method, String methodName, Object... argumentTypes) {
-        if (method == null || !method.getName().equals(methodName))
+    /**
+     * Returns whether the interface and interfaces of its values have no setters, and its other values are of known immutable types:
+     * primitives, strings, boxed primitives, big numbers and enums. Arrays, collections and maps can be changed in place,
+     * so interfaces with such values are not immutable.
+     */
+    static boolean isImmutable(Class<?> type) {
+        return isImmutable(type, new HashSet<>());
+    }
+
+    private static boolean isImmutable(Class<?> type, Set<Class<?>> visited) {
+        if (!visited.add(type))
             return true;
-        return !Arrays.equals(method.getParameterTypes(), argumentTypes);
+        for (Method method : type.getMethods()) {
+            if (method.isDefault() && method.isAnnotationPresent(Transient.class))
+                continue;
+            if (isSetter(type, method))
+                return false;
+            if (method.getParameterCount() == 0 && !valuesImmutable(method.getGenericReturnType(), visited))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean valuesImmutable(Type type, Set<Class<?>> visited) {
+        if (type instanceof WildcardType || type instanceof GenericArrayType)
+            return false;
+        Class<?> erased = GenericTypeReflector.erase(type);
+        if (erased.isPrimitive() || erased.isEnum() || IMMUTABLE_VALUES.contains(erased))
+            return true;
+        // Config interfaces are not generic, interfaces of the JDK such as collections are mutable
+        if (!erased.isInterface() || type instanceof ParameterizedType || erased.getName().startsWith("java."))
+            return false;
+        return isImmutable(erased, visited);
+    }
+
+    // Layouts of the same interface built by different discoverers are compared method by method
+    static boolean sameSlots(ProxySlotLayout layout, ProxySlotLayout other) {
+        if (layout == other)
+            return true;
+        if (layout.type() != other.type() || layout.size() != other.size())
+            return false;
+        for (int slot = 0; slot < layout.size(); slot++) {
+            if (!layout.method(slot).equals(other.method(slot)))
+                return false;
+        }
+        return true;
+    }
+
+    static int hashCode(Object proxy, ProxySlots slots) {
+        int hashCode = 1;
+        for (int slot = 0; slot < slots.layout().size(); slot++) {
+            if (!slots.isLoaded(slot))
+                continue;
+            hashCode = 31 * hashCode + (slots.isSet(slot) ? slots.valueHashCode(slot) : Objects.hashCode(getterValue(proxy, slots, slot)));
+        }
+        return hashCode;
     }
 
-    static Collection<Object> fields(Object proxy, Set<String> keys) {
-        return keys.stream().map(key -> {
+    // Unset slots are resolved by their getter, which may fall back to a default method or a default primitive value
+    private static Object getterValue(Object proxy, ProxySlots slots, int slot) {
+        Method getter = slots.layout().method(slot);
+        try {
             try {
-                return proxy.getClass().getDeclaredMethod(key).invoke(proxy);
-            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
-                throw new RuntimeException(ex);
+                return getter.invoke(proxy);
+            } catch (IllegalAccessException e) {
+                // Public interface nested in a class that isn't public
+                getter.setAccessible(true);
+                return getter.invoke(proxy);
             }
-        }).collect(Collectors.toList());
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new UndeclaredThrowableException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compares values slot by slot, without wrapping the compared object in an arguments array.
+     * Stored values are compared directly, unset values by the value their getters return, so an unset value is equal to
+     * the same value set explicitly.
+     *
+     * <p>Only instances created by {@link com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer} are compared,
+     * other implementations of the interface are never equal to them.</p>
+     */
+    private static final class StructuralEquals implements ProxyMethodHandler {
+
+        private final ProxySlotLayout layout;
+
+        StructuralEquals(ProxySlotLayout layout) {
+            this.layout = layout;
+        }
+
+        @Override
+        public Object handle(Object proxy, Object[] args, ProxySlots slots) {
+            return handleUnary(proxy, args[0], slots);
+        }
+
+        @Override
+        public Object handleUnary(Object proxy, Object object, ProxySlots slots) {
+            if (proxy == object)
+                return true;
+            // Fast reject of objects that implement another interface
+            if (!layout.type().isInstance(object))
+                return false;
+            ProxySlots objectSlots = ProxyInstances.slots(object);
+            if (objectSlots == null || !sameSlots(layout, objectSlots.layout()))
+                return false;
+            for (int slot = 0; slot < layout.size(); slot++) {
+                // Slots not loaded by either instance are skipped, as their values are unknown
+                boolean loaded = slots.isLoaded(slot);
+                if (loaded != objectSlots.isLoaded(slot))
+                    return false;
+                if (!loaded || slots.valueEquals(slot, objectSlots))
+                    continue;
+                if (slots.isSet(slot) && objectSlots.isSet(slot))
+                    return false;
+                if (!Objects.equals(getterValue(proxy, slots, slot), getterValue(object, objectSlots, slot)))
+                    return false;
+            }
+            return true;
+        }
+
+    }
+
+    private static final class CachedHashCode {
+
+        // Benign race, every thread computes the same value
+        private volatile Integer value;
+
     }
 
 }
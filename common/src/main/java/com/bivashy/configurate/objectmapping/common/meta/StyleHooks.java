@@ -0,0 +1,80 @@
+package com.bivashy.configurate.objectmapping.common.meta;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.bivashy.configurate.objectmapping.common.ProxyDefaultMethodInvoker;
+import com.bivashy.configurate.objectmapping.meta.Style;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler;
+
+/**
+ * Custom {@code toString()}, {@code equals(Object)} and {@code hashCode()} methods of an interface, see {@link Style}.
+ *
+ * <p>Resolved once per interface, so calls of object methods don't look up the hooks again.</p>
+ */
+final class StyleHooks {
+
+    private static final ClassValue<StyleHooks> HOOKS = new ClassValue<StyleHooks>() {
+        @Override
+        protected StyleHooks computeValue(Class<?> type) {
+            return new StyleHooks(type);
+        }
+    };
+    private final @Nullable Style style;
+    private final @Nullable ProxyMethodHandler toStringHook;
+    private final @Nullable ProxyMethodHandler equalsHook;
+    private final @Nullable ProxyMethodHandler hashCodeHook;
+
+    private StyleHooks(Class<?> type) {
+        this.style = type.getAnnotation(Style.class);
+        this.toStringHook = hook(type, style == null ? "stringify" : style.toStringName());
+        this.equalsHook = hook(type, style == null ? "equalTo" : style.equalsName(), Object.class);
+        this.hashCodeHook = hook(type, style == null ? "hash" : style.hashCodeName());
+    }
+
+    static StyleHooks of(Class<?> type) {
+        return HOOKS.get(type);
+    }
+
+    @Nullable Style style() {
+        return style;
+    }
+
+    @Nullable ProxyMethodHandler toStringHook() {
+        return toStringHook;
+    }
+
+    @Nullable ProxyMethodHandler equalsHook() {
+        return equalsHook;
+    }
+
+    @Nullable ProxyMethodHandler hashCodeHook() {
+        return hashCodeHook;
+    }
+
+    private static @Nullable ProxyMethodHandler hook(Class<?> type, String methodName, Class<?>... parameterTypes) {
+        Method method = declaredMethod(type, methodName, parameterTypes);
+        if (method == null)
+            return null;
+        if (!method.isDefault()) {
+            String message = "Cannot call '" + methodName + "' on '[" + type + "]', because '" + methodName +
+                    "' doesn't have 'default' keyword";
+            return (proxy, args, slots) -> {
+                throw new IllegalStateException(message);
+            };
+        }
+        return ProxyDefaultMethodInvoker.defaultMethodHandler(method);
+    }
+
+    private static @Nullable Method declaredMethod(Class<?> type, String methodName, Class<?>... parameterTypes) {
+        for (Method method : type.getDeclaredMethods()) {
+            // Same as getDeclaredMethod, without throwing if there is no such method
+            if (method.getName().equals(methodName) && Arrays.equals(method.getParameterTypes(), parameterTypes))
+                return method;
+        }
+        return null;
+    }
+
+}
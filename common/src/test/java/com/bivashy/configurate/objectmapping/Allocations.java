@@ -0,0 +1,33 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+final class Allocations {
+
+    // Measuring itself may allocate a little, boxing on every iteration would take megabytes
+    static final long LIMIT = 16 * 1024;
+
+    private Allocations() {
+    }
+
+    /**
+     * Runs the action twice, so constant pool entries are resolved before measuring, and returns bytes allocated by the second run.
+     */
+    static long measure(Runnable action) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean, "Thread allocation counter is not supported");
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported(), "Thread allocation counter is not supported");
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        action.run();
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        action.run();
+        return allocationBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializer;
+
+import com.bivashy.configurate.objectmapping.common.BatchSerializer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.meta.Matches;
+
+import io.leangen.geantyref.TypeToken;
+
+class BatchTest {
+
+    private static final int ELEMENTS = 5000;
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    private static ConfigurationOptions options(int parallelThreshold) {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        return ConfigurationOptions.defaults().serializers(opt -> opt
+                .register(InterfaceObjectMapperFactory::applicable, factory)
+                .register(BatchSerializer::applicable, factory.batchSerializer(parallelThreshold, pool)));
+    }
+
+    @ConfigInterface
+    public interface Item {
+
+        @Matches("[a-z0-9]+")
+        String id();
+
+        int weight();
+
+    }
+
+    @ConfigInterface
+    public interface Items {
+
+        List<Item> list();
+
+        Map<String, Item> map();
+
+    }
+
+    private static ConfigurationNode node(ConfigurationOptions options) throws SerializationException {
+        ConfigurationNode node = BasicConfigurationNode.root(options);
+        for (int i = 0; i < ELEMENTS; i++) {
+            ConfigurationNode element = node.node("list").appendListNode();
+            element.node("id").set("item" + i);
+            element.node("weight").set(i);
+            node.node("map", "key" + i, "id").set("item" + i);
+            node.node("map", "key" + i, "weight").set(i);
+        }
+        return node;
+    }
+
+    @Test
+    void testParallelKeepsOrder() throws SerializationException {
+        Items items = node(options(16)).get(Items.class);
+        Items sequential = node(options(Integer.MAX_VALUE)).get(Items.class);
+
+        assertEquals(ELEMENTS, items.list().size());
+        for (int i = 0; i < ELEMENTS; i++) {
+            assertEquals("item" + i, items.list().get(i).id());
+            assertEquals(i, items.list().get(i).weight());
+        }
+        assertEquals(new ArrayList<>(sequential.map().keySet()), new ArrayList<>(items.map().keySet()));
+        assertEquals(sequential.list(), items.list());
+        assertEquals(sequential.map(), items.map());
+    }
+
+    @Test
+    void testSameAsDefaultSerializers() throws SerializationException {
+        ConfigurationOptions defaults = ConfigurationOptions.defaults()
+                .serializers(opt -> opt.register(InterfaceObjectMapperFactory::applicable, new InterfaceObjectMapperFactory()));
+        assertEquals(node(defaults).get(Items.class), node(options(16)).get(Items.class));
+    }
+
+    @Test
+    void testElementFailure() throws SerializationException {
+        ConfigurationNode node = node(options(16));
+        node.node("list", 4321, "id").set("Not valid");
+        SerializationException exception = assertThrows(SerializationException.class,
+                () -> node.node("list").get(new TypeToken<List<Item>>() {}));
+        assertEquals("list", exception.path().get(0));
+        assertEquals(4321, exception.path().get(1));
+    }
+
+    @Test
+    void testSingleValue() throws SerializationException {
+        ConfigurationNode node = BasicConfigurationNode.root(options(1));
+        node.node("id").set("single");
+        List<Item> list = node.get(new TypeToken<List<Item>>() {});
+        assertEquals(1, list.size());
+        assertEquals("single", list.get(0).id());
+    }
+
+    @Test
+    void testSerializeWithNodeSerializers() throws SerializationException {
+        ConfigurationOptions options = options(16).serializers(opt -> opt.register(Key.class, new KeySerializer()));
+        ConfigurationNode source = BasicConfigurationNode.root(options);
+        source.node("a", "id").set("first");
+        source.node("b", "id").set("second");
+        source.node("b", "weight").set(2);
+        TypeToken<Map<Key, Item>> type = new TypeToken<Map<Key, Item>>() {};
+        Map<Key, Item> map = source.get(type);
+        assertEquals(new Key("A"), map.keySet().iterator().next());
+
+        ConfigurationNode target = BasicConfigurationNode.root(options);
+        target.node("stale").set("value");
+        target.set(type, map);
+        assertTrue(target.node("stale").virtual());
+        assertEquals("first", target.node("a", "id").getString());
+        assertEquals(2, target.node("b", "weight").getInt());
+        assertEquals(map.keySet(), target.get(type).keySet());
+    }
+
+    @Test
+    void testNullEntriesSkipped() throws SerializationException {
+        ConfigurationOptions options = options(16).serializers(opt -> opt.register(Key.class, new KeySerializer()));
+        ConfigurationNode source = BasicConfigurationNode.root(options);
+        source.node("a", "id").set("first");
+        source.node("ignored", "id").set("second");
+        TypeToken<Map<Key, Item>> type = new TypeToken<Map<Key, Item>>() {};
+        Map<Key, Item> map = source.get(type);
+        assertEquals(Collections.singleton(new Key("A")), map.keySet());
+
+        Map<Key, Item> withNull = new LinkedHashMap<>(map);
+        withNull.put(new Key("B"), null);
+        ConfigurationNode target = BasicConfigurationNode.root(options);
+        target.set(type, withNull);
+        assertEquals(1, target.childrenMap().size());
+        assertEquals("first", target.node("a", "id").getString());
+    }
+
+    static final class Key {
+
+        private final String name;
+
+        Key(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+
+    }
+
+    // Keys named "ignored" deserialize to null
+    static final class KeySerializer implements TypeSerializer<Key> {
+
+        @Override
+        public Key deserialize(Type type, ConfigurationNode node) {
+            String name = node.getString("");
+            return name.equals("ignored") ? null : new Key(name.toUpperCase(Locale.ROOT));
+        }
+
+        @Override
+        public void serialize(Type type, Key obj, ConfigurationNode node) {
+            node.raw(obj == null ? null : obj.name.toLowerCase(Locale.ROOT));
+        }
+
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.meta.Cached;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+public class CachedTest {
+
+    private static final AtomicInteger PATTERN_CALLS = new AtomicInteger();
+    private static final AtomicInteger TIMEOUT_CALLS = new AtomicInteger();
+    private static final AtomicInteger SUMMARY_CALLS = new AtomicInteger();
+
+    private Filter load(boolean generateImplementations) throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(generateImplementations)
+                .build();
+        ObjectMapper<Filter> mapper = new InterfaceObjectMapperFactory(discoverer).get(Filter.class);
+        return mapper.load(BasicConfigurationNode.root(n -> {
+            n.node("regex").raw("[a-z]+");
+            n.node("seconds").raw(5);
+        }));
+    }
+
+    @BeforeEach
+    void resetCalls() {
+        PATTERN_CALLS.set(0);
+        TIMEOUT_CALLS.set(0);
+        SUMMARY_CALLS.set(0);
+    }
+
+    public interface Filter {
+
+        String regex();
+
+        int seconds();
+
+        void regex(String regex);
+
+        Filter seconds(int seconds);
+
+        @Cached
+        @Transient
+        default Pattern pattern() {
+            PATTERN_CALLS.incrementAndGet();
+            return Pattern.compile(regex());
+        }
+
+        @Cached
+        @Transient
+        default Duration timeout() {
+            TIMEOUT_CALLS.incrementAndGet();
+            return Duration.ofSeconds(seconds());
+        }
+
+        @Cached
+        @Transient
+        default String summary() {
+            SUMMARY_CALLS.incrementAndGet();
+            return pattern().pattern() + " in " + timeout().getSeconds() + "s";
+        }
+
+    }
+
+    public interface Connection {
+
+        Database database();
+
+        @Cached
+        @Transient
+        default String url() {
+            return "jdbc://" + database().host();
+        }
+
+    }
+
+    @ConfigInterface
+    public interface Database {
+
+        String host();
+
+        void host(String host);
+
+    }
+
+    public interface Misplaced {
+
+        String value();
+
+        @Cached
+        default String upper() {
+            return value().toUpperCase();
+        }
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testComputedOnce(boolean generateImplementations) throws SerializationException {
+        Filter filter = load(generateImplementations);
+        assertNotNull(filter);
+        Pattern pattern = filter.pattern();
+        assertSame(pattern, filter.pattern());
+        assertEquals(1, PATTERN_CALLS.get());
+        assertEquals("[a-z]+ in 5s", filter.summary());
+        assertEquals("[a-z]+ in 5s", filter.summary());
+        assertEquals(1, SUMMARY_CALLS.get());
+        assertEquals(1, PATTERN_CALLS.get());
+        assertEquals(1, TIMEOUT_CALLS.get());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testSetterInvalidatesDependents(boolean generateImplementations) throws SerializationException {
+        Filter filter = load(generateImplementations);
+        assertNotNull(filter);
+        filter.summary();
+
+        filter.regex("[0-9]+");
+        assertEquals("[0-9]+", filter.pattern().pattern());
+        assertEquals(Duration.ofSeconds(5), filter.timeout());
+        assertEquals("[0-9]+ in 5s", filter.summary());
+        assertEquals(2, PATTERN_CALLS.get());
+        assertEquals(1, TIMEOUT_CALLS.get());
+        assertEquals(2, SUMMARY_CALLS.get());
+
+        assertSame(filter, filter.seconds(10));
+        assertEquals("[0-9]+ in 10s", filter.summary());
+        assertEquals(2, PATTERN_CALLS.get());
+        assertEquals(2, TIMEOUT_CALLS.get());
+        assertEquals(3, SUMMARY_CALLS.get());
+    }
+
+    @Test
+    void testInstancesDoNotShareResults() throws SerializationException {
+        Filter first = load(false);
+        Filter second = load(false);
+        assertNotNull(first);
+        assertNotNull(second);
+        first.regex("first");
+        assertEquals("first", first.pattern().pattern());
+        assertEquals("[a-z]+", second.pattern().pattern());
+    }
+
+    @Test
+    void testConcurrentFirstCall() throws Exception {
+        Filter filter = load(false);
+        assertNotNull(filter);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Pattern>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return filter.pattern();
+                }));
+            }
+            start.countDown();
+            Pattern pattern = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Pattern> result : results)
+                assertSame(pattern, result.get(10, TimeUnit.SECONDS));
+            assertEquals(1, PATTERN_CALLS.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testNestedReadsAreNotCached(boolean generateImplementations) throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(generateImplementations)
+                .build();
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory(discoverer);
+        ConfigurationOptions options = ConfigurationOptions.defaults().serializers(builder -> builder
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(InterfaceObjectMapperFactory::applicable, factory));
+        Connection connection = factory.get(Connection.class)
+                .load(BasicConfigurationNode.root(options, n -> n.node("database", "host").raw("a")));
+        assertEquals("jdbc://a", connection.url());
+
+        connection.database().host("b");
+        assertEquals("jdbc://b", connection.url());
+    }
+
+    @Test
+    void testCachedWithoutTransientFails() {
+        assertThrows(IllegalStateException.class, () -> new InterfaceObjectMapperFactory().get(Misplaced.class));
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.NodePath;
+import org.spongepowered.configurate.hocon.HoconConfigurationLoader;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.common.ReloadableConfig;
+
+class ChangeListenerTest {
+
+    private final InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+    @TempDir
+    Path directory;
+
+    private ReloadableConfig<MainConfig> config(String content) throws IOException {
+        Path file = write(content);
+        return factory.reloadable(MainConfig.class, HoconConfigurationLoader.builder()
+                .path(file)
+                .defaultOptions(opt -> opt.serializers(builder -> builder
+                        .registerAll(TypeSerializerCollection.defaults())
+                        .register(InterfaceObjectMapperFactory::applicable, factory)))
+                .build());
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("main.conf"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @ConfigInterface
+    public interface MainConfig {
+
+        String host();
+
+        void host(String host);
+
+        Permissions permissions();
+
+        Database database();
+
+    }
+
+    @ConfigInterface
+    public interface Permissions {
+
+        List<String> admins();
+
+        boolean strict();
+
+    }
+
+    @ConfigInterface
+    public interface Database {
+
+        String url();
+
+        void url(String url);
+
+    }
+
+    @Test
+    void testReloadNotifiesChangedValues() throws IOException {
+        ReloadableConfig<MainConfig> config = config("host = localhost\npermissions { admins = [a], strict = false }\ndatabase { url = first }");
+        List<String> events = new ArrayList<>();
+        config.onChange(MainConfig::host, (before, after) -> events.add("host " + before + " -> " + after))
+                .onChange(MainConfig::permissions, (before, after) -> events.add("permissions " + before.admins() + " -> " + after.admins()))
+                .onChange(root -> root.permissions().strict(), (before, after) -> events.add("strict " + before + " -> " + after))
+                .onChange(NodePath.path("database", "url"), (before, after) -> events.add("url " + before + " -> " + after));
+
+        write("host = localhost\npermissions { admins = [a, b], strict = false }\ndatabase { url = first }");
+        config.reload();
+        assertEquals(1, events.size());
+        assertEquals("permissions [a] -> [a, b]", events.get(0));
+
+        events.clear();
+        config.reload();
+        assertTrue(events.isEmpty());
+
+        write("host = example.org\npermissions { admins = [a, b], strict = true }\ndatabase { url = second }");
+        config.reload();
+        assertEquals(4, events.size());
+        assertTrue(events.contains("host localhost -> example.org"));
+        assertTrue(events.contains("permissions [a, b] -> [a, b]"));
+        assertTrue(events.contains("strict false -> true"));
+        assertTrue(events.contains("url first -> second"));
+    }
+
+    @Test
+    void testSetterNotifiesChangedValues() throws IOException {
+        ReloadableConfig<MainConfig> config = config("host = localhost\ndatabase { url = first }");
+        MainConfig main = config.get();
+        Database database = main.database();
+        List<String> events = new ArrayList<>();
+        config.onChange(root -> root.database().url(), (before, after) -> events.add(before + " -> " + after));
+        config.onChange(MainConfig::database, (before, after) -> events.add("database"));
+
+        main.host("example.org");
+        assertTrue(events.isEmpty());
+
+        database.url("second");
+        assertEquals(2, events.size());
+        assertEquals("first -> second", events.get(0));
+        assertEquals("database", events.get(1));
+
+        events.clear();
+        database.url("second");
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testConcurrentInstanceListeners() throws SerializationException {
+        InterfaceObjectMapperFactory concurrent = factory.concurrent();
+        MainConfig main = BasicConfigurationNode.root(ConfigurationOptions.defaults().serializers(opt -> opt
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(InterfaceObjectMapperFactory::applicable, concurrent)), n -> n.node("host").raw("localhost"))
+                .get(MainConfig.class);
+        List<String> hosts = new ArrayList<>();
+        ProxyInstances.onChange(main, MainConfig::host, (before, after) -> hosts.add(after));
+
+        main.host("example.org");
+        main.database().url("other");
+
+        assertEquals(1, hosts.size());
+        assertEquals("example.org", hosts.get(0));
+        assertThrows(IllegalArgumentException.class, () -> ProxyInstances.onChange(main, MainConfig::toString, (before, after) -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> ProxyInstances.onChange(new Object(), Object::hashCode, (before, after) -> {
+        }));
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+
+class ConcurrentTest {
+
+    private static final int WRITES = 20_000;
+    private final ConfigurationOptions options = ConfigurationOptions.defaults().serializers(opt -> opt
+            .registerAll(TypeSerializerCollection.defaults())
+            .register(InterfaceObjectMapperFactory::applicable, new InterfaceObjectMapperFactory().concurrent()));
+
+    private ConfigurationNode node() {
+        return BasicConfigurationNode.root(options, n -> {
+            n.node("first").raw(0);
+            n.node("second").raw(0);
+            n.node("third").raw(0);
+            n.node("fourth").raw(0);
+            n.node("counter", "value").raw(0);
+        });
+    }
+
+    @ConfigInterface
+    public interface Counters {
+
+        int first();
+
+        void first(int value);
+
+        int second();
+
+        void second(int value);
+
+        int third();
+
+        void third(int value);
+
+        int fourth();
+
+        void fourth(int value);
+
+        Counter counter();
+
+        void counter(Counter counter);
+
+    }
+
+    @ConfigInterface
+    public interface Counter {
+
+        int value();
+
+        void value(int value);
+
+    }
+
+    @Test
+    void testSnapshotIsImmutable() throws SerializationException {
+        Counters counters = node().get(Counters.class);
+        Counter counter = counters.counter();
+        Counters snapshot = ProxyInstances.snapshot(counters);
+
+        counters.first(1);
+        counter.value(2);
+
+        assertEquals(1, counters.first());
+        assertEquals(2, counters.counter().value());
+        assertSame(counter, counters.counter());
+        assertEquals(0, snapshot.first());
+        assertEquals(0, snapshot.counter().value());
+        assertSame(snapshot.counter(), snapshot.counter());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.first(3));
+        assertSame(snapshot, ProxyInstances.snapshot(snapshot));
+        assertThrows(IllegalArgumentException.class, () -> ProxyInstances.snapshot(new Object()));
+    }
+
+    @ConfigInterface
+    public interface Group {
+
+        Counter counter();
+
+        List<Counter> members();
+
+    }
+
+    @Test
+    void testElementsOfCollectionsHaveOwnVersions() throws SerializationException {
+        Group group = BasicConfigurationNode.root(options, n -> {
+            n.node("counter", "value").raw(1);
+            n.node("members").appendListNode().node("value").raw(2);
+        }).get(Group.class);
+        Group snapshot = ProxyInstances.snapshot(group);
+        Counter member = group.members().get(0);
+        Counter memberSnapshot = ProxyInstances.snapshot(member);
+
+        group.counter().value(3);
+        member.value(4);
+
+        assertEquals(1, snapshot.counter().value());
+        assertEquals(3, group.counter().value());
+        assertEquals(2, memberSnapshot.value());
+        assertEquals(4, group.members().get(0).value());
+    }
+
+    @Test
+    void testConcurrentWritesAreNotLost() throws Exception {
+        Counters counters = node().get(Counters.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>();
+            writers.add(executor.submit(() -> write(start, counters::first)));
+            writers.add(executor.submit(() -> write(start, counters::second)));
+            writers.add(executor.submit(() -> write(start, counters::third)));
+            writers.add(executor.submit(() -> write(start, counters::fourth)));
+            start.countDown();
+            for (Future<?> writer : writers)
+                writer.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(WRITES, counters.first());
+        assertEquals(WRITES, counters.second());
+        assertEquals(WRITES, counters.third());
+        assertEquals(WRITES, counters.fourth());
+    }
+
+    @Test
+    void testSnapshotsAreConsistent() throws Exception {
+        Counters counters = node().get(Counters.class);
+        Counter counter = counters.counter();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                readers.add(executor.submit(() -> {
+                    int inconsistent = 0;
+                    while (writing.get()) {
+                        Counters snapshot = ProxyInstances.snapshot(counters);
+                        int first = snapshot.first();
+                        int value = snapshot.counter().value();
+                        // Every version has the nested value equal to the root value or one write behind it
+                        if (first != value && first != value + 1)
+                            inconsistent++;
+                    }
+                    return inconsistent;
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= WRITES; i++) {
+                    counters.first(i);
+                    counter.value(i);
+                }
+                writing.set(false);
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers)
+                assertEquals(0, reader.get(60, TimeUnit.SECONDS));
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+        assertEquals(WRITES, ProxyInstances.snapshot(counters).counter().value());
+    }
+
+    @Test
+    void testReplacedInstancesDontGrowVersions() throws SerializationException {
+        Counters counters = node().get(Counters.class);
+        Counter removed = counters.counter();
+        Counter replacement = new InterfaceObjectMapperFactory().get(Counter.class)
+                .load(BasicConfigurationNode.root(n -> n.node("value").raw(1)));
+        // Every setter copies nodes of the version, there would be more of them if removed instances kept their states in it
+        Runnable replace = () -> {
+            for (int i = 0; i < 100; i++)
+                counters.counter(replacement);
+        };
+        long allocated = Allocations.measure(replace);
+        for (int i = 0; i < 10_000; i++)
+            counters.counter(i % 2 == 0 ? null : replacement);
+        assertTrue(Allocations.measure(replace) < allocated * 2);
+
+        assertEquals(1, counters.counter().value());
+        assertNotSame(replacement, counters.counter());
+        // Removed instance keeps its own values
+        assertEquals(0, removed.value());
+        removed.value(5);
+        assertEquals(5, removed.value());
+        assertEquals(1, counters.counter().value());
+        assertThrows(IllegalArgumentException.class, () -> ProxyInstances.snapshot(removed));
+
+        // Removed instance written back is copied into the tree again
+        counters.counter(removed);
+        assertEquals(5, counters.counter().value());
+        counters.counter().value(6);
+        assertEquals(5, removed.value());
+    }
+
+    private static void write(CountDownLatch start, IntConsumer setter) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 1; i <= WRITES; i++)
+            setter.accept(i);
+    }
+
+}
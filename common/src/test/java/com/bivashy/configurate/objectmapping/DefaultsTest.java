@@ -2,6 +2,8 @@ package com.bivashy.configurate.objectmapping;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -39,6 +41,23 @@ class DefaultsTest {
 
     }
 
+    @ConfigInterface
+    public interface Sections {
+        Section first();
+        Section second();
+    }
+
+    @ConfigInterface
+    public interface Section {
+        String name();
+        void name(String name);
+        default int size() {
+            return 3;
+        }
+        List<String> entries();
+        AnotherThing nested();
+    }
+
     @Test
     void testFieldsInitialized() throws SerializationException {
         final ImplicitDefaultsOnly instance = objectMapperFactory().get(ImplicitDefaultsOnly.class).load(BasicConfigurationNode.root(IMPLICIT_OPTS));
@@ -59,6 +78,65 @@ class DefaultsTest {
         this.assertPresentAndEmpty(node.node("items"));
     }
 
+    @Test
+    void testEmptyValuesCopiedOnWrite() throws SerializationException {
+        final Sections sections = objectMapperFactory().get(Sections.class).load(BasicConfigurationNode.root(IMPLICIT_OPTS));
+        final Section first = sections.first();
+        final Section second = sections.second();
+
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(3, first.size());
+
+        first.name("first");
+        first.entries().add("entry");
+        assertEquals("first", first.name());
+        assertEquals(Collections.singletonList("entry"), first.entries());
+        assertNull(second.name());
+        assertEquals(Collections.emptyList(), second.entries());
+        assertNotSame(first.nested(), second.nested());
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void testEmptyValueAllocations() throws SerializationException {
+        final InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        final ObjectMapper<Section> mapper = factory.get(Section.class);
+        final List<Object> values = new ArrayList<>();
+        final long loaded = Allocations.measure(() -> {
+            values.clear();
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    values.add(mapper.load(BasicConfigurationNode.root(IMPLICIT_OPTS.shouldCopyDefaults(false))));
+                } catch (SerializationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        final long shared = Allocations.measure(() -> {
+            values.clear();
+            for (int i = 0; i < 1000; i++)
+                values.add(factory.emptyValue(Section.class, IMPLICIT_OPTS));
+        });
+        assertTrue(shared * 4 < loaded, "Empty values allocated " + shared + " bytes, loaded instances " + loaded + " bytes");
+    }
+
+    @Test
+    void testEmptyValuesReleasedWithOptions() throws InterruptedException {
+        final InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        ConfigurationOptions options = IMPLICIT_OPTS.header("released");
+        final WeakReference<ConfigurationOptions> released = new WeakReference<>(options);
+        assertEquals(factory.emptyValue(Section.class, options), factory.emptyValue(Section.class, options));
+        options = null;
+        for (int i = 0; i < 50 && released.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(released.get());
+        assertNotNull(factory.emptyValue(Section.class, IMPLICIT_OPTS));
+    }
+
     private void assertPresentAndEmpty(final ConfigurationNode node) {
         assertFalse(node.virtual());
         assertTrue(node.empty());
@@ -0,0 +1,251 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Comment;
+import com.bivashy.configurate.objectmapping.meta.Required;
+import com.bivashy.configurate.objectmapping.meta.Setting;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+import com.bivashy.configurate.objectmapping.processor.ConfigInterfaceProcessor;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+class DescriptorTest {
+
+    @TempDir
+    Path directory;
+
+    private static ConfigurationNode node() {
+        return BasicConfigurationNode.root(n -> {
+            n.node("first").raw("a");
+            n.node("second").raw("b");
+        });
+    }
+
+    public interface Parent {
+
+        String first();
+
+    }
+
+    @ConfigInterface
+    public interface Described extends Parent {
+
+        String second();
+
+    }
+
+    @ConfigInterface
+    public interface Compiled {
+
+        @Setting("display-name")
+        @Comment("Shown to players")
+        @Required
+        String name();
+
+        void name(String name);
+
+        default int radius() {
+            return 8;
+        }
+
+        Compiled radius(int radius);
+
+        @Transient
+        default String describe() {
+            return name() + ":" + radius();
+        }
+
+    }
+
+    private static ProxySlotLayout layout(Object instance) {
+        return ProxyInstances.slots(instance).layout();
+    }
+
+    private static List<String> names(ProxySlotLayout layout) {
+        List<String> names = new ArrayList<>();
+        for (int slot = 0; slot < layout.size(); slot++)
+            names.add(layout.method(slot).getName());
+        return names;
+    }
+
+    /**
+     * Compiles the interface with the processor, then compiles its other version without it,
+     * so the descriptor of the first version is loaded with the second version.
+     */
+    private Class<?> staleInterface(String described, String current) throws Exception {
+        Path describedOutput = compile("described", described, true);
+        Path currentOutput = compile("current", current, false);
+        URLClassLoader loader = new URLClassLoader(new URL[]{currentOutput.toUri().toURL(), describedOutput.toUri().toURL()},
+                DescriptorTest.class.getClassLoader());
+        return loader.loadClass("example.Settings");
+    }
+
+    private Path compile(String name, String source, boolean process) throws Exception {
+        Path sourceFile = directory.resolve(name).resolve("example").resolve("Settings.java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        Path output = Files.createDirectories(directory.resolve(name + "-out"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = new ArrayList<>(Arrays.asList("-classpath", apiClasspath(), "-d", output.toString(),
+                    "-s", output.toString()));
+            if (!process)
+                options.add("-proc:none");
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjects(sourceFile.toFile()));
+            if (process)
+                task.setProcessors(Collections.singleton(new ConfigInterfaceProcessor()));
+            assertTrue(task.call());
+        }
+        return output;
+    }
+
+    private static String apiClasspath() throws URISyntaxException {
+        return new File(ConfigInterface.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    @Test
+    void testDescriptorDefinesSlots() throws Exception {
+        Described settings = new InterfaceObjectMapperFactory().get(Described.class).load(node());
+        assertEquals("a", settings.first());
+        assertEquals("b", settings.second());
+        // Descriptor is generated by the processor while compiling tests
+        String[] slots = (String[]) Class.forName(Described.class.getName() + "$ProximateDescriptor")
+                .getField("SLOTS").get(null);
+        assertArrayEquals(new String[]{
+                Described.class.getName() + "#second()",
+                Parent.class.getName() + "#first()"
+        }, slots);
+        assertEquals(Arrays.asList("second", "first"), names(layout(settings)));
+    }
+
+    @Test
+    void testStaleDescriptorIgnored() throws Exception {
+        Class<?> settings = staleInterface(
+                "package example;\n" +
+                        "@com.bivashy.configurate.objectmapping.ConfigInterface\n" +
+                        "public interface Settings {\n" +
+                        "    String first();\n" +
+                        "    String removed();\n" +
+                        "}\n",
+                "package example;\n" +
+                        "public interface Settings {\n" +
+                        "    String first();\n" +
+                        "}\n");
+        Object instance = new InterfaceObjectMapperFactory().get(settings).load(node());
+        assertEquals(Collections.singletonList("first"), names(layout(instance)));
+    }
+
+    @Test
+    void testAddedMethodIgnoresDescriptor() throws Exception {
+        Class<?> settings = staleInterface(
+                "package example;\n" +
+                        "@com.bivashy.configurate.objectmapping.ConfigInterface\n" +
+                        "public interface Settings {\n" +
+                        "    String first();\n" +
+                        "}\n",
+                "package example;\n" +
+                        "public interface Settings {\n" +
+                        "    String first();\n" +
+                        "    String second();\n" +
+                        "}\n");
+        Object instance = new InterfaceObjectMapperFactory().get(settings).load(node());
+        assertEquals(Arrays.asList("first", "second"), names(layout(instance)));
+        Method second = settings.getMethod("second");
+        assertEquals("b", second.invoke(instance));
+    }
+
+    @Test
+    void testDescriptorHasMetadata() throws Exception {
+        Class<?> descriptor = Class.forName(Compiled.class.getName() + "$ProximateDescriptor");
+        assertArrayEquals(new String[]{"display-name", null}, (String[]) descriptor.getField("KEYS").get(null));
+        assertArrayEquals(new String[]{"Shown to players", null}, (String[]) descriptor.getField("COMMENTS").get(null));
+        assertArrayEquals(new String[][]{{Required.class.getName()}, null}, (String[][]) descriptor.getField("CONSTRAINTS").get(null));
+    }
+
+    @Test
+    void testCompiledImplementationUsed() throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(true)
+                .build();
+        Compiled compiled = new InterfaceObjectMapperFactory(discoverer).get(Compiled.class)
+                .load(BasicConfigurationNode.root(n -> n.node("display-name").raw("spawn")));
+        assertEquals(Compiled.class.getName() + "$ProximateImplementation", compiled.getClass().getName());
+        assertEquals("spawn", compiled.name());
+        assertEquals(8, compiled.radius());
+        assertEquals("spawn:8", compiled.describe());
+
+        compiled.name("lobby");
+        assertSame(compiled, compiled.radius(4));
+        assertEquals("lobby:4", compiled.describe());
+        assertTrue(ProxyInstances.isDirty(compiled));
+
+        Compiled proxy = new InterfaceObjectMapperFactory().get(Compiled.class)
+                .load(BasicConfigurationNode.root(n -> {
+                    n.node("display-name").raw("lobby");
+                    n.node("radius").raw(4);
+                }));
+        assertEquals(proxy, compiled);
+        assertEquals(compiled, proxy);
+        assertEquals(proxy.hashCode(), compiled.hashCode());
+    }
+
+    @Test
+    void testCompiledImplementationIgnoredForCustomInvokers() throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(true)
+                .invoker(ProxyMethodInvoker.of((layout, method, next) -> {
+                    if (!method.getName().equals("name") || method.getParameterCount() != 0)
+                        return next;
+                    return (proxy, args, slots) -> ((String) next.handle(proxy, args, slots)).toUpperCase(Locale.ROOT);
+                }))
+                .build();
+        Compiled compiled = new InterfaceObjectMapperFactory(discoverer).get(Compiled.class)
+                .load(BasicConfigurationNode.root(n -> n.node("display-name").raw("spawn")));
+        // Compiled class reads the field directly, so a class is generated at runtime instead
+        assertNotEquals(Compiled.class.getName() + "$ProximateImplementation", compiled.getClass().getName());
+        assertFalse(Proxy.isProxyClass(compiled.getClass()));
+        assertEquals("SPAWN", compiled.name());
+    }
+
+    @Test
+    void testCustomFiltersIgnoreDescriptor() throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .filter((method, type) -> !method.getName().equals("second"))
+                .build();
+        Described settings = new InterfaceObjectMapperFactory(discoverer).get(Described.class).load(node());
+        assertEquals(1, layout(settings).size());
+        assertEquals("first", layout(settings).method(0).getName());
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+
+class DirtyTrackingTest {
+
+    private final InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+    private final ConfigurationOptions options = ConfigurationOptions.defaults().serializers(opt -> opt
+            .registerAll(TypeSerializerCollection.defaults())
+            .register(InterfaceObjectMapperFactory::applicable, factory));
+
+    private ConfigurationNode node(ConfigurationOptions options) {
+        return BasicConfigurationNode.root(options, n -> {
+            n.node("host").raw("localhost");
+            n.node("port").raw(25565);
+            n.node("database", "url").raw("jdbc:h2:mem");
+            n.node("database", "pool-size").raw(4);
+            n.node("backends").act(backends -> {
+                backends.appendListNode().node("url").raw("first");
+                backends.appendListNode().node("url").raw("second");
+            });
+        });
+    }
+
+    @ConfigInterface
+    public interface Server {
+
+        String host();
+
+        void host(String host);
+
+        int port();
+
+        void port(int port);
+
+        Database database();
+
+        List<Database> backends();
+
+    }
+
+    @ConfigInterface
+    public interface Database {
+
+        String url();
+
+        void url(String url);
+
+        int poolSize();
+
+    }
+
+    @Test
+    void testUnchangedInstanceIsNotWritten() throws SerializationException {
+        ConfigurationNode node = node(options);
+        Server server = node.get(Server.class);
+        ConfigurationNode loaded = node.copy();
+
+        assertFalse(ProxyInstances.isDirty(server));
+        assertFalse(factory.saveChanges(server, node));
+        assertEquals(loaded, node);
+    }
+
+    @Test
+    void testOnlyChangedValuesAreWritten() throws SerializationException {
+        ConfigurationNode node = node(options);
+        Server server = node.get(Server.class);
+        server.host("example.org");
+        assertTrue(ProxyInstances.isDirty(server));
+
+        // Values that weren't changed through setters are not written back
+        node.node("port").raw(1);
+        node.node("database", "url").raw("jdbc:other");
+
+        assertTrue(factory.saveChanges(server, node));
+        assertEquals("example.org", node.node("host").getString());
+        assertEquals(1, node.node("port").getInt());
+        assertEquals("jdbc:other", node.node("database", "url").getString());
+
+        assertFalse(ProxyInstances.isDirty(server));
+        assertFalse(factory.saveChanges(server, node));
+    }
+
+    @Test
+    void testNestedChangesAreWritten() throws SerializationException {
+        ConfigurationNode node = node(options);
+        Server server = node.get(Server.class);
+        server.database().url("jdbc:postgresql://localhost/db");
+        node.node("database", "pool-size").raw(16);
+        node.node("host").raw("other");
+
+        assertTrue(ProxyInstances.isDirty(server));
+        assertTrue(factory.saveChanges(server, node));
+        assertEquals("jdbc:postgresql://localhost/db", node.node("database", "url").getString());
+        assertEquals(16, node.node("database", "pool-size").getInt());
+        assertEquals("other", node.node("host").getString());
+        assertFalse(ProxyInstances.isDirty(server.database()));
+    }
+
+    @Test
+    void testListsWithChangesAreWrittenWhole() throws SerializationException {
+        ConfigurationNode node = node(options);
+        Server server = node.get(Server.class);
+        server.backends().get(1).url("third");
+
+        assertTrue(ProxyInstances.isDirty(server));
+        assertTrue(factory.saveChanges(server, node));
+        assertEquals("first", node.node("backends", 0, "url").getString());
+        assertEquals("third", node.node("backends", 1, "url").getString());
+        assertFalse(ProxyInstances.isDirty(server.backends()));
+    }
+
+    @Test
+    void testGeneratedImplementationChanges() throws SerializationException {
+        InterfaceObjectMapperFactory generated = new InterfaceObjectMapperFactory(InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(true)
+                .build());
+        ConfigurationNode node = node(ConfigurationOptions.defaults().serializers(opt -> opt
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(InterfaceObjectMapperFactory::applicable, generated)));
+        Server server = node.get(Server.class);
+        assertFalse(ProxyInstances.isDirty(server));
+
+        server.port(8080);
+        node.node("host").raw("other");
+
+        assertTrue(ProxyInstances.isDirty(server));
+        assertTrue(generated.saveChanges(server, node));
+        assertEquals(8080, node.node("port").getInt());
+        assertEquals("other", node.node("host").getString());
+        assertFalse(ProxyInstances.isDirty(server));
+    }
+
+}
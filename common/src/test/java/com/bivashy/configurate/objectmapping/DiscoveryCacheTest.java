@@ -0,0 +1,167 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AnnotatedType;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.objectmapping.FieldDiscoverer;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodFilter;
+
+import io.leangen.geantyref.GenericTypeReflector;
+import io.leangen.geantyref.TypeFactory;
+
+public class DiscoveryCacheTest {
+
+    private static ConfigurationNode node() {
+        return BasicConfigurationNode.root(n -> {
+            n.node("name").raw("test");
+            n.node("size").raw(4);
+        });
+    }
+
+    public interface Settings {
+
+        String name();
+
+        int size();
+
+    }
+
+    public interface PluginSettings {
+
+        String name();
+
+    }
+
+    @Test
+    void testDiscoveryShared() throws SerializationException {
+        AtomicInteger calls = new AtomicInteger();
+        ProxyMethodFilter filter = (method, type) -> {
+            calls.incrementAndGet();
+            return true;
+        };
+        InterfaceMethodDiscoverer first = InterfaceMethodDiscoverer.defaultBuilder().filter(filter).build();
+        InterfaceMethodDiscoverer second = InterfaceMethodDiscoverer.defaultBuilder().filter(filter).build();
+
+        Settings settings = new InterfaceObjectMapperFactory(first).get(Settings.class).load(node());
+        int discoveryCalls = calls.get();
+        assertTrue(discoveryCalls > 0);
+        Settings otherSettings = new InterfaceObjectMapperFactory(second).get(Settings.class).load(node());
+        assertEquals(discoveryCalls, calls.get());
+        assertEquals("test", otherSettings.name());
+        assertEquals(4, otherSettings.size());
+        assertEquals(settings, otherSettings);
+
+        InterfaceMethodDiscoverer different = InterfaceMethodDiscoverer.defaultBuilder()
+                .filter(filter)
+                .generateImplementations(true)
+                .build();
+        new InterfaceObjectMapperFactory(different).get(Settings.class).load(node());
+        assertEquals(discoveryCalls * 2, calls.get());
+    }
+
+    @Test
+    void testGeneratedImplementationShared() throws SerializationException {
+        InterfaceMethodDiscoverer first = InterfaceMethodDiscoverer.defaultBuilder().generateImplementations(true).build();
+        InterfaceMethodDiscoverer second = InterfaceMethodDiscoverer.defaultBuilder().generateImplementations(true).build();
+        Settings settings = new InterfaceObjectMapperFactory(first).get(Settings.class).load(node());
+        Settings otherSettings = new InterfaceObjectMapperFactory(second).get(Settings.class).load(node());
+        assertSame(settings.getClass(), otherSettings.getClass());
+    }
+
+    public interface Box<T> {
+
+        T value();
+
+    }
+
+    @Test
+    void testUnsharedDiscoveryKeptByDiscoverer() throws ClassNotFoundException {
+        Class<?> pluginType = new PluginClassLoader(PluginSettings.class.getName()).loadClass(PluginSettings.class.getName());
+        AnnotatedType boxType = GenericTypeReflector.annotate(TypeFactory.parameterizedClass(Box.class, pluginType));
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder().build();
+        FieldDiscoverer.InstanceFactory<Object[]> factory = discoverer.discover(boxType, (name, type, annotations, deserializer, serializer) -> {
+        });
+        assertNotNull(factory);
+        assertSame(factory, discoverer.discover(boxType, (name, type, annotations, deserializer, serializer) -> {
+        }));
+        assertNotSame(factory, InterfaceMethodDiscoverer.defaultBuilder().build()
+                .discover(boxType, (name, type, annotations, deserializer, serializer) -> {
+                }));
+    }
+
+    @Test
+    void testPluginClassLoaderReleased() throws Exception {
+        WeakReference<ClassLoader> loader = discoverInPluginLoader();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(loader.get(), "Plugin class loader was not released");
+    }
+
+    private static WeakReference<ClassLoader> discoverInPluginLoader() throws ClassNotFoundException {
+        PluginClassLoader loader = new PluginClassLoader(PluginSettings.class.getName());
+        Class<?> pluginType = loader.loadClass(PluginSettings.class.getName());
+        assertNotSame(PluginSettings.class, pluginType);
+        FieldDiscoverer.InstanceFactory<Object[]> factory = InterfaceMethodDiscoverer.defaultBuilder().build()
+                .discover(GenericTypeReflector.annotate(pluginType), (name, type, annotations, deserializer, serializer) -> {
+                });
+        assertNotNull(factory);
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     * Loads a single class itself instead of delegating to the parent, as a plugin class loader would.
+     */
+    private static final class PluginClassLoader extends ClassLoader {
+
+        private final String className;
+
+        PluginClassLoader(String className) {
+            super(DiscoveryCacheTest.class.getClassLoader());
+            this.className = className;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className))
+                return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded != null)
+                    return loaded;
+                try (InputStream stream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                    byte[] bytes = readAll(stream);
+                    return defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private static byte[] readAll(InputStream stream) throws IOException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1)
+                output.write(buffer, 0, read);
+            return output.toByteArray();
+        }
+
+    }
+
+}
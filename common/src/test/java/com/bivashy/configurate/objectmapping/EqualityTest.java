@@ -0,0 +1,250 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.meta.Style;
+
+import io.leangen.geantyref.GenericTypeReflector;
+
+public class EqualityTest {
+
+    private ObjectMapper.Factory objectMapperFactory(boolean generateImplementations) {
+        return new InterfaceObjectMapperFactory(InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(generateImplementations)
+                .build());
+    }
+
+    private static ConfigurationNode node(String first, String second, double rate) {
+        return BasicConfigurationNode.root(n -> {
+            n.node("first").raw(first);
+            n.node("second").raw(second);
+            n.node("rate").raw(rate);
+        });
+    }
+
+    public interface Pair {
+
+        String first();
+
+        String second();
+
+        double rate();
+
+        void rate(double rate);
+
+    }
+
+    public interface OtherPair {
+
+        String first();
+
+        String second();
+
+        double rate();
+
+    }
+
+    @Style(cacheHashCode = true)
+    public interface ImmutablePair {
+
+        String first();
+
+        String second();
+
+        double rate();
+
+    }
+
+    @Style(cacheHashCode = true)
+    public interface Holder {
+
+        String name();
+
+        List<Pair> pairs();
+
+    }
+
+    @Style(cacheHashCode = true)
+    public interface Tagged {
+
+        String name();
+
+        List<String> tags();
+
+    }
+
+    public interface Sized {
+
+        String name();
+
+        default int size() {
+            return 3;
+        }
+
+        void size(int size);
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testStructuralEquality(boolean generateImplementations) throws SerializationException {
+        ObjectMapper<Pair> mapper = objectMapperFactory(generateImplementations).get(Pair.class);
+        Pair pair = mapper.load(node("a", "b", 0.5));
+        Pair equalPair = mapper.load(node("a", "b", 0.5));
+        Pair swappedPair = mapper.load(node("b", "a", 0.5));
+
+        assertEquals(pair, equalPair);
+        assertEquals(pair.hashCode(), equalPair.hashCode());
+        assertNotEquals(pair, swappedPair);
+        assertNotEquals(pair, null);
+        assertNotEquals(pair, "pair");
+
+        equalPair.rate(0.25);
+        assertNotEquals(pair, equalPair);
+        equalPair.rate(0.5);
+        assertEquals(pair, equalPair);
+    }
+
+    @Test
+    void testDifferentInterfaceRejected() throws SerializationException {
+        ObjectMapper.Factory factory = objectMapperFactory(false);
+        Pair pair = factory.get(Pair.class).load(node("a", "b", 0.5));
+        OtherPair otherPair = factory.get(OtherPair.class).load(node("a", "b", 0.5));
+        assertNotEquals(pair, otherPair);
+        assertNotEquals(otherPair, pair);
+    }
+
+    @Test
+    void testEqualAcrossImplementations() throws SerializationException {
+        Pair proxyPair = objectMapperFactory(false).get(Pair.class).load(node("a", "b", 0.5));
+        Pair generatedPair = objectMapperFactory(true).get(Pair.class).load(node("a", "b", 0.5));
+        assertNotSame(proxyPair.getClass(), generatedPair.getClass());
+        assertEquals(proxyPair, generatedPair);
+        assertEquals(generatedPair, proxyPair);
+        assertEquals(proxyPair.hashCode(), generatedPair.hashCode());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testHashSetDeduplication(boolean generateImplementations) throws SerializationException {
+        ObjectMapper<ImmutablePair> mapper = objectMapperFactory(generateImplementations).get(ImmutablePair.class);
+        Set<ImmutablePair> pairs = new HashSet<>();
+        for (int i = 0; i < 100; i++)
+            pairs.add(mapper.load(node("a", String.valueOf(i % 10), 0.5)));
+        assertEquals(10, pairs.size());
+
+        ImmutablePair pair = mapper.load(node("a", "b", 0.5));
+        assertEquals(pair.hashCode(), pair.hashCode());
+        assertEquals(mapper.load(node("a", "b", 0.5)).hashCode(), pair.hashCode());
+    }
+
+    @Test
+    void testObjectMethodsDoNotAllocate() throws SerializationException {
+        ObjectMapper<ImmutablePair> mapper = objectMapperFactory(true).get(ImmutablePair.class);
+        ImmutablePair pair = mapper.load(node("a", "b", 0.5));
+        ImmutablePair equalPair = mapper.load(node("a", "b", 0.5));
+        ImmutablePair otherPair = mapper.load(node("a", "b", 0.25));
+        int[] matches = new int[1];
+        long allocated = Allocations.measure(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                if (pair.equals(equalPair) && !pair.equals(otherPair) && pair.hashCode() == equalPair.hashCode())
+                    matches[0]++;
+            }
+        });
+        assertEquals(200_000, matches[0]);
+        assertTrue(allocated < Allocations.LIMIT, "equals and hashCode allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testHashCodeOfMutableValuesIsNotCached() throws SerializationException {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        ConfigurationOptions options = ConfigurationOptions.defaults().serializers(builder -> builder
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(type -> GenericTypeReflector.erase(type) == Pair.class, factory));
+        Holder holder = factory.get(Holder.class).load(BasicConfigurationNode.root(options, n -> {
+            n.node("name").raw("holder");
+            ConfigurationNode pair = n.node("pairs").appendListNode();
+            pair.node("first").raw("a");
+            pair.node("second").raw("b");
+            pair.node("rate").raw(0.5);
+        }));
+        int hashCode = holder.hashCode();
+
+        holder.pairs().get(0).rate(0.25);
+        assertNotEquals(hashCode, holder.hashCode());
+    }
+
+    @Test
+    void testHashCodeOfCollectionsIsNotCached() throws SerializationException {
+        Tagged tagged = objectMapperFactory(false).get(Tagged.class).load(BasicConfigurationNode.root(n -> {
+            n.node("name").raw("tagged");
+            n.node("tags").appendListNode().raw("first");
+        }));
+        int hashCode = tagged.hashCode();
+
+        tagged.tags().add("second");
+        assertNotEquals(hashCode, tagged.hashCode());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testUnsetValueEqualToDefault(boolean generateImplementations) throws SerializationException {
+        ObjectMapper<Sized> mapper = objectMapperFactory(generateImplementations).get(Sized.class);
+        Sized unset = mapper.load(BasicConfigurationNode.root(n -> n.node("name").raw("sized")));
+        Sized explicit = mapper.load(BasicConfigurationNode.root(n -> {
+            n.node("name").raw("sized");
+            n.node("size").raw(3);
+        }));
+
+        assertEquals(3, unset.size());
+        assertEquals(unset, explicit);
+        assertEquals(explicit, unset);
+        assertEquals(unset.hashCode(), explicit.hashCode());
+        explicit.size(4);
+        assertNotEquals(unset, explicit);
+        assertNotEquals(explicit, unset);
+    }
+
+    @Test
+    void testOtherImplementationsNotEqual() throws SerializationException {
+        Pair pair = objectMapperFactory(false).get(Pair.class).load(node("a", "b", 0.5));
+        Pair other = new Pair() {
+            @Override
+            public String first() {
+                return "a";
+            }
+
+            @Override
+            public String second() {
+                return "b";
+            }
+
+            @Override
+            public double rate() {
+                return 0.5;
+            }
+
+            @Override
+            public void rate(double rate) {
+            }
+        };
+        assertNotEquals(pair, other);
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+class GeneratedImplementationTest {
+
+    // Generator failures fall back to proxies, they are logged by the generator
+    private static final Logger GENERATOR_LOGGER = Logger.getLogger("com.bivashy.configurate.objectmapping.common.ImplementationGenerator");
+    private final ConfigurationOptions options = configurationOptions();
+    private final List<LogRecord> failures = new ArrayList<>();
+    private final Handler failureHandler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            failures.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @BeforeEach
+    void captureFailures() {
+        GENERATOR_LOGGER.addHandler(failureHandler);
+    }
+
+    @AfterEach
+    void assertNoFailures() {
+        GENERATOR_LOGGER.removeHandler(failureHandler);
+        assertEquals(Collections.emptyList(), failures);
+    }
+
+    private ConfigurationOptions configurationOptions() {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(true)
+                .build();
+        return ConfigurationOptions.defaults().serializers(opt -> opt
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(InterfaceObjectMapperFactory::applicable, new InterfaceObjectMapperFactory(discoverer)));
+    }
+
+    private ConfigurationNode node() {
+        return BasicConfigurationNode.root(options, n -> {
+            n.node("name").raw("region");
+            n.node("radius").raw(16);
+            n.node("rate").raw(0.5d);
+            n.node("enabled").raw(true);
+            n.node("flags").act(flags -> {
+                flags.appendListNode().raw("pvp");
+                flags.appendListNode().raw("build");
+            });
+            n.node("nested", "value").raw(7L);
+        });
+    }
+
+    @ConfigInterface
+    public interface Region {
+
+        String name();
+
+        int radius();
+
+        double rate();
+
+        boolean enabled();
+
+        List<String> flags();
+
+        Nested nested();
+
+        default String owner() {
+            return "server";
+        }
+
+        @Transient
+        default String describe(String prefix) {
+            return prefix + name() + "@" + radius();
+        }
+
+        void radius(int radius);
+
+        Region name(String name);
+
+    }
+
+    @ConfigInterface
+    public interface Nested {
+
+        long value();
+
+    }
+
+    @ConfigInterface
+    public interface Defaults {
+
+        default int num() {
+            return 4;
+        }
+
+        default boolean flag() {
+            return true;
+        }
+
+        default double rate() {
+            return 0.25;
+        }
+
+        void num(int num);
+
+    }
+
+    @Test
+    void testGeneratedClassUsed() throws SerializationException {
+        Region region = node().get(Region.class);
+        assertNotNull(region);
+        assertFalse(Proxy.isProxyClass(region.getClass()));
+        assertFalse(Proxy.isProxyClass(region.nested().getClass()));
+        assertArrayEquals(new Class[]{Region.class}, region.getClass().getInterfaces());
+    }
+
+    @Test
+    void testAccessors() throws SerializationException {
+        Region region = node().get(Region.class);
+        assertEquals("region", region.name());
+        assertEquals(16, region.radius());
+        assertEquals(0.5d, region.rate());
+        assertTrue(region.enabled());
+        assertEquals(Arrays.asList("pvp", "build"), region.flags());
+        assertEquals(7L, region.nested().value());
+        assertEquals("server", region.owner());
+        assertEquals("region: region@16", region.describe("region: "));
+    }
+
+    @Test
+    void testSetters() throws SerializationException {
+        Region region = node().get(Region.class);
+        region.radius(32);
+        assertSame(region, region.name("spawn"));
+        assertEquals(32, region.radius());
+        assertEquals("spawn", region.name());
+    }
+
+    @Test
+    void testObjectMethods() throws SerializationException {
+        Region region = node().get(Region.class);
+        Region equalRegion = node().get(Region.class);
+        assertEquals(region, equalRegion);
+        assertEquals(region.hashCode(), equalRegion.hashCode());
+        assertTrue(region.toString().contains("name=region"));
+
+        equalRegion.radius(1);
+        assertNotEquals(region, equalRegion);
+    }
+
+    @Test
+    void testSave() throws SerializationException {
+        ConfigurationNode source = node();
+        Region region = source.get(Region.class);
+        region.radius(48);
+
+        ConfigurationNode target = BasicConfigurationNode.root(options);
+        target.set(Region.class, region);
+        assertEquals(48, target.node("radius").getInt());
+        assertEquals("region", target.node("name").getString());
+        assertEquals(7L, target.node("nested", "value").getLong());
+    }
+
+    @Test
+    void testPrimitiveDefaultMethods() throws SerializationException {
+        // Not empty, empty values are shared proxies
+        Defaults defaults = BasicConfigurationNode.root(options, n -> n.node("rate").raw(0.5)).get(Defaults.class);
+        assertFalse(Proxy.isProxyClass(defaults.getClass()));
+        assertEquals(4, defaults.num());
+        assertTrue(defaults.flag());
+        assertEquals(0.5, defaults.rate());
+
+        ConfigurationNode target = BasicConfigurationNode.root(options);
+        target.set(Defaults.class, defaults);
+        assertEquals(4, target.node("num").getInt());
+        assertTrue(target.node("flag").getBoolean());
+        assertEquals(0.5, target.node("rate").getDouble());
+
+        defaults.num(0);
+        assertEquals(0, defaults.num());
+        ConfigurationNode loaded = BasicConfigurationNode.root(options, n -> n.node("flag").raw(false));
+        assertFalse(loaded.get(Defaults.class).flag());
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+class HierarchyTest {
+
+    private static ConfigurationNode node() {
+        return BasicConfigurationNode.root(n -> {
+            n.node("cooldown").raw(5);
+            n.node("permission").raw("admin");
+            n.node("name").raw("kit");
+            n.node("value").raw("value");
+        });
+    }
+
+    public interface HasCooldown {
+
+        int cooldown();
+
+    }
+
+    public interface HasPermission extends HasCooldown {
+
+        String permission();
+
+    }
+
+    public interface HasName extends HasCooldown {
+
+        String name();
+
+    }
+
+    public interface Kit extends HasPermission, HasName {
+
+    }
+
+    public interface Command extends HasPermission {
+
+    }
+
+    public interface Valued<T> {
+
+        T value();
+
+        String value(int index);
+
+    }
+
+    public interface StringValued extends Valued<String> {
+
+        @Override
+        @Transient
+        default String value(int index) {
+            return value().substring(index);
+        }
+
+    }
+
+    public interface IntegerValued extends Valued<Integer> {
+
+        @Override
+        @Transient
+        default String value(int index) {
+            return String.valueOf(value() + index);
+        }
+
+    }
+
+    @Test
+    void testParentsFilteredOnce() throws SerializationException {
+        Map<String, Integer> calls = new ConcurrentHashMap<>();
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .filter((method, type) -> {
+                    calls.merge(method.getName(), 1, Integer::sum);
+                    return true;
+                })
+                .build();
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory(discoverer);
+
+        Kit kit = factory.get(Kit.class).load(node());
+        assertEquals(5, kit.cooldown());
+        assertEquals("admin", kit.permission());
+        assertEquals("kit", kit.name());
+        assertEquals(3, ProxyInstances.slots(kit).layout().size());
+        assertEquals(1, calls.get("cooldown"));
+
+        Command command = factory.get(Command.class).load(node());
+        assertEquals(5, command.cooldown());
+        assertEquals(1, calls.get("cooldown"));
+        assertEquals(1, calls.get("permission"));
+    }
+
+    @Test
+    void testTypeArgumentsResolvedSeparately() throws SerializationException {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        StringValued stringValued = factory.get(StringValued.class).load(node());
+        assertEquals("value", stringValued.value());
+        assertEquals("lue", stringValued.value(2));
+
+        IntegerValued integerValued = factory.get(IntegerValued.class).load(BasicConfigurationNode.root(n -> n.node("value").raw(4)));
+        assertEquals(4, integerValued.value());
+        assertEquals("6", integerValued.value(2));
+    }
+
+}
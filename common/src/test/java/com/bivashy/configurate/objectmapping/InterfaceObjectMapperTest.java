@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.*;
@@ -17,9 +18,11 @@ import org.spongepowered.configurate.ConfigurationOptions;
 import org.spongepowered.configurate.objectmapping.ObjectMapper;
 import org.spongepowered.configurate.serialize.SerializationException;
 
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
 import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
 import com.bivashy.configurate.objectmapping.meta.Comment;
 import com.bivashy.configurate.objectmapping.meta.Setting;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
 
 import io.leangen.geantyref.TypeToken;
 
@@ -253,6 +256,52 @@ class InterfaceObjectMapperTest {
 
     }
 
+    @ConfigInterface
+    public interface SavedValues {
+
+        String name();
+
+        int amount();
+
+        default String greeting() {
+            return "hi";
+        }
+
+    }
+
+    @Test
+    void testSaveReadsStoredValues() throws SerializationException {
+        final ObjectMapper<SavedValues> mapper = objectMapperFactory().get(SavedValues.class);
+        final SavedValues values = mapper.load(BasicConfigurationNode.root(configurationOptions(), n -> n.node("name").raw("test")));
+
+        final BasicConfigurationNode node = BasicConfigurationNode.root(configurationOptions());
+        mapper.save(values, node);
+
+        assertEquals("test", node.node("name").getString());
+        assertEquals(0, node.node("amount").getInt(-1));
+        assertEquals("hi", node.node("greeting").getString());
+    }
+
+    @Test
+    void testSaveRespectsGetterInvokers() throws SerializationException {
+        final InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .invoker(ProxyMethodInvoker.of((layout, method, next) -> {
+                    if (!method.getName().equals("name") || method.getParameterCount() != 0)
+                        return next;
+                    return (proxy, args, slots) -> ((String) next.handle(proxy, args, slots)).toUpperCase(Locale.ROOT);
+                }))
+                .build();
+        final ObjectMapper<SavedValues> mapper = new InterfaceObjectMapperFactory(discoverer).get(SavedValues.class);
+        final SavedValues values = mapper.load(BasicConfigurationNode.root(configurationOptions(), n -> n.node("name").raw("test")));
+
+        final BasicConfigurationNode node = BasicConfigurationNode.root(configurationOptions());
+        mapper.save(values, node);
+
+        assertEquals("TEST", values.name());
+        assertEquals("TEST", node.node("name").getString());
+        assertEquals("hi", node.node("greeting").getString());
+    }
+
     @ConfigInterface
     public interface HandleNonVirtualNulls {
         @Comment("Test")
@@ -0,0 +1,123 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.LazyLoadException;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Matches;
+import com.bivashy.configurate.objectmapping.meta.Required;
+
+class LazyTest {
+
+    private static final ConfigurationOptions LAZY_OPTS = ConfigurationOptions.defaults()
+            .serializers(opt -> opt.register(InterfaceObjectMapperFactory::applicable, new InterfaceObjectMapperFactory(
+                    InterfaceMethodDiscoverer.defaultBuilder().generateImplementations(true).build()).lazy()));
+
+    @ConfigInterface
+    public interface Root {
+
+        String name();
+
+        void name(String name);
+
+        int size();
+
+        Section section();
+
+        List<Section> sections();
+
+    }
+
+    @ConfigInterface
+    public interface Section {
+
+        @Matches("[a-z]+")
+        String id();
+
+        @Required
+        String value();
+
+    }
+
+    private static ConfigurationNode node() {
+        return BasicConfigurationNode.root(LAZY_OPTS, n -> {
+            n.node("name").raw("root");
+            n.node("size").raw(3);
+            n.node("section", "id").raw("main");
+            n.node("section", "value").raw("first");
+            n.node("sections").appendListNode().node("id").raw("other");
+            n.node("sections").node(0, "value").raw("second");
+        });
+    }
+
+    @Test
+    void testValuesLoadedOnFirstAccess() throws SerializationException {
+        ConfigurationNode node = node();
+        Root root = node.get(Root.class);
+        assertTrue(Proxy.isProxyClass(root.getClass()));
+
+        node.node("name").raw("changed");
+        assertEquals("changed", root.name());
+        node.node("name").raw("ignored");
+        assertEquals("changed", root.name());
+        assertEquals(3, root.size());
+        assertEquals("first", root.section().value());
+        assertEquals("second", root.sections().get(0).value());
+    }
+
+    @Test
+    void testFailureOnAccess() throws SerializationException {
+        ConfigurationNode node = node();
+        node.node("section", "id").raw("Not valid");
+        node.node("sections").node(0).removeChild("value");
+        Root root = node.get(Root.class);
+
+        assertEquals("root", root.name());
+        Section section = root.section();
+        assertEquals("first", section.value());
+        LazyLoadException exception = assertThrows(LazyLoadException.class, section::id);
+        assertNotNull(exception.getCause().path());
+        assertThrows(LazyLoadException.class, section::id);
+        assertThrows(LazyLoadException.class, () -> root.sections().get(0).value());
+    }
+
+    @Test
+    void testValidateAll() throws SerializationException {
+        ProxyInstances.validateAll(node().get(Root.class));
+
+        ConfigurationNode node = node();
+        node.node("section", "id").raw("Not valid");
+        node.node("sections").node(0).removeChild("value");
+        SerializationException exception = assertThrows(SerializationException.class, () -> ProxyInstances.validateAll(node.get(Root.class)));
+        assertEquals(1, exception.getSuppressed().length);
+    }
+
+    @Test
+    void testMissingDefaultsCopied() throws SerializationException {
+        ConfigurationNode node = node();
+        node.removeChild("size");
+        Root root = node.get(Root.class);
+        assertEquals(0, node.node("size").getInt(-1));
+        assertEquals(0, root.size());
+    }
+
+    @Test
+    void testSetterBeforeLoad()throws SerializationException {
+        Root root = node().get(Root.class);
+        root.name("set");
+        assertEquals("set", root.name());
+        assertEquals(node().get(Root.class).section(), root.section());
+    }
+
+}
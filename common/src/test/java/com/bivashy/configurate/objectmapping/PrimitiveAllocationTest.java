@@ -0,0 +1,97 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+
+class PrimitiveAllocationTest {
+
+    private static final int ITERATIONS = 100_000;
+
+    private ConfigurationNode node() {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(true)
+                .build();
+        ConfigurationOptions options = ConfigurationOptions.defaults().serializers(opt -> opt
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(InterfaceObjectMapperFactory::applicable, new InterfaceObjectMapperFactory(discoverer)));
+        return BasicConfigurationNode.root(options, n -> {
+            n.node("radius").raw(16);
+            n.node("rate").raw(0.5d);
+            n.node("threshold").raw(1000L);
+            n.node("enabled").raw(true);
+        });
+    }
+
+    @ConfigInterface
+    public interface Limits {
+
+        int radius();
+
+        double rate();
+
+        long threshold();
+
+        boolean enabled();
+
+        void radius(int radius);
+
+        Limits rate(double rate);
+
+        void threshold(long threshold);
+
+        void enabled(boolean enabled);
+
+    }
+
+    @Test
+    void testPrimitiveSlots() throws SerializationException {
+        Limits limits = node().get(Limits.class);
+        assertNotNull(limits);
+        assertEquals(16, limits.radius());
+        assertEquals(0.5d, limits.rate());
+        assertEquals(1000L, limits.threshold());
+        assertTrue(limits.enabled());
+
+        assertSame(limits, limits.rate(0.25d));
+        limits.radius(32);
+        limits.threshold(Long.MAX_VALUE);
+        limits.enabled(false);
+        assertEquals(32, limits.radius());
+        assertEquals(0.25d, limits.rate());
+        assertEquals(Long.MAX_VALUE, limits.threshold());
+        assertFalse(limits.enabled());
+    }
+
+    @Test
+    void testPrimitiveAccessorsDoNotAllocate() throws SerializationException {
+        Limits limits = node().get(Limits.class);
+        assertNotNull(limits);
+        double[] checksum = new double[1];
+        long allocated = Allocations.measure(() -> checksum[0] += readAndWrite(limits, ITERATIONS));
+
+        assertTrue(checksum[0] > 0);
+        assertTrue(allocated < Allocations.LIMIT, "Primitive accessors allocated " + allocated + " bytes");
+    }
+
+    private static double readAndWrite(Limits limits, int iterations) {
+        double checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            limits.radius(i);
+            limits.rate(i * 0.5d);
+            limits.threshold(i * 3L);
+            limits.enabled((i & 1) == 0);
+            checksum += limits.radius() + limits.rate() + limits.threshold() + (limits.enabled() ? 1 : 0);
+        }
+        return checksum;
+    }
+
+}
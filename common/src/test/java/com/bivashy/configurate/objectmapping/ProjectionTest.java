@@ -0,0 +1,140 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.Projection;
+import com.bivashy.configurate.objectmapping.meta.Matches;
+import com.bivashy.configurate.objectmapping.meta.Setting;
+
+class ProjectionTest {
+
+    private static final InterfaceObjectMapperFactory FACTORY = new InterfaceObjectMapperFactory();
+    private static final ConfigurationOptions OPTIONS = ConfigurationOptions.defaults()
+            .serializers(opt -> opt.register(InterfaceObjectMapperFactory::applicable, FACTORY));
+
+    @ConfigInterface
+    public interface Root {
+
+        String name();
+
+        @Setting("db")
+        Database database();
+
+        @Setting(nodeFromParent = true)
+        Messages messages();
+
+        List<String> values();
+
+        default int limit() {
+            return 10;
+        }
+
+    }
+
+    @ConfigInterface
+    public interface Database {
+
+        String url();
+
+        @Matches("[a-z]+")
+        String user();
+
+    }
+
+    @ConfigInterface
+    public interface Messages {
+
+        String prefix();
+
+        String suffix();
+
+    }
+
+    private static ConfigurationNode node() {
+        return BasicConfigurationNode.root(OPTIONS, n -> {
+            n.node("name").raw("root");
+            n.node("db", "url").raw("jdbc:h2:mem");
+            n.node("db", "user").raw("Not valid");
+            n.node("prefix").raw("[");
+            n.node("suffix").raw("]");
+            n.node("values").appendListNode().raw("first");
+            n.node("limit").raw(5);
+        });
+    }
+
+    @Test
+    void testAccessorSelection() throws SerializationException {
+        Root root = FACTORY.projection(Root.class)
+                .select(Root::name)
+                .select(config -> config.database().url())
+                .load(node());
+
+        assertEquals("root", root.name());
+        assertEquals("jdbc:h2:mem", root.database().url());
+        // Invalid, but not selected, so it is never deserialized
+        assertThrows(IllegalStateException.class, () -> root.database().user());
+        assertThrows(IllegalStateException.class, root::values);
+        assertThrows(IllegalStateException.class, root::messages);
+    }
+
+    @Test
+    void testPathSelection() throws SerializationException {
+        Root root = FACTORY.projection(Root.class)
+                .select("db", "url")
+                .select("suffix")
+                .select("values", 0)
+                .load(node());
+
+        assertEquals("jdbc:h2:mem", root.database().url());
+        assertEquals("]", root.messages().suffix());
+        assertEquals(1, root.values().size());
+        assertThrows(IllegalStateException.class, () -> root.messages().prefix());
+        assertThrows(IllegalStateException.class, root::name);
+    }
+
+    @Test
+    void testDefaultUnselected() throws SerializationException {
+        Root root = FACTORY.projection(Root.class)
+                .select(config -> config.messages().prefix())
+                .defaultUnselected(true)
+                .load(node());
+
+        assertEquals("[", root.messages().prefix());
+        assertNull(root.messages().suffix());
+        assertNull(root.name());
+        assertEquals(10, root.limit());
+    }
+
+    @Test
+    void testObjectMethodsSkipUnselected() throws SerializationException {
+        Projection<Root> projection = FACTORY.projection(Root.class).select(Root::name);
+        Root root = projection.load(node());
+        Root same = projection.load(node());
+        Root other = FACTORY.projection(Root.class).select(Root::values).load(node());
+
+        assertEquals("[" + Root.class + "]{name=root}", root.toString());
+        assertEquals(root, same);
+        assertEquals(root.hashCode(), same.hashCode());
+        assertNotEquals(root, other);
+        // Other slots hold defaults of unselected values, so they are compared
+        assertNotEquals(root, FACTORY.projection(Root.class).select(Root::name).defaultUnselected(true).load(node()));
+    }
+
+    @Test
+    void testSelectedValueChecked() throws SerializationException {
+        Projection<Root> projection = FACTORY.projection(Root.class).select("db", "user");
+        assertThrows(SerializationException.class, () -> projection.load(node()));
+        assertThrows(SerializationException.class, () -> FACTORY.projection(Root.class).select("missing").load(node()));
+        assertThrows(IllegalArgumentException.class, () -> FACTORY.projection(Root.class).select(Object::toString));
+    }
+
+}
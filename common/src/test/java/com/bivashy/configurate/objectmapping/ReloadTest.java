@@ -0,0 +1,197 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.spongepowered.configurate.ConfigurateException;
+import org.spongepowered.configurate.hocon.HoconConfigurationLoader;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ReloadableConfig;
+import com.bivashy.configurate.objectmapping.meta.Cached;
+import com.bivashy.configurate.objectmapping.meta.Matches;
+import com.bivashy.configurate.objectmapping.meta.Required;
+import com.bivashy.configurate.objectmapping.meta.Style;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+class ReloadTest {
+
+    private final InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+    @TempDir
+    Path directory;
+
+    private HoconConfigurationLoader loader(Path file) {
+        return HoconConfigurationLoader.builder()
+                .path(file)
+                .defaultOptions(opt -> opt.serializers(builder -> builder
+                        .registerAll(TypeSerializerCollection.defaults())
+                        .register(InterfaceObjectMapperFactory::applicable, factory)))
+                .build();
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("main.conf"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @ConfigInterface
+    public interface MainConfig {
+
+        @Matches("[a-z.]+")
+        String host();
+
+        int port();
+
+        @Required
+        Database database();
+
+        List<String> tags();
+
+        @Cached
+        @Transient
+        default String address() {
+            return host() + ":" + port();
+        }
+
+    }
+
+    @ConfigInterface
+    public interface Database {
+
+        String url();
+
+    }
+
+    @ConfigInterface
+    @Style(cacheHashCode = true)
+    public interface Server {
+
+        String name();
+
+        Endpoint endpoint();
+
+        @Cached
+        @Transient
+        default String url() {
+            return "jdbc://" + endpoint().host();
+        }
+
+    }
+
+    @ConfigInterface
+    public interface Endpoint {
+
+        String host();
+
+    }
+
+    @Test
+    void testReloadKeepsInstances() throws IOException {
+        Path file = write("host = localhost\nport = 25565\ndatabase { url = first }\ntags = [a]");
+        ReloadableConfig<MainConfig> config = factory.reloadable(MainConfig.class, loader(file));
+        MainConfig main = config.get();
+        Database database = main.database();
+        assertEquals("localhost:25565", main.address());
+
+        write("host = example.org\nport = 8080\ndatabase { url = second }\ntags = [b, c]");
+        config.reload();
+
+        assertSame(main, config.get());
+        assertSame(database, main.database());
+        assertEquals("example.org", main.host());
+        assertEquals("second", database.url());
+        assertEquals("example.org:8080", main.address());
+        assertEquals(2, main.tags().size());
+    }
+
+    @Test
+    void testReloadRecomputesResultsOfNestedValues() throws IOException {
+        Path file = write("name = main\nendpoint { host = a }");
+        ReloadableConfig<Server> config = factory.reloadable(Server.class, loader(file));
+        Server server = config.get();
+        Endpoint endpoint = server.endpoint();
+        assertEquals("jdbc://a", server.url());
+        int hashCode = server.hashCode();
+
+        write("name = main\nendpoint { host = b }");
+        config.reload();
+
+        assertSame(endpoint, server.endpoint());
+        assertEquals("jdbc://b", server.url());
+        Server loaded = loader(file).load().get(Server.class);
+        assertEquals(loaded.hashCode(), server.hashCode());
+        assertNotEquals(hashCode, server.hashCode());
+        assertEquals(loaded, server);
+    }
+
+    @Test
+    void testInvalidReloadKeepsPreviousState() throws IOException {
+        Path file = write("host = localhost\nport = 25565\ndatabase { url = first }");
+        ReloadableConfig<MainConfig> config = factory.reloadable(MainConfig.class, loader(file));
+        MainConfig main = config.get();
+
+        write("host = \"NOT A HOST\"\nport = 1\ndatabase { url = second }");
+        assertThrows(ConfigurateException.class, config::reload);
+        write("host = example.org\nport = 1");
+        assertThrows(ConfigurateException.class, config::reload);
+
+        assertEquals("localhost", main.host());
+        assertEquals(25565, main.port());
+        assertEquals("first", main.database().url());
+    }
+
+    @Test
+    void testWatchReloadsChangedFile() throws IOException, InterruptedException {
+        Path file = write("host = localhost\nport = 25565\ndatabase { url = first }");
+        BlockingQueue<ConfigurateException> errors = new LinkedBlockingQueue<>();
+        try (ReloadableConfig<MainConfig> config = factory.reloadable(MainConfig.class, loader(file))) {
+            config.watch(file, Duration.ofMillis(50), errors::add);
+            MainConfig main = config.get();
+
+            write("host = \"NOT A HOST\"\nport = 1\ndatabase { url = first }");
+            assertNotNull(errors.poll(30, TimeUnit.SECONDS));
+            assertEquals("localhost", main.host());
+
+            write("host = example.org\nport = 8080\ndatabase { url = first }");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (main.port() != 8080 && System.nanoTime() < deadline)
+                Thread.sleep(10);
+            assertEquals("example.org", main.host());
+            assertEquals(8080, main.port());
+            assertThrows(IllegalStateException.class, () -> config.watch(file, Duration.ZERO, errors::add));
+        }
+    }
+
+    @Test
+    void testWatchIgnoresOtherFilesWhileDebouncing() throws IOException, InterruptedException {
+        Path file = write("host = localhost\nport = 25565\ndatabase { url = first }");
+        Path other = directory.resolve("other.conf");
+        BlockingQueue<ConfigurateException> errors = new LinkedBlockingQueue<>();
+        try (ReloadableConfig<MainConfig> config = factory.reloadable(MainConfig.class, loader(file))) {
+            config.watch(file, Duration.ofMillis(200), errors::add);
+            MainConfig main = config.get();
+
+            write("host = example.org\nport = 8080\ndatabase { url = first }");
+            // Writes to another file more often than the debounce, they must not postpone the reload
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            for (int i = 0; main.port() != 8080 && System.nanoTime() < deadline; i++) {
+                Files.write(other, String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+                Thread.sleep(20);
+            }
+            assertEquals(8080, main.port());
+            assertTrue(errors.isEmpty());
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+
+class SetterTest {
+
+    private ObjectMapper.Factory objectMapperFactory() {
+        return new InterfaceObjectMapperFactory();
+    }
+
+    @ConfigInterface
+    public interface Server {
+
+        String host();
+
+        void host(String host);
+
+        int port();
+
+        Server port(int port);
+
+    }
+
+    @Test
+    void testSetters() throws SerializationException {
+        final ObjectMapper<Server> mapper = objectMapperFactory().get(Server.class);
+        final Server server = mapper.load(BasicConfigurationNode.root(n -> {
+            n.node("host").raw("localhost");
+            n.node("port").raw(25565);
+        }));
+
+        assertEquals("localhost", server.host());
+        assertEquals(25565, server.port());
+
+        server.host("example.org");
+        assertSame(server, server.port(25566));
+
+        assertEquals("example.org", server.host());
+        assertEquals(25566, server.port());
+    }
+
+}
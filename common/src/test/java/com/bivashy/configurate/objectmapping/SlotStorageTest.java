@@ -0,0 +1,167 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.objectmapping.ObjectMapper;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlots;
+
+class SlotStorageTest {
+
+    private final BasicConfigurationNode node = BasicConfigurationNode.root(n -> {
+        n.node("value").raw("test");
+        n.node("amount").raw(2);
+    });
+
+    public interface Base {
+
+        String value();
+
+    }
+
+    @ConfigInterface
+    public interface Overloaded extends Base {
+
+        @Override
+        String value();
+
+        void value(String value);
+
+        @Transient
+        default String value(String prefix, String suffix) {
+            return prefix + value() + suffix;
+        }
+
+        int amount();
+
+        Overloaded amount(int amount);
+
+        @Transient
+        default int amount(int multiplier, int offset) {
+            return amount() * multiplier + offset;
+        }
+
+    }
+
+    @ConfigInterface
+    public interface Stored {
+
+        String name();
+
+        int count();
+
+        void count(int count);
+
+        double ratio();
+
+        List<String> tags();
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testValuesStoredBySlot(boolean generateImplementations) throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .generateImplementations(generateImplementations)
+                .build();
+        Stored stored = new InterfaceObjectMapperFactory(discoverer).get(Stored.class).load(BasicConfigurationNode.root(n -> {
+            n.node("name").raw("first");
+            n.node("count").raw(3);
+            n.node("tags").raw(Arrays.asList("a", "b"));
+        }));
+        ProxySlots slots = ProxyInstances.slots(stored);
+        assertNotNull(slots);
+        ProxySlotLayout layout = slots.layout();
+
+        assertEquals(4, layout.size());
+        for (int slot = 0; slot < layout.size(); slot++)
+            assertEquals(slot, layout.slot(layout.method(slot)));
+        int name = layout.slot("name");
+        int count = layout.slot("count");
+        int ratio = layout.slot("ratio");
+        assertEquals("first", slots.get(name));
+        assertEquals(3, slots.get(count));
+        assertEquals(Arrays.asList("a", "b"), slots.get(layout.slot("tags")));
+        assertFalse(slots.isSet(ratio));
+        assertEquals(0d, stored.ratio());
+
+        stored.count(5);
+        assertEquals(5, slots.get(count));
+        slots.set(name, "second");
+        slots.set(ratio, 0.5);
+        assertTrue(slots.isSet(ratio));
+        assertEquals("second", stored.name());
+        assertEquals(0.5, stored.ratio());
+        assertTrue(stored.toString().endsWith("{name=second, count=5, ratio=0.5, tags=[a, b]}"), stored.toString());
+    }
+
+    @Test
+    void testOverloadsDontShareSlots() throws SerializationException, NoSuchMethodException {
+        Overloaded overloaded = new InterfaceObjectMapperFactory().get(Overloaded.class).load(node);
+        ProxySlots slots = ProxyInstances.slots(overloaded);
+        assertNotNull(slots);
+        ProxySlotLayout layout = slots.layout();
+
+        assertEquals(2, layout.size());
+        int value = layout.slot(Overloaded.class.getMethod("value"));
+        int amount = layout.slot(Overloaded.class.getMethod("amount"));
+        assertNotEquals(value, amount);
+        assertEquals(value, layout.slot(Base.class.getMethod("value")));
+        assertEquals(-1, layout.slot(Overloaded.class.getMethod("value", String.class, String.class)));
+        assertEquals(-1, layout.slot(Overloaded.class.getMethod("value", String.class)));
+        assertEquals(-1, layout.slot(Overloaded.class.getMethod("amount", int.class, int.class)));
+
+        assertEquals("<test>", overloaded.value("<", ">"));
+        assertEquals(7, overloaded.amount(3, 1));
+        overloaded.value("other");
+        assertSame(overloaded, overloaded.amount(5));
+        assertEquals("other", slots.get(value));
+        assertEquals(5, slots.get(amount));
+        assertEquals("<other>", overloaded.value("<", ">"));
+        assertEquals(10, overloaded.amount(2, 0));
+    }
+
+    @Test
+    void testInvokersReceiveSlots() throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .invoker(ProxyMethodInvoker.of((layout, method, next) -> {
+                    if (!method.getName().equals("value") || method.getParameterCount() != 0)
+                        return next;
+                    int slot = layout.slot(method);
+                    return (proxy, args, slots) -> ((String) slots.get(slot)).toUpperCase(Locale.ROOT);
+                }))
+                .invoker(new ProxyMethodInvoker() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args, ProxySlots slots) {
+                        if (!method.getName().equals("amount") || method.getParameterCount() != 0)
+                            return null;
+                        return (Integer) slots.get(slots.layout().slot(method)) + 1;
+                    }
+                })
+                .build();
+        ObjectMapper<Overloaded> mapper = new InterfaceObjectMapperFactory(discoverer).get(Overloaded.class);
+        Overloaded overloaded = mapper.load(node);
+
+        assertEquals("TEST", overloaded.value());
+        assertEquals("<TEST>", overloaded.value("<", ">"));
+        assertEquals(3, overloaded.amount());
+        assertEquals(9, overloaded.amount(3, 0));
+    }
+
+}
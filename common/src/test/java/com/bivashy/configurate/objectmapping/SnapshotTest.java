@@ -0,0 +1,116 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.DiscoverySnapshot;
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.proxy.ProxyMethodInvoker;
+import com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout;
+
+class SnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static ConfigurationNode node() {
+        return BasicConfigurationNode.root(n -> {
+            n.node("first").raw("a");
+            n.node("second").raw("b");
+        });
+    }
+
+    public interface Parent {
+
+        String first();
+
+    }
+
+    public interface Snapshotted extends Parent {
+
+        String second();
+
+    }
+
+    private static ProxySlotLayout layout(Object instance) {
+        return ProxyInstances.slots(instance).layout();
+    }
+
+    private static Snapshotted load(DiscoverySnapshot snapshot) throws SerializationException {
+        // Each call adds another invoker, so discovery results of previous calls are not shared
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder()
+                .invoker(ProxyMethodInvoker.of((layout, method, next) -> next))
+                .snapshot(snapshot)
+                .build();
+        return new InterfaceObjectMapperFactory(discoverer).get(Snapshotted.class).load(node());
+    }
+
+    private Path writeSnapshot() throws IOException, SerializationException {
+        DiscoverySnapshot snapshot = DiscoverySnapshot.create();
+        Snapshotted snapshotted = load(snapshot);
+        assertEquals("second", layout(snapshotted).method(0).getName());
+        assertEquals(1, snapshot.size());
+        Path path = directory.resolve("snapshot.txt");
+        snapshot.write(path);
+        return path;
+    }
+
+    private static void rewriteEntry(Path path, UnaryOperator<String[]> rewrite) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8).stream().map(line -> {
+            String[] parts = line.split("\t");
+            return parts.length == 3 ? String.join("\t", rewrite.apply(parts)) : line;
+        }).collect(Collectors.toList());
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSnapshotDefinesSlots() throws IOException, SerializationException {
+        Path path = writeSnapshot();
+        rewriteEntry(path, parts -> new String[]{parts[0], parts[2], parts[1]});
+        Snapshotted snapshotted = load(DiscoverySnapshot.read(path));
+        assertEquals("a", snapshotted.first());
+        assertEquals("b", snapshotted.second());
+        // Reflection would discover methods of the interface before methods of its superinterfaces
+        assertEquals("first", layout(snapshotted).method(0).getName());
+    }
+
+    @Test
+    void testStaleEntryIgnored() throws IOException, SerializationException {
+        Path path = writeSnapshot();
+        // Entry of a version of the interface with another method, and of a version without the second method
+        rewriteEntry(path, parts -> new String[]{parts[0], parts[2], Parent.class.getName() + "#removed()"});
+        assertStaleEntryIgnored(path);
+        path = writeSnapshot();
+        rewriteEntry(path, parts -> new String[]{parts[0], parts[2]});
+        assertStaleEntryIgnored(path);
+    }
+
+    private static void assertStaleEntryIgnored(Path path) throws IOException, SerializationException {
+        DiscoverySnapshot snapshot = DiscoverySnapshot.read(path);
+        Snapshotted snapshotted = load(snapshot);
+        assertEquals(2, layout(snapshotted).size());
+        assertEquals("second", layout(snapshotted).method(0).getName());
+        assertEquals(1, snapshot.size());
+    }
+
+    @Test
+    void testMissingFileReadAsEmpty() throws IOException {
+        assertEquals(0, DiscoverySnapshot.read(directory.resolve("missing.txt")).size());
+    }
+
+}
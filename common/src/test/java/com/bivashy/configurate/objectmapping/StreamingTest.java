@@ -0,0 +1,235 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.loader.ParsingException;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.StreamingLoader;
+import com.bivashy.configurate.objectmapping.meta.Matches;
+import com.bivashy.configurate.objectmapping.meta.NodeKey;
+
+class StreamingTest {
+
+    private static final InterfaceObjectMapperFactory FACTORY = new InterfaceObjectMapperFactory();
+    private static final ConfigurationOptions OPTIONS = ConfigurationOptions.defaults()
+            .serializers(opt -> opt.register(InterfaceObjectMapperFactory::applicable, FACTORY));
+
+    @ConfigInterface
+    public interface Item {
+
+        @NodeKey
+        String key();
+
+        @Matches("[a-z0-9]+")
+        String id();
+
+        long weight();
+
+        List<String> tags();
+
+        Price price();
+
+        @ConfigInterface
+        interface Price {
+
+            double amount();
+
+            boolean discounted();
+
+        }
+
+    }
+
+    @ConfigInterface
+    public interface Amount {
+
+        String text();
+
+        double value();
+
+    }
+
+    private static String element(int i) {
+        return "{\"id\": \"item" + i + "\", \"weight\": " + (i * 1000L) + ", \"tags\": [\"tag" + i % 10 + "\", \"a\\\"b\\u0041\"],"
+                + " \"price\": {\"amount\": " + i + ".5, \"discounted\": " + (i % 2 == 0) + "}}";
+    }
+
+    @Test
+    void testLargeListFile(@TempDir Path directory) throws IOException {
+        int elements = 100_000;
+        Path file = directory.resolve("items.json");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < elements; i++)
+                writer.write((i > 0 ? ",\n  " : "  ") + element(i));
+            writer.write("\n]\n");
+        }
+
+        StreamingLoader<Item> loader = FACTORY.streaming(Item.class, OPTIONS);
+        try (Stream<Item> items = loader.stream(file)) {
+            Iterator<Item> iterator = items.iterator();
+            for (int i = 0; i < elements; i++) {
+                Item item = iterator.next();
+                assertEquals(String.valueOf(i), item.key());
+                assertEquals("item" + i, item.id());
+                assertEquals(i * 1000L, item.weight());
+                assertEquals("tag" + i % 10, item.tags().get(0));
+                assertEquals("a\"bA", item.tags().get(1));
+                assertEquals(i + 0.5, item.price().amount());
+                assertEquals(i % 2 == 0, item.price().discounted());
+            }
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    void testMap() throws SerializationException {
+        String json = "{\"first\": " + element(1) + ", \"second\": " + element(2) + "}";
+        List<Item> items = FACTORY.streaming(Item.class, OPTIONS).stream(new StringReader(json)).collect(Collectors.toList());
+
+        assertEquals(2, items.size());
+        assertEquals("first", items.get(0).key());
+        assertEquals("item2", items.get(1).id());
+        assertEquals(0, FACTORY.streaming(Item.class, OPTIONS).stream(new StringReader(" [ ] ")).count());
+    }
+
+    @Test
+    void testBoundedMemory() throws SerializationException {
+        // Over 30 MB of JSON that never exists as a whole, and elements that were read are not retained
+        int elements = 300_000;
+        long[] usedHeap = new long[2];
+        long weight = FACTORY.streaming(Item.class, OPTIONS)
+                .stream(new GeneratedReader(elements))
+                .peek(item -> {
+                    if (item.weight() == 10_000 * 1000L)
+                        usedHeap[0] = usedHeap();
+                    else if (item.weight() == (elements - 1) * 1000L)
+                        usedHeap[1] = usedHeap();
+                })
+                .mapToLong(Item::weight)
+                .sum();
+        assertEquals(1000L * elements * (elements - 1) / 2, weight);
+        long retained = usedHeap[1] - usedHeap[0];
+        assertTrue(retained < 16 * 1024 * 1024, "Reading 290000 elements retained " + retained + " bytes");
+    }
+
+    @Test
+    void testNumbers() throws SerializationException {
+        String json = "[{\"text\": 9223372036854775807, \"value\": 2147483648},"
+                + " {\"text\": 9223372036854775808, \"value\": -18446744073709551616},"
+                + " {\"text\": -0, \"value\": 1.5e3}]";
+        List<Amount> amounts = FACTORY.streaming(Amount.class, OPTIONS).stream(new StringReader(json)).collect(Collectors.toList());
+
+        assertEquals("9223372036854775807", amounts.get(0).text());
+        assertEquals(2147483648d, amounts.get(0).value());
+        assertEquals("9223372036854775808", amounts.get(1).text());
+        assertEquals(-18446744073709551616d, amounts.get(1).value());
+        assertEquals("0", amounts.get(2).text());
+        assertEquals(1500d, amounts.get(2).value());
+    }
+
+    @Test
+    void testInvalidNumbersAndStrings() throws SerializationException {
+        StreamingLoader<Amount> loader = FACTORY.streaming(Amount.class, OPTIONS);
+        for (String value : new String[]{"01", "-01", "-", "1.", ".5", "1e", "1e+", "+1", "0x10", "\"a\tb\"", "\"a\nb\"", "\"a\u0001b\""}) {
+            UncheckedIOException exception = assertThrows(UncheckedIOException.class,
+                    () -> loader.stream(new StringReader("[{\"text\": " + value + "}]")).count(), value);
+            assertInstanceOf(ParsingException.class, exception.getCause(), value);
+        }
+    }
+
+    @Test
+    void testErrors() throws SerializationException {
+        StreamingLoader<Item> loader = FACTORY.streaming(Item.class, OPTIONS);
+        String invalidElement = "[" + element(0) + ", " + element(1).replace("item1", "Not valid") + "]";
+        UncheckedIOException exception = assertThrows(UncheckedIOException.class,
+                () -> loader.stream(new StringReader(invalidElement)).count());
+        SerializationException cause = assertInstanceOf(SerializationException.class, exception.getCause());
+        assertEquals("[1, id]", cause.path().toString(), cause.getMessage());
+
+        exception = assertThrows(UncheckedIOException.class,
+                () -> loader.stream(new StringReader("[" + element(0) + ",\n" + element(1) + " " + element(2) + "]")).count());
+        ParsingException parsing = assertInstanceOf(ParsingException.class, exception.getCause());
+        assertEquals(2, parsing.line());
+        assertThrows(UncheckedIOException.class, () -> loader.stream(new StringReader("\"text\"")).count());
+    }
+
+    @Test
+    void testDeeplyNestedValues() throws SerializationException {
+        StreamingLoader<Amount> loader = FACTORY.streaming(Amount.class, OPTIONS);
+        assertEquals("deep", loader.stream(new StringReader("[{\"text\": \"deep\", \"nested\": " + nested(500) + "}]"))
+                .findFirst().get().text());
+
+        UncheckedIOException exception = assertThrows(UncheckedIOException.class,
+                () -> loader.stream(new StringReader("[{\"text\": \"deep\", \"nested\": " + nested(100_000) + "}]")).count());
+        assertInstanceOf(ParsingException.class, exception.getCause());
+    }
+
+    // Alternates arrays and objects nested in the value of an element
+    private static String nested(int depth) {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < depth; i++)
+            json.append(i % 2 == 0 ? "[" : "{\"a\": ");
+        json.append("1");
+        for (int i = depth - 1; i >= 0; i--)
+            json.append(i % 2 == 0 ? "]" : "}");
+        return json.toString();
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static final class GeneratedReader extends Reader {
+
+        private final int elements;
+        private int index = -1;
+        private String chunk = "[";
+        private int position;
+
+        GeneratedReader(int elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == chunk.length()) {
+                if (index == elements)
+                    return -1;
+                index++;
+                chunk = index == elements ? "]" : (index > 0 ? "," : "") + element(index);
+                position = 0;
+            }
+            int read = Math.min(length, chunk.length() - position);
+            chunk.getChars(position, position + read, buffer, offset);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import com.bivashy.configurate.objectmapping.common.BatchSerializer;
+import com.bivashy.configurate.objectmapping.common.InterfaceMethodDiscoverer;
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.TypeRegistry;
+
+class TypeRegistryTest {
+
+    private static final TypeRegistry REGISTRY = TypeRegistry.builder()
+            .alias("item", ItemReward.class)
+            .alias("money", MoneyReward.class)
+            .polymorphicInterfaces()
+            .build();
+
+    private static ConfigurationOptions options(InterfaceObjectMapperFactory factory) {
+        return options(factory, REGISTRY);
+    }
+
+    private static ConfigurationOptions options(InterfaceObjectMapperFactory factory, TypeRegistry registry) {
+        InterfaceObjectMapperFactory registryFactory = factory.typeRegistry(registry);
+        return ConfigurationOptions.defaults().serializers(opt -> opt
+                .register(InterfaceObjectMapperFactory::applicable, registryFactory)
+                .register(BatchSerializer::applicable, registryFactory.batchSerializer(2, ForkJoinPool.commonPool())));
+    }
+
+    @ConfigInterface
+    public interface Rewards {
+
+        List<Reward> rewards();
+
+        Reward main();
+
+    }
+
+    @ConfigInterface
+    public interface Reward {
+
+        String name();
+
+    }
+
+    @ConfigInterface
+    public interface ItemReward extends Reward {
+
+        String item();
+
+    }
+
+    @ConfigInterface
+    public interface MoneyReward extends Reward {
+
+        double amount();
+
+    }
+
+    @ConfigInterface
+    public interface Unrelated {
+
+        String name();
+
+    }
+
+    private static ConfigurationNode node(ConfigurationOptions options) {
+        return BasicConfigurationNode.root(options, n -> {
+            ConfigurationNode item = n.node("rewards").appendListNode();
+            item.node("__class__").raw("item");
+            item.node("name").raw("Sword");
+            item.node("item").raw("diamond_sword");
+            ConfigurationNode money = n.node("rewards").appendListNode();
+            money.node("__class__").raw(MoneyReward.class.getName());
+            money.node("name").raw("Coins");
+            money.node("amount").raw(15.5);
+            n.node("rewards").appendListNode().node("name").raw("Plain");
+            n.node("main", "__class__").raw("money");
+            n.node("main", "amount").raw(100);
+        });
+    }
+
+    @Test
+    void testPolymorphicLoad() throws SerializationException {
+        Rewards rewards = node(options(new InterfaceObjectMapperFactory())).get(Rewards.class);
+
+        assertEquals(3, rewards.rewards().size());
+        ItemReward item = assertInstanceOf(ItemReward.class, rewards.rewards().get(0));
+        assertEquals("diamond_sword", item.item());
+        assertEquals(15.5, assertInstanceOf(MoneyReward.class, rewards.rewards().get(1)).amount());
+        assertFalse(rewards.rewards().get(2) instanceof ItemReward || rewards.rewards().get(2) instanceof MoneyReward);
+        assertEquals(100, assertInstanceOf(MoneyReward.class, rewards.main()).amount());
+    }
+
+    @Test
+    void testAliasesSaved() throws SerializationException {
+        InterfaceMethodDiscoverer discoverer = InterfaceMethodDiscoverer.defaultBuilder().generateImplementations(true).build();
+        ConfigurationOptions options = options(new InterfaceObjectMapperFactory(discoverer));
+        Rewards rewards = node(options).get(Rewards.class);
+
+        ConfigurationNode saved = BasicConfigurationNode.root(options);
+        saved.set(Rewards.class, rewards);
+        assertEquals("item", saved.node("rewards", 0, "__class__").getString());
+        assertEquals("money", saved.node("rewards", 1, "__class__").getString());
+        assertTrue(saved.node("rewards", 2, "__class__").virtual());
+        assertEquals("money", saved.node("main", "__class__").getString());
+        assertEquals(rewards, saved.get(Rewards.class));
+    }
+
+    @Test
+    void testInterfacesNotPolymorphicByDefault() throws SerializationException {
+        TypeRegistry registry = TypeRegistry.builder().alias("item", ItemReward.class).build();
+        ConfigurationOptions options = options(new InterfaceObjectMapperFactory(), registry);
+        ConfigurationNode node = node(options);
+        node.node("main", "__class__").raw(Unrelated.class.getName());
+        Rewards rewards = node.get(Rewards.class);
+
+        for (Reward reward : rewards.rewards())
+            assertFalse(reward instanceof ItemReward || reward instanceof MoneyReward);
+        assertFalse(rewards.main() instanceof MoneyReward);
+
+        Rewards polymorphic = node(options(new InterfaceObjectMapperFactory())).get(Rewards.class);
+        ItemReward item = assertInstanceOf(ItemReward.class, polymorphic.rewards().get(0));
+        ConfigurationNode saved = BasicConfigurationNode.root(options);
+        saved.set(Reward.class, item);
+        assertTrue(saved.node("__class__").virtual());
+        assertEquals("Sword", saved.node("name").getString());
+    }
+
+    @Test
+    void testUnrelatedTypeRejected() {
+        ConfigurationNode node = node(options(new InterfaceObjectMapperFactory()));
+        node.node("main", "__class__").raw(Unrelated.class.getName());
+        assertThrows(SerializationException.class, () -> node.get(Rewards.class));
+        node.node("main", "__class__").raw("unknown");
+        assertThrows(SerializationException.class, () -> node.get(Rewards.class));
+    }
+
+    @Test
+    void testDuplicateAliasRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TypeRegistry.builder()
+                .alias("item", ItemReward.class)
+                .alias("item", MoneyReward.class));
+    }
+
+}
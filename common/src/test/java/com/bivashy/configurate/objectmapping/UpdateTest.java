@@ -0,0 +1,169 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.*;
+import org.spongepowered.configurate.BasicConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.serialize.SerializationException;
+import org.spongepowered.configurate.serialize.TypeSerializerCollection;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.ProxyInstances;
+import com.bivashy.configurate.objectmapping.meta.Matches;
+import com.bivashy.configurate.objectmapping.meta.Required;
+
+class UpdateTest {
+
+    private static final int UPDATES = 5_000;
+    private final InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+
+    private ConfigurationNode node(InterfaceObjectMapperFactory factory) {
+        return BasicConfigurationNode.root(ConfigurationOptions.defaults().serializers(opt -> opt
+                .registerAll(TypeSerializerCollection.defaults())
+                .register(InterfaceObjectMapperFactory::applicable, factory)), n -> {
+            n.node("host").raw("localhost");
+            n.node("port").raw(25565);
+            n.node("database", "url").raw("first");
+        });
+    }
+
+    @ConfigInterface
+    public interface MainConfig {
+
+        @Matches("[a-z.]+")
+        String host();
+
+        void host(String host);
+
+        int port();
+
+        void port(int port);
+
+        @Required
+        Database database();
+
+        void database(Database database);
+
+    }
+
+    @ConfigInterface
+    public interface Database {
+
+        String url();
+
+        void url(String url);
+
+    }
+
+    @Test
+    void testUpdatePublishesWritesAtOnce() throws SerializationException {
+        MainConfig main = node(factory.concurrent()).get(MainConfig.class);
+        Database database = main.database();
+        MainConfig before = ProxyInstances.snapshot(main);
+        List<String> events = new ArrayList<>();
+        ProxyInstances.onChange(main, MainConfig::port, (previous, next) -> events.add("port " + next));
+        ProxyInstances.onChange(main, MainConfig::database, (previous, next) -> events.add("database " + next.url()));
+
+        ProxyInstances.update(main, staged -> {
+            staged.host("example.org");
+            staged.port(staged.port() + 1);
+            staged.database().url("second");
+            // Staged values are read back before they are published
+            assertEquals("second", staged.database().url());
+            assertEquals("localhost", main.host());
+        });
+
+        assertEquals("example.org", main.host());
+        assertEquals(25566, main.port());
+        assertSame(database, main.database());
+        assertEquals("second", database.url());
+        assertEquals("localhost", before.host());
+        assertEquals("first", before.database().url());
+        assertEquals(2, events.size());
+        assertTrue(events.contains("port 25566"));
+        assertTrue(events.contains("database second"));
+
+        events.clear();
+        ProxyInstances.update(main, staged -> staged.port(25566));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testConstraintsAreCheckedOnFinalValues() throws SerializationException {
+        MainConfig main = node(factory.concurrent()).get(MainConfig.class);
+
+        assertThrows(SerializationException.class, () -> ProxyInstances.update(main, staged -> {
+            staged.host("NOT A HOST");
+            staged.port(1);
+        }));
+        assertThrows(SerializationException.class, () -> ProxyInstances.update(main, staged -> staged.database(null)));
+        assertEquals("localhost", main.host());
+        assertEquals(25565, main.port());
+        assertNotNull(main.database());
+
+        ProxyInstances.update(main, staged -> {
+            staged.host("NOT A HOST");
+            staged.host("example.org");
+        });
+        assertEquals("example.org", main.host());
+        assertThrows(IllegalArgumentException.class, () -> ProxyInstances.update(node(factory).get(MainConfig.class), staged -> {
+        }));
+    }
+
+    @Test
+    void testContendedUpdatesAreNotLost() throws Exception {
+        MainConfig main = node(factory.concurrent()).get(MainConfig.class);
+        Database database = main.database();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ProxyInstances.update(main, staged -> staged.database().url(String.valueOf(staged.port())));
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            Future<Integer> reader = executor.submit(() -> {
+                int inconsistent = 0;
+                while (writing.get()) {
+                    MainConfig snapshot = ProxyInstances.snapshot(main);
+                    if (!snapshot.database().url().equals(String.valueOf(snapshot.port())))
+                        inconsistent++;
+                }
+                return inconsistent;
+            });
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < UPDATES; j++) {
+                        ProxyInstances.update(main, staged -> {
+                            int port = staged.port() + 1;
+                            staged.port(port);
+                            staged.database().url(String.valueOf(port));
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers)
+                writer.get(60, TimeUnit.SECONDS);
+            writing.set(false);
+            assertEquals(0, reader.get(60, TimeUnit.SECONDS));
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+        assertEquals(25565 + 4 * UPDATES, main.port());
+        assertEquals(String.valueOf(main.port()), database.url());
+    }
+
+}
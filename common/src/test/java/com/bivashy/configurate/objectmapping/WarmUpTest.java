@@ -0,0 +1,81 @@
+package com.bivashy.configurate.objectmapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.*;
+
+import com.bivashy.configurate.objectmapping.common.InterfaceObjectMapperFactory;
+import com.bivashy.configurate.objectmapping.common.WarmUpStats;
+
+class WarmUpTest {
+
+    @ConfigInterface
+    public interface Server {
+
+        String name();
+
+        Limits limits();
+
+        List<Listener> listeners();
+
+    }
+
+    @ConfigInterface
+    public interface Limits {
+
+        int players();
+
+    }
+
+    @ConfigInterface
+    public interface Listener {
+
+        int port();
+
+        Limits limits();
+
+    }
+
+    // Not annotated, the processor would reject it at compile time
+    public interface Invalid {
+
+        String value(int index);
+
+    }
+
+    @Test
+    void testNestedInterfacesWarmedUp() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            WarmUpStats stats = new InterfaceObjectMapperFactory().warmUp(Arrays.asList(Server.class, Limits.class), executor).get();
+            assertEquals(3, stats.types());
+            assertTrue(stats.discoveryTimes().keySet().containsAll(Arrays.asList(Server.class, Limits.class, Listener.class)));
+            assertFalse(stats.elapsed().isNegative());
+            assertFalse(stats.discoveryTime().isNegative());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testWarmedUpFactoryLoads() throws Exception {
+        InterfaceObjectMapperFactory factory = new InterfaceObjectMapperFactory();
+        factory.warmUp(Collections.singleton(Server.class)).get();
+        assertNotNull(factory.get(Listener.class));
+    }
+
+    @Test
+    void testInvalidInterfaceFails() {
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> new InterfaceObjectMapperFactory().warmUp(Collections.singleton(Invalid.class)).get());
+        assertNotNull(exception.getCause());
+    }
+
+}
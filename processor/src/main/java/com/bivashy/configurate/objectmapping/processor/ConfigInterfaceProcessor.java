@@ -0,0 +1,481 @@
+package com.bivashy.configurate.objectmapping.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.bivashy.configurate.objectmapping.ConfigInterface;
+import com.bivashy.configurate.objectmapping.meta.Transient;
+
+/**
+ * Validates {@link ConfigInterface} interfaces and generates their discovery descriptors and implementations.
+ *
+ * <p>Descriptor of {@code Outer.Settings} is the {@code Outer$Settings$ProximateDescriptor} class in the same package.
+ * Its {@code SLOTS} field lists discovered methods in the order of their slots,
+ * as {@code declaringClass#name(parameterTypes)}, so the runtime discoverer doesn't scan the interface hierarchy.
+ * {@code FINGERPRINT} is computed from names and parameter counts of every method of the hierarchy, the runtime compares it
+ * to detect interfaces changed since the descriptor was generated. {@code KEYS}, {@code COMMENTS} and {@code CONSTRAINTS}
+ * list explicit {@code @Setting} keys, {@code @Comment} values and constraint annotations of the slots, {@code null} if absent.</p>
+ *
+ * <p>Methods are discovered with the same rules as the default {@code InterfaceMethodDiscoverer} filters.
+ * Methods with parameters are reported as warnings, as custom invokers may implement them,
+ * and such interfaces are discovered through reflection.</p>
+ *
+ * <p>If {@code proximate-configurate-common} is on the classpath, the {@code Outer$Settings$ProximateImplementation} class
+ * is generated too. Like classes generated at runtime, it stores values in {@code slot<N>} fields and dispatches other methods
+ * by their index in its {@code METHODS} field. {@code FIELDS} has the slot of each method that is a plain field read or write,
+ * or {@code -1}, the runtime uses the class only if its invokers bind the same methods to field reads and writes.</p>
+ */
+public final class ConfigInterfaceProcessor extends AbstractProcessor {
+
+    static final String DESCRIPTOR_SUFFIX = "$ProximateDescriptor";
+    static final String IMPLEMENTATION_SUFFIX = "$ProximateImplementation";
+    private static final String GENERATED_INSTANCE = "com.bivashy.configurate.objectmapping.common.GeneratedInstance";
+    private static final String META_PACKAGE = "com.bivashy.configurate.objectmapping.meta.";
+    private static final Set<String> CONSTRAINTS = new HashSet<>(Arrays.asList(META_PACKAGE + "Required", META_PACKAGE + "Matches"));
+    // Final methods of GeneratedInstance, which implementations can't override
+    private static final Set<String> RESERVED_NAMES = new HashSet<>(Arrays.asList("dispatch", "dispatchUnary", "markDirty"));
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ConfigInterface.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(ConfigInterface.class)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@ConfigInterface types must be interfaces", element);
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<ExecutableElement> slots = new ArrayList<>();
+            if (!collectSlots(type, slots))
+                continue;
+            writeDescriptor(type, slots);
+            if (processingEnv.getElementUtils().getTypeElement(GENERATED_INSTANCE) != null)
+                writeImplementation(type, slots);
+        }
+        return false;
+    }
+
+    private boolean collectSlots(TypeElement type, List<ExecutableElement> slots) {
+        DeclaredType targetType = (DeclaredType) type.asType();
+        // Signatures as members of the target type, so overridden methods of superinterfaces are skipped
+        Set<String> signatures = new HashSet<>();
+        boolean valid = true;
+        for (TypeElement current : hierarchy(type)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                ExecutableType memberType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(targetType, method);
+                String signature = method.getSimpleName() + memberType.getParameterTypes().stream()
+                        .map(this::typeName)
+                        .collect(Collectors.joining(",", "(", ")"));
+                if (!signatures.add(signature))
+                    continue;
+                if (method.getModifiers().contains(Modifier.STATIC))
+                    continue;
+                boolean isDefault = method.getModifiers().contains(Modifier.DEFAULT);
+                if (isDefault && method.getAnnotation(Transient.class) != null)
+                    continue;
+                if (method.getParameters().size() == 1 && isSetterReturnType(method, current))
+                    continue;
+                if (!method.getParameters().isEmpty() && !isDefault) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Interface methods should not have parameters: '" + method + "', unless a custom invoker implements them. " +
+                                    "Interface is discovered through reflection", method);
+                    valid = false;
+                    continue;
+                }
+                slots.add(method);
+            }
+        }
+        return valid;
+    }
+
+    private boolean isSetterReturnType(ExecutableElement method, TypeElement declaringType) {
+        TypeMirror returnType = method.getReturnType();
+        return returnType.getKind() == TypeKind.VOID ||
+                processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(returnType),
+                        processingEnv.getTypeUtils().erasure(declaringType.asType()));
+    }
+
+    private String describe(ExecutableElement method) {
+        return binaryName((TypeElement) method.getEnclosingElement()) + "#" + method.getSimpleName() + method.getParameters().stream()
+                .map(parameter -> typeName(parameter.asType()))
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Same as {@code Descriptors.fingerprint} at runtime: sum of hash codes of names of methods declared by the hierarchy,
+     * combined with their parameter counts.
+     */
+    private int fingerprint(TypeElement type) {
+        int fingerprint = 0;
+        for (TypeElement current : new LinkedHashSet<>(hierarchy(type))) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements()))
+                fingerprint += method.getSimpleName().toString().hashCode() * 31 + method.getParameters().size();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the interface followed by its superinterfaces, in the order of runtime discovery.
+     */
+    private List<TypeElement> hierarchy(TypeElement type) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        hierarchy.add(type);
+        collectInterfaces(type, hierarchy);
+        return hierarchy;
+    }
+
+    private void collectInterfaces(TypeElement type, List<TypeElement> interfaces) {
+        for (TypeMirror superInterface : type.getInterfaces()) {
+            TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(superInterface);
+            interfaces.add(element);
+            collectInterfaces(element, interfaces);
+        }
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    /**
+     * Returns name of the erased type, as {@link Class#getTypeName()} would.
+     */
+    private String typeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY)
+            return typeName(((ArrayType) erased).getComponentType()) + "[]";
+        if (erased.getKind() == TypeKind.DECLARED)
+            return binaryName((TypeElement) ((DeclaredType) erased).asElement());
+        return erased.toString();
+    }
+
+    private void writeDescriptor(TypeElement type, List<ExecutableElement> slots) {
+        String qualifiedName = generatedName(type, DESCRIPTOR_SUFFIX);
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writePackage(writer, qualifiedName);
+            writer.write("/**\n * Discovery descriptor of {@link " + type.getQualifiedName() + "}, generated by "
+                    + getClass().getSimpleName() + ".\n */\n");
+            writer.write("public final class " + simpleName + " {\n\n");
+            writer.write("    public static final String[] SLOTS = " + stringArray(slots.stream()
+                    .map(this::describe)
+                    .collect(Collectors.toList())) + ";\n\n");
+            writer.write("    public static final int FINGERPRINT = " + fingerprint(type) + ";\n\n");
+            writer.write("    public static final String[] KEYS = " + stringArray(slots.stream()
+                    .map(method -> annotationValue(method, META_PACKAGE + "Setting"))
+                    .map(key -> key == null || key.isEmpty() ? null : key)
+                    .collect(Collectors.toList())) + ";\n\n");
+            writer.write("    public static final String[] COMMENTS = " + stringArray(slots.stream()
+                    .map(method -> annotationValue(method, META_PACKAGE + "Comment"))
+                    .collect(Collectors.toList())) + ";\n\n");
+            writer.write("    public static final String[][] CONSTRAINTS = {");
+            for (int i = 0; i < slots.size(); i++) {
+                List<String> constraints = slots.get(i).getAnnotationMirrors().stream()
+                        .map(this::annotationName)
+                        .filter(CONSTRAINTS::contains)
+                        .collect(Collectors.toList());
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write("            " + (constraints.isEmpty() ? "null" : "{" + constraints.stream()
+                        .map(ConfigInterfaceProcessor::literal)
+                        .collect(Collectors.joining(", ")) + "}"));
+            }
+            writer.write("\n    };\n\n");
+            writer.write("    private " + simpleName + "() {\n    }\n\n}\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write descriptor: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Generates implementation of the interface, unless some of its methods or their types can't be implemented from its package.
+     */
+    private void writeImplementation(TypeElement type, List<ExecutableElement> slots) {
+        Types types = processingEnv.getTypeUtils();
+        DeclaredType targetType = (DeclaredType) type.asType();
+        List<ExecutableElement> methods = implementedMethods(type);
+        if (methods == null || !accessible(type.asType(), type))
+            return;
+        for (ExecutableElement method : methods) {
+            ExecutableType memberType = memberType(targetType, method);
+            if (RESERVED_NAMES.contains(method.getSimpleName().toString()) || !accessible(memberType.getReturnType(), type) ||
+                    !memberType.getParameterTypes().stream().allMatch(parameterType -> accessible(parameterType, type)))
+                return;
+        }
+        for (ExecutableElement slot : slots) {
+            if (!accessible(slot.getReturnType(), type))
+                return;
+        }
+
+        String qualifiedName = generatedName(type, IMPLEMENTATION_SUFFIX);
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        int[] fields = new int[methods.size()];
+        StringBuilder body = new StringBuilder();
+        for (int slot = 0; slot < slots.size(); slot++)
+            body.append("    private ").append(sourceName(slots.get(slot).getReturnType())).append(" slot").append(slot).append(";\n");
+        body.append("\n    public ").append(simpleName).append("(com.bivashy.configurate.objectmapping.proxy.ProxyMethodHandler[] handlers, ")
+                .append("com.bivashy.configurate.objectmapping.proxy.ProxySlotLayout layout) {\n")
+                .append("        super(handlers, layout);\n    }\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            ExecutableType memberType = memberType(targetType, method);
+            String returnType = sourceName(memberType.getReturnType());
+            List<? extends TypeMirror> parameterTypes = memberType.getParameterTypes();
+            body.append("\n    public ").append(returnType).append(" ").append(method.getSimpleName()).append("(");
+            for (int parameter = 0; parameter < parameterTypes.size(); parameter++) {
+                if (parameter != 0)
+                    body.append(", ");
+                body.append(sourceName(parameterTypes.get(parameter))).append(" p").append(parameter);
+            }
+            body.append(") {\n        ");
+            int read = fieldRead(method, slots);
+            int write = read == -1 ? fieldWrite(type, method, slots) : -1;
+            fields[i] = read != -1 ? read : write;
+            if (read != -1) {
+                boolean sameType = types.isSameType(types.erasure(memberType.getReturnType()), types.erasure(method.getReturnType()));
+                body.append("return ").append(sameType ? "" : "(" + returnType + ") ").append("slot").append(read).append(";");
+            } else if (write != -1) {
+                body.append("slot").append(write).append(" = p0;\n        markDirty(").append(write).append(");");
+                if (memberType.getReturnType().getKind() != TypeKind.VOID)
+                    body.append("\n        return this;");
+            } else {
+                String dispatch = parameterTypes.size() == 1 && !parameterTypes.get(0).getKind().isPrimitive()
+                        ? "dispatchUnary(" + i + ", p0)"
+                        : "dispatch(" + i + ", " + (parameterTypes.isEmpty() ? "null" : IntStream.range(0, parameterTypes.size())
+                        .mapToObj(parameter -> "p" + parameter)
+                        .collect(Collectors.joining(", ", "new Object[]{", "}"))) + ")";
+                TypeMirror memberReturnType = memberType.getReturnType();
+                if (memberReturnType.getKind() == TypeKind.VOID)
+                    body.append(dispatch).append(";");
+                else if (memberReturnType.getKind().isPrimitive())
+                    body.append("return (").append(sourceName(types.boxedClass((PrimitiveType) memberReturnType).asType())).append(") ")
+                            .append(dispatch).append(";");
+                else
+                    body.append("return (").append(returnType).append(") ").append(dispatch).append(";");
+            }
+            body.append("\n    }\n");
+        }
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writePackage(writer, qualifiedName);
+            writer.write("/**\n * Implementation of {@link " + type.getQualifiedName() + "}, generated by "
+                    + getClass().getSimpleName() + ".\n */\n");
+            writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            writer.write("public final class " + simpleName + " extends " + GENERATED_INSTANCE + " implements "
+                    + type.getQualifiedName() + " {\n\n");
+            writer.write("    public static final String[] METHODS = " + stringArray(methods.stream()
+                    .map(this::describe)
+                    .collect(Collectors.toList())) + ";\n\n");
+            writer.write("    public static final int[] FIELDS = " + Arrays.stream(fields)
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.joining(", ", "{", "}")) + ";\n\n");
+            writer.write(body.toString());
+            writer.write("\n}\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write implementation: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Returns public instance methods of the hierarchy and methods of {@link Object} implemented by generated classes,
+     * the most specific declaration of each signature, or {@code null} if some declarations have unrelated return types.
+     */
+    private List<ExecutableElement> implementedMethods(TypeElement type) {
+        Types types = processingEnv.getTypeUtils();
+        DeclaredType targetType = (DeclaredType) type.asType();
+        Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+        List<ExecutableElement> candidates = new ArrayList<>();
+        for (TypeElement current : hierarchy(type))
+            candidates.addAll(ElementFilter.methodsIn(current.getEnclosedElements()));
+        TypeElement object = processingEnv.getElementUtils().getTypeElement(Object.class.getName());
+        for (ExecutableElement method : ElementFilter.methodsIn(object.getEnclosedElements())) {
+            String name = method.getSimpleName().toString();
+            if (name.equals("toString") || name.equals("hashCode") || name.equals("equals"))
+                candidates.add(method);
+        }
+        for (ExecutableElement method : candidates) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE))
+                continue;
+            ExecutableType memberType = memberType(targetType, method);
+            String signature = method.getSimpleName() + memberType.getParameterTypes().stream()
+                    .map(this::typeName)
+                    .collect(Collectors.joining(",", "(", ")"));
+            ExecutableElement existing = methods.get(signature);
+            if (existing == null) {
+                methods.put(signature, method);
+                continue;
+            }
+            TypeMirror returnType = types.erasure(memberType.getReturnType());
+            TypeMirror existingReturnType = types.erasure(memberType(targetType, existing).getReturnType());
+            if (types.isSubtype(existingReturnType, returnType))
+                continue;
+            if (!types.isSubtype(returnType, existingReturnType))
+                return null;
+            methods.put(signature, method);
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    private ExecutableType memberType(DeclaredType targetType, ExecutableElement method) {
+        if (method.getEnclosingElement().getKind() == ElementKind.CLASS)
+            return (ExecutableType) method.asType();
+        return (ExecutableType) processingEnv.getTypeUtils().asMemberOf(targetType, method);
+    }
+
+    /**
+     * Same as methods {@code ProxyInstanceFactory} reads from their fields, with the default invokers.
+     */
+    private int fieldRead(ExecutableElement method, List<ExecutableElement> slots) {
+        if (method.getModifiers().contains(Modifier.DEFAULT) || !method.getParameters().isEmpty())
+            return -1;
+        return slots.indexOf(method);
+    }
+
+    /**
+     * Same as setters {@code ImplementationGenerator} compiles to field writes, with the default invokers.
+     */
+    private int fieldWrite(TypeElement type, ExecutableElement method, List<ExecutableElement> slots) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror returnType = method.getReturnType();
+        if (method.getModifiers().contains(Modifier.DEFAULT) || method.getParameters().size() != 1 ||
+                returnType.getKind() != TypeKind.VOID && !types.isSubtype(types.erasure(type.asType()), types.erasure(returnType)))
+            return -1;
+        for (int slot = 0; slot < slots.size(); slot++) {
+            ExecutableElement getter = slots.get(slot);
+            if (getter.getSimpleName().contentEquals(method.getSimpleName()))
+                return types.isSameType(types.erasure(getter.getReturnType()), types.erasure(method.getParameters().get(0).asType()))
+                        ? slot : -1;
+        }
+        return -1;
+    }
+
+    private boolean accessible(TypeMirror type, TypeElement from) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        while (erased.getKind() == TypeKind.ARRAY)
+            erased = ((ArrayType) erased).getComponentType();
+        if (erased.getKind() != TypeKind.DECLARED)
+            return true;
+        PackageElement fromPackage = processingEnv.getElementUtils().getPackageOf(from);
+        for (Element current = ((DeclaredType) erased).asElement(); current.getKind() != ElementKind.PACKAGE;
+             current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE))
+                return false;
+            if (!modifiers.contains(Modifier.PUBLIC) && !processingEnv.getElementUtils().getPackageOf(current).equals(fromPackage))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns value of the annotation of the method, empty if it has no explicit value, or {@code null} if the method has no such annotation.
+     */
+    private String annotationValue(ExecutableElement method, String annotation) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (!annotationName(mirror).equals(annotation))
+                continue;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value"))
+                    return String.valueOf(entry.getValue().getValue());
+            }
+            return "";
+        }
+        return null;
+    }
+
+    private String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private String generatedName(TypeElement type, String suffix) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = binaryName(type);
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + suffix;
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    private static void writePackage(Writer writer, String qualifiedName) throws IOException {
+        int lastDot = qualifiedName.lastIndexOf('.');
+        if (lastDot != -1)
+            writer.write("package " + qualifiedName.substring(0, lastDot) + ";\n\n");
+    }
+
+    /**
+     * Returns name of the erased type as it is written in source code.
+     */
+    private String sourceName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY)
+            return sourceName(((ArrayType) erased).getComponentType()) + "[]";
+        if (erased.getKind() == TypeKind.DECLARED)
+            return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+        return erased.getKind().isPrimitive() || erased.getKind() == TypeKind.VOID ? erased.getKind().name().toLowerCase(Locale.ROOT)
+                : erased.toString();
+    }
+
+    private static String stringArray(List<String> values) {
+        if (values.isEmpty())
+            return "{}";
+        return values.stream()
+                .map(value -> "            " + (value == null ? "null" : literal(value)))
+                .collect(Collectors.joining(",\n", "{\n", "\n    }"));
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\')
+                builder.append('\\').append(c);
+            else if (c < ' ')
+                // Unicode escapes of line terminators would end the literal, octal escapes don't
+                builder.append(String.format("\\%03o", (int) c));
+            else if (c > '~')
+                builder.append(String.format("\\u%04x", (int) c));
+            else
+                builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+
+}
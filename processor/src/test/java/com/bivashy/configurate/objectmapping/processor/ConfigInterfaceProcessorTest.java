@@ -0,0 +1,121 @@
+package com.bivashy.configurate.objectmapping.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bivashy.configurate.objectmapping.ConfigInterface;
+
+class ConfigInterfaceProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    private DiagnosticCollector<JavaFileObject> compile(String className, String source) throws IOException, URISyntaxException {
+        Path sourceFile = directory.resolve("src").resolve(className.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        Path output = Files.createDirectories(directory.resolve("out"));
+        String apiClasspath = new File(ConfigInterface.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", apiClasspath, "-d", output.toString(), "-s", output.toString()), null,
+                    fileManager.getJavaFileObjects(sourceFile.toFile()));
+            task.setProcessors(Collections.singleton(new ConfigInterfaceProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+
+    private String[] slots(String descriptorName) throws Exception {
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.resolve("out").toUri().toURL()},
+                ConfigInterfaceProcessorTest.class.getClassLoader())) {
+            return (String[]) loader.loadClass(descriptorName).getField("SLOTS").get(null);
+        }
+    }
+
+    @Test
+    void testDescriptorGenerated() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile("example.Outer",
+                "package example;\n" +
+                        "import java.util.List;\n" +
+                        "import com.bivashy.configurate.objectmapping.ConfigInterface;\n" +
+                        "import com.bivashy.configurate.objectmapping.meta.Transient;\n" +
+                        "public interface Outer {\n" +
+                        "    interface Named<T> {\n" +
+                        "        T name();\n" +
+                        "        String description();\n" +
+                        "    }\n" +
+                        "    @ConfigInterface\n" +
+                        "    interface Settings extends Named<String> {\n" +
+                        "        List<String> values();\n" +
+                        "        String description();\n" +
+                        "        void values(List<String> values);\n" +
+                        "        Settings description(String description);\n" +
+                        "        default int size() { return values().size(); }\n" +
+                        "        @Transient default String joined() { return String.join(\",\", values()); }\n" +
+                        "        static Settings create() { return null; }\n" +
+                        "    }\n" +
+                        "}\n");
+        assertTrue(diagnostics.getDiagnostics().isEmpty(), diagnostics.getDiagnostics().toString());
+        assertArrayEquals(new String[]{
+                "example.Outer$Settings#values()",
+                "example.Outer$Settings#description()",
+                "example.Outer$Settings#size()",
+                "example.Outer$Named#name()"
+        }, slots("example.Outer$Settings$ProximateDescriptor"));
+        // Implementations extend a class of the common module, which isn't on the classpath
+        assertFalse(Files.exists(directory.resolve("out").resolve("example").resolve("Outer$Settings$ProximateImplementation.java")));
+    }
+
+    @Test
+    void testParameterizedMethodWarned() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile("example.Invalid",
+                "package example;\n" +
+                        "import com.bivashy.configurate.objectmapping.ConfigInterface;\n" +
+                        "@ConfigInterface\n" +
+                        "public interface Invalid {\n" +
+                        "    String value(int index);\n" +
+                        "}\n");
+        assertEquals(1, diagnostics.getDiagnostics().size(), diagnostics.getDiagnostics().toString());
+        // Custom invokers may implement such methods, so compilation succeeds and the interface is discovered through reflection
+        assertEquals(Diagnostic.Kind.WARNING, diagnostics.getDiagnostics().get(0).getKind());
+        assertTrue(diagnostics.getDiagnostics().get(0).getMessage(null).contains("Interface methods should not have parameters"));
+        assertTrue(Files.exists(directory.resolve("out").resolve("example").resolve("Invalid.class")));
+        assertFalse(Files.exists(directory.resolve("out").resolve("example").resolve("Invalid$ProximateDescriptor.java")));
+    }
+
+    @Test
+    void testClassRejected() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile("example.NotInterface",
+                "package example;\n" +
+                        "import com.bivashy.configurate.objectmapping.ConfigInterface;\n" +
+                        "@ConfigInterface\n" +
+                        "public class NotInterface {\n" +
+                        "}\n");
+        assertEquals(1, diagnostics.getDiagnostics().size(), diagnostics.getDiagnostics().toString());
+    }
+
+}